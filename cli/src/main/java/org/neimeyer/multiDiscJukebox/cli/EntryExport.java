@@ -0,0 +1,105 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import java.io.PrintStream;
+
+/**
+ * Line-per-MultiBox exports for spreadsheets and scripts
+ */
+final class EntryExport {
+    private EntryExport() {
+    }
+
+    /**
+     * CSV with one row per MultiBox; discs are {@code slot:material} pairs separated by semicolons
+     */
+    static final class Csv implements EntryPipeline.Sink<String> {
+        private final PrintStream out;
+
+        Csv(PrintStream out) {
+            this.out = out;
+            out.println("world,x,y,z,size,disc_count,discs");
+        }
+
+        @Override
+        public String prepare(JukeboxEntry entry) {
+            StringBuilder discs = new StringBuilder();
+            for (int i = 0; i < entry.size(); i++) {
+                JukeboxEntry.StoredItem item = entry.slots()[i];
+                if (item == null) continue;
+                if (!discs.isEmpty()) discs.append(';');
+                discs.append(i).append(':').append(item.material());
+            }
+            return quote(entry.world()) + "," + entry.x() + "," + entry.y() + "," + entry.z() + ","
+                    + entry.size() + "," + entry.discCount() + "," + quote(discs.toString());
+        }
+
+        @Override
+        public void write(JukeboxEntry entry, String line) {
+            out.println(line);
+        }
+
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    /**
+     * One JSON object per line
+     */
+    static final class JsonLines implements EntryPipeline.Sink<String> {
+        private final PrintStream out;
+
+        JsonLines(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public String prepare(JukeboxEntry entry) {
+            StringBuilder json = new StringBuilder(64 + entry.discCount() * 48);
+            json.append("{\"world\":").append(string(entry.world()))
+                    .append(",\"x\":").append(entry.x())
+                    .append(",\"y\":").append(entry.y())
+                    .append(",\"z\":").append(entry.z())
+                    .append(",\"size\":").append(entry.size())
+                    .append(",\"discs\":[");
+            boolean first = true;
+            for (int i = 0; i < entry.size(); i++) {
+                JukeboxEntry.StoredItem item = entry.slots()[i];
+                if (item == null) continue;
+                if (!first) json.append(',');
+                first = false;
+                json.append("{\"slot\":").append(i)
+                        .append(",\"material\":").append(string(item.material()))
+                        .append(",\"amount\":").append(item.amount())
+                        .append(",\"plain\":").append(item.isPlain())
+                        .append('}');
+            }
+            return json.append("]}").toString();
+        }
+
+        @Override
+        public void write(JukeboxEntry entry, String line) {
+            out.println(line);
+        }
+
+        private static String string(String value) {
+            StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> json.append("\\\"");
+                    case '\\' -> json.append("\\\\");
+                    case '\n' -> json.append("\\n");
+                    case '\r' -> json.append("\\r");
+                    case '\t' -> json.append("\\t");
+                    default -> {
+                        if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                        else json.append(c);
+                    }
+                }
+            }
+            return json.append('"').toString();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Predicate;
+
+/**
+ * Decodes entries on several threads while one thread reads and one writes.
+ * <p>
+ * The reader and the decoders are joined by bounded queues, so a fast reader waits
+ * for the decoders rather than buffering the file, and at most a few hundred entries
+ * are in memory at any time. {@link Sink#prepare} runs on the decoder threads and
+ * should do the expensive part of writing (formatting, encoding); {@link Sink#write}
+ * runs on the calling thread only, in no particular order.
+ */
+final class EntryPipeline {
+    private static final int QUEUE_PER_THREAD = 32;
+    private static final Object END = new Object();
+
+    /**
+     * Receives decoded entries
+     *
+     * @param <P> What {@link #prepare} hands to {@link #write}
+     */
+    interface Sink<P> {
+        P prepare(JukeboxEntry entry) throws Exception;
+
+        void write(JukeboxEntry entry, P prepared) throws Exception;
+
+        /**
+         * Called on the writing thread for entries that couldn't be decoded
+         */
+        default void failed(String where, String message) {
+            System.err.println(where + ": " + message);
+        }
+    }
+
+    /**
+     * Counts from a finished run
+     *
+     * @param read    Entries read
+     * @param matched Entries that passed the filter and were written
+     * @param failed  Entries that couldn't be decoded or written
+     */
+    record Result(long read, long matched, long failed) {
+    }
+
+    private record Decoded(JukeboxEntry entry, Object prepared, String where, String error) {
+    }
+
+    private EntryPipeline() {
+    }
+
+    static <P> Result run(StorageReader reader, Predicate<JukeboxEntry> filter, int threads, Sink<P> sink) throws IOException {
+        BlockingQueue<Object> raw = new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD);
+        BlockingQueue<Object> decoded = new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD);
+        long[] read = new long[1];
+        IOException[] readError = new IOException[1];
+
+        Thread readerThread = Thread.ofPlatform().name("multibox-cli-reader").start(() -> {
+            try {
+                reader.read(entry -> {
+                    read[0]++;
+                    put(raw, entry);
+                });
+            } catch (IOException e) {
+                readError[0] = e;
+            } finally {
+                for (int i = 0; i < threads; i++) put(raw, END);
+            }
+        });
+
+        for (int i = 0; i < threads; i++) {
+            Thread.ofPlatform().name("multibox-cli-decoder-" + i).daemon().start(() -> {
+                while (true) {
+                    Object next = take(raw);
+                    if (next == END) {
+                        put(decoded, END);
+                        return;
+                    }
+                    put(decoded, decode((StorageReader.RawEntry) next, filter, sink));
+                }
+            });
+        }
+
+        long matched = 0;
+        long failed = 0;
+        int finishedDecoders = 0;
+        while (finishedDecoders < threads) {
+            Object next = take(decoded);
+            if (next == END) {
+                finishedDecoders++;
+                continue;
+            }
+
+            Decoded result = (Decoded) next;
+            if (result.error() != null) {
+                failed++;
+                sink.failed(result.where(), result.error());
+            } else if (result.entry() != null) {
+                try {
+                    @SuppressWarnings("unchecked") P prepared = (P) result.prepared();
+                    sink.write(result.entry(), prepared);
+                    matched++;
+                } catch (Exception e) {
+                    failed++;
+                    sink.failed(result.entry().key(), "could not be written: " + e.getMessage());
+                }
+            }
+        }
+
+        try {
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (readError[0] != null) throw readError[0];
+        return new Result(read[0], matched, failed);
+    }
+
+    private static Decoded decode(StorageReader.RawEntry raw, Predicate<JukeboxEntry> filter, Sink<?> sink) {
+        try {
+            JukeboxEntry entry = raw.decode();
+            if (!filter.test(entry)) return new Decoded(null, null, null, null);
+            return new Decoded(entry, sink.prepare(entry), null, null);
+        } catch (StorageReader.EntryException e) {
+            return new Decoded(null, null, raw.describe(), e.getMessage());
+        } catch (Exception e) {
+            return new Decoded(null, null, raw.describe(), e.toString());
+        }
+    }
+
+    private static void put(BlockingQueue<Object> queue, Object value) {
+        try {
+            queue.put(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+
+    private static Object take(BlockingQueue<Object> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * One stored MultiBox as read from any backend, without Bukkit.
+ *
+ * @param world    The world name
+ * @param x        Block x
+ * @param y        Block y
+ * @param z        Block z
+ * @param slots    One entry per slot, null where the slot is empty
+ * @param problems Non-fatal problems noticed while decoding, for validate
+ */
+record JukeboxEntry(String world, int x, int y, int z, StoredItem[] slots, List<String> problems) {
+
+    /**
+     * A stored item. Items read from YAML keep their serialized map, so YAML to YAML
+     * conversion is lossless; items read from SQLite keep Paper's binary form if they
+     * weren't plain discs.
+     *
+     * @param material   Upper case material name, e.g. MUSIC_DISC_CAT, or the namespaced id of a non-vanilla item
+     * @param amount     Stack size
+     * @param yaml       The serialized item from a YAML file, or null
+     * @param paperBytes Paper's binary item serialization from the database, or null
+     */
+    record StoredItem(String material, int amount, Map<String, Object> yaml, byte[] paperBytes) {
+        // Keys of a serialized item that carries nothing but its type
+        private static final Set<String> PLAIN_KEYS = Set.of("==", "v", "DataVersion", "schema_version", "type", "id", "amount", "count");
+
+        /**
+         * @return True if the item is a single disc with no meta, which every backend can store
+         */
+        boolean isPlain() {
+            return paperBytes == null && amount == 1 && (yaml == null || PLAIN_KEYS.containsAll(yaml.keySet()));
+        }
+
+        /**
+         * @return True if the item looks like a music disc
+         */
+        boolean isDisc() {
+            return material.contains("MUSIC_DISC");
+        }
+
+        /**
+         * Normalizes a YAML {@code type} or {@code id} value to a material name
+         */
+        static String materialName(String typeOrId) {
+            if (typeOrId == null) return null;
+            String name = typeOrId.startsWith("minecraft:") ? typeOrId.substring("minecraft:".length()) : typeOrId;
+            return name.contains(":") ? name : name.toUpperCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * @return The location key used by the plugin, e.g. {@code world,10,64,-3}
+     */
+    String key() {
+        return world + "," + x + "," + y + "," + z;
+    }
+
+    int size() {
+        return slots.length;
+    }
+
+    /**
+     * @return The number of occupied slots, whatever they hold
+     */
+    int filledSlots() {
+        int count = 0;
+        for (StoredItem item : slots) {
+            if (item != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of slots holding a music disc
+     */
+    int discCount() {
+        int count = 0;
+        for (StoredItem item : slots) {
+            if (item != null && item.isDisc()) count++;
+        }
+        return count;
+    }
+
+    boolean contains(String material) {
+        for (StoredItem item : slots) {
+            if (item != null && item.material().equals(material)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks that another backend can store every item
+     *
+     * @param storable Whether the target backend can store an item
+     * @param target   The target backend's name, for the message
+     * @throws IOException Naming the first slot that can't be converted
+     */
+    void requireConvertible(Predicate<StoredItem> storable, String target) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null && !storable.test(slots[i])) {
+                throw new IOException("slot " + i + " holds " + slots[i].material() + " with item data only a server can convert to " + target);
+            }
+        }
+    }
+
+    /**
+     * Paper's packed block position, as used by the database backend
+     */
+    long blockKey() {
+        return ((long) x & 0x7FFFFFF) | (((long) z & 0x7FFFFFF) << 27) | ((long) y << 54);
+    }
+
+    /**
+     * Paper's packed chunk position, as used by the database backend
+     */
+    long chunkKey() {
+        return ((long) (x >> 4) & 0xffffffffL) | (((long) (z >> 4) & 0xffffffffL) << 32);
+    }
+
+    static int blockKeyX(long packed) {
+        return (int) ((packed << 37) >> 37);
+    }
+
+    static int blockKeyY(long packed) {
+        return (int) (packed >> 54);
+    }
+
+    static int blockKeyZ(long packed) {
+        return (int) ((packed << 10) >> 37);
+    }
+}
@@ -0,0 +1,218 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Offline tool for MultiBox data: list, export, validate and convert the storage
+ * files without starting a server.
+ * <p>
+ * Files are streamed, so memory use stays flat however large they are, and entries
+ * are decoded on every core.
+ */
+public final class MultiBoxCli {
+    // Data version of Minecraft 1.21.4, written into items converted to YAML
+    private static final int DEFAULT_DATA_VERSION = 4189;
+
+    private static final String USAGE = """
+            Usage: java -jar MultiDiscJukebox-cli.jar <command> [options]
+
+            Commands:
+              list <input>                      List MultiBoxes and how many discs they hold
+              export <input> --format csv|jsonl Export MultiBoxes, one line each [--out <file>]
+              validate <input>                  Report entries the plugin would skip or change
+              convert <input> <output>          Copy MultiBoxes to another backend [--data-version <n>]
+
+            A .db file is the SQLite backend. A .yml file, or a folder of them such as
+            worlds/, is the YAML backend. convert writes a new .db file or a new folder.
+
+            Filters for list, export and convert:
+              --world <name>                    Only MultiBoxes in this world
+              --region <x1,z1,x2,z2>            Only MultiBoxes within these block coordinates
+              --disc <material>                 Only MultiBoxes holding this disc, e.g. MUSIC_DISC_CAT
+
+              --threads <n>                     Decoder threads (default: one per core)
+            """;
+
+    private MultiBoxCli() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.print(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static int run(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                options.put(args[i].substring(2), args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+        if (positional.isEmpty()) throw new IllegalArgumentException("No command given");
+
+        String command = positional.getFirst();
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        if (threads < 1) throw new IllegalArgumentException("--threads must be at least 1");
+        Predicate<JukeboxEntry> filter = filter(options);
+
+        return switch (command) {
+            case "list" -> {
+                requireArgs(positional, 2);
+                try (StorageReader reader = open(positional.get(1))) {
+                    long[] discs = new long[1];
+                    EntryPipeline.Result result = EntryPipeline.run(reader, filter, threads, new EntryPipeline.Sink<String>() {
+                        @Override
+                        public String prepare(JukeboxEntry entry) {
+                            return entry.key() + ": " + entry.filledSlots() + " of " + entry.size() + " slots filled, " + entry.discCount() + " discs";
+                        }
+
+                        @Override
+                        public void write(JukeboxEntry entry, String line) {
+                            discs[0] += entry.discCount();
+                            System.out.println(line);
+                        }
+                    });
+                    System.err.println(result.matched() + " of " + result.read() + " MultiBoxes, " + discs[0] + " discs"
+                            + (result.failed() > 0 ? ", " + result.failed() + " unreadable" : ""));
+                    yield result.failed() > 0 ? 1 : 0;
+                }
+            }
+            case "export" -> {
+                requireArgs(positional, 2);
+                String format = options.getOrDefault("format", "").toLowerCase(Locale.ROOT);
+                try (StorageReader reader = open(positional.get(1));
+                     PrintStream out = output(options.get("out"))) {
+                    EntryPipeline.Sink<String> sink = switch (format) {
+                        case "csv" -> new EntryExport.Csv(out);
+                        case "jsonl" -> new EntryExport.JsonLines(out);
+                        default -> throw new IllegalArgumentException("--format must be csv or jsonl");
+                    };
+                    EntryPipeline.Result result = EntryPipeline.run(reader, filter, threads, sink);
+                    System.err.println("Exported " + result.matched() + " of " + result.read() + " MultiBoxes");
+                    yield result.failed() > 0 ? 1 : 0;
+                }
+            }
+            case "validate" -> {
+                requireArgs(positional, 2);
+                try (StorageReader reader = open(positional.get(1))) {
+                    long[] withProblems = new long[1];
+                    EntryPipeline.Result result = EntryPipeline.run(reader, entry -> true, threads, new EntryPipeline.Sink<Void>() {
+                        @Override
+                        public Void prepare(JukeboxEntry entry) {
+                            return null;
+                        }
+
+                        @Override
+                        public void write(JukeboxEntry entry, Void unused) {
+                            if (entry.problems().isEmpty()) return;
+                            withProblems[0]++;
+                            for (String problem : entry.problems()) {
+                                System.out.println(entry.key() + ": " + problem);
+                            }
+                        }
+
+                        @Override
+                        public void failed(String where, String message) {
+                            System.out.println(where + ": unreadable, " + message);
+                        }
+                    });
+                    System.err.println(result.read() + " MultiBoxes checked: " + result.failed() + " unreadable, "
+                            + withProblems[0] + " with problems");
+                    yield result.failed() > 0 || withProblems[0] > 0 ? 1 : 0;
+                }
+            }
+            case "convert" -> {
+                requireArgs(positional, 3);
+                File target = new File(positional.get(2));
+                int dataVersion = Integer.parseInt(options.getOrDefault("data-version", String.valueOf(DEFAULT_DATA_VERSION)));
+                try (StorageReader reader = open(positional.get(1))) {
+                    EntryPipeline.Result result;
+                    if (isDatabase(target)) {
+                        try (SqliteStorageWriter writer = new SqliteStorageWriter(target)) {
+                            result = EntryPipeline.run(reader, filter, threads, writer);
+                        }
+                    } else {
+                        try (YamlStorageWriter writer = new YamlStorageWriter(target, dataVersion)) {
+                            result = EntryPipeline.run(reader, filter, threads, writer);
+                        }
+                    }
+                    System.err.println("Converted " + result.matched() + " of " + result.read() + " MultiBoxes to " + target
+                            + (result.failed() > 0 ? "; " + result.failed() + " were left out, see above" : ""));
+                    yield result.failed() > 0 ? 1 : 0;
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown command " + command);
+        };
+    }
+
+    private static StorageReader open(String path) throws IOException {
+        File input = new File(path);
+        if (!input.exists()) throw new IOException(path + " does not exist");
+        return isDatabase(input) ? new SqliteStorageReader(input) : new YamlStorageReader(input);
+    }
+
+    private static boolean isDatabase(File file) {
+        return file.getName().endsWith(".db");
+    }
+
+    private static PrintStream output(String path) throws IOException {
+        if (path == null) {
+            // Don't let try-with-resources close stdout
+            return new PrintStream(new BufferedOutputStream(new FileOutputStream(java.io.FileDescriptor.out)), false, StandardCharsets.UTF_8);
+        }
+        return new PrintStream(new BufferedOutputStream(new FileOutputStream(path)), false, StandardCharsets.UTF_8);
+    }
+
+    private static void requireArgs(List<String> positional, int count) {
+        if (positional.size() < count) throw new IllegalArgumentException("Missing arguments for " + positional.getFirst());
+    }
+
+    private static Predicate<JukeboxEntry> filter(Map<String, String> options) {
+        Predicate<JukeboxEntry> filter = entry -> true;
+
+        String world = options.get("world");
+        if (world != null) filter = filter.and(entry -> entry.world().equals(world));
+
+        String region = options.get("region");
+        if (region != null) {
+            String[] bounds = region.split(",");
+            if (bounds.length != 4) throw new IllegalArgumentException("--region takes x1,z1,x2,z2");
+            int x1 = Integer.parseInt(bounds[0].trim()), z1 = Integer.parseInt(bounds[1].trim());
+            int x2 = Integer.parseInt(bounds[2].trim()), z2 = Integer.parseInt(bounds[3].trim());
+            int minX = Math.min(x1, x2), maxX = Math.max(x1, x2);
+            int minZ = Math.min(z1, z2), maxZ = Math.max(z1, z2);
+            filter = filter.and(entry -> entry.x() >= minX && entry.x() <= maxX && entry.z() >= minZ && entry.z() <= maxZ);
+        }
+
+        String disc = options.get("disc");
+        if (disc != null) {
+            String material = JukeboxEntry.StoredItem.materialName(disc);
+            filter = filter.and(entry -> entry.contains(material));
+        }
+        return filter;
+    }
+}
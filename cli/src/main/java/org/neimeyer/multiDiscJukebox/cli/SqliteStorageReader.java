@@ -0,0 +1,186 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the SQLite backend row by row.
+ * <p>
+ * Disc blobs use the plugin's own encoding: plain discs are a material name, other
+ * items are Paper's compressed NBT, of which only the item id and count are read.
+ */
+final class SqliteStorageReader implements StorageReader {
+    private static final String SELECT_ALL = "SELECT world, pos, chunk, discs FROM multibox_jukeboxes";
+
+    private static final byte FORMAT_SLOTS = 1;
+    private static final byte FORMAT_SPARSE = 2;
+    private static final byte SLOT_EMPTY = 0;
+    private static final byte SLOT_PLAIN = 1;
+    private static final byte SLOT_SERIALIZED = 2;
+
+    private final Connection connection;
+
+    SqliteStorageReader(File database) throws IOException {
+        if (!database.isFile()) throw new IOException("No database at " + database);
+        try {
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + database.getAbsolutePath());
+            connection.setReadOnly(true);
+        } catch (SQLException e) {
+            throw new IOException("Cannot open " + database + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void read(Consumer<RawEntry> sink) throws IOException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_ALL)) {
+            // Rows are fetched in batches rather than all at once
+            select.setFetchSize(256);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    sink.accept(new RawRow(rows.getString(1), rows.getLong(2), rows.getLong(3), rows.getBytes(4)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to read multibox_jukeboxes: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private record RawRow(String world, long pos, long chunk, byte[] discs) implements RawEntry {
+        @Override
+        public String describe() {
+            return world + "," + JukeboxEntry.blockKeyX(pos) + "," + JukeboxEntry.blockKeyY(pos) + "," + JukeboxEntry.blockKeyZ(pos);
+        }
+
+        @Override
+        public JukeboxEntry decode() throws EntryException {
+            List<String> problems = new ArrayList<>();
+            JukeboxEntry.StoredItem[] slots;
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(discs))) {
+                byte version = in.readByte();
+                if (version == FORMAT_SLOTS) {
+                    slots = new JukeboxEntry.StoredItem[in.readUnsignedShort()];
+                    for (int i = 0; i < slots.length; i++) {
+                        slots[i] = readSlot(in, i, problems);
+                    }
+                } else if (version == FORMAT_SPARSE) {
+                    slots = new JukeboxEntry.StoredItem[in.readUnsignedShort()];
+                    int count = in.readUnsignedShort();
+                    for (int n = 0; n < count; n++) {
+                        int slot = in.readUnsignedShort();
+                        if (slot >= slots.length) throw new EntryException("slot " + slot + " out of range");
+                        slots[slot] = readSlot(in, slot, problems);
+                    }
+                } else {
+                    throw new EntryException("unknown disc data version " + version);
+                }
+                if (in.available() > 0) problems.add("has " + in.available() + " bytes of trailing data");
+            } catch (IOException e) {
+                throw new EntryException("truncated disc data");
+            }
+
+            JukeboxEntry entry = new JukeboxEntry(world, JukeboxEntry.blockKeyX(pos), JukeboxEntry.blockKeyY(pos), JukeboxEntry.blockKeyZ(pos), slots, problems);
+            if (entry.chunkKey() != chunk) problems.add("has a chunk column that doesn't match its position; chunk loads will miss it");
+            return entry;
+        }
+
+        private static JukeboxEntry.StoredItem readSlot(DataInputStream in, int slot, List<String> problems) throws IOException, EntryException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case SLOT_EMPTY:
+                    return null;
+                case SLOT_PLAIN: {
+                    JukeboxEntry.StoredItem item = new JukeboxEntry.StoredItem(in.readUTF(), 1, null, null);
+                    if (!item.isDisc()) problems.add("slot " + slot + " holds " + item.material() + ", which is not a music disc");
+                    return item;
+                }
+                case SLOT_SERIALIZED: {
+                    byte[] data = new byte[in.readInt()];
+                    in.readFully(data);
+                    return readPaperItem(data, slot, problems);
+                }
+                default:
+                    throw new EntryException("unknown slot tag " + tag + " at slot " + slot);
+            }
+        }
+    }
+
+    /**
+     * Reads the id and count from Paper's compressed NBT item, skipping everything else
+     */
+    private static JukeboxEntry.StoredItem readPaperItem(byte[] data, int slot, List<String> problems) {
+        String id = null;
+        int count = 1;
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readByte() != 10) throw new IOException("not a compound");
+            in.readUTF();
+            byte type;
+            while ((type = in.readByte()) != 0) {
+                String name = in.readUTF();
+                if (type == 8 && name.equals("id")) {
+                    id = in.readUTF();
+                } else if (type == 3 && name.equals("count")) {
+                    count = in.readInt();
+                } else if (type == 1 && name.equals("count")) {
+                    count = in.readByte();
+                } else {
+                    skipTag(in, type);
+                }
+            }
+        } catch (IOException e) {
+            problems.add("slot " + slot + " holds an item that can't be read: " + e.getMessage());
+        }
+
+        String material = JukeboxEntry.StoredItem.materialName(id);
+        if (material == null) {
+            problems.add("slot " + slot + " holds an item without an id");
+            material = "UNKNOWN";
+        }
+        return new JukeboxEntry.StoredItem(material, count, null, data);
+    }
+
+    private static void skipTag(DataInputStream in, byte type) throws IOException {
+        switch (type) {
+            case 1 -> in.skipNBytes(1);
+            case 2 -> in.skipNBytes(2);
+            case 3, 5 -> in.skipNBytes(4);
+            case 4, 6 -> in.skipNBytes(8);
+            case 7 -> in.skipNBytes(in.readInt());
+            case 8 -> in.skipNBytes(in.readUnsignedShort());
+            case 9 -> {
+                byte elementType = in.readByte();
+                int length = in.readInt();
+                for (int i = 0; i < length; i++) skipTag(in, elementType);
+            }
+            case 10 -> {
+                byte inner;
+                while ((inner = in.readByte()) != 0) {
+                    in.skipNBytes(in.readUnsignedShort());
+                    skipTag(in, inner);
+                }
+            }
+            case 11 -> in.skipNBytes(4L * in.readInt());
+            case 12 -> in.skipNBytes(8L * in.readInt());
+            default -> throw new IOException("unknown NBT tag " + type);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Writes a new database for the SQLite backend, with the plugin's schema and disc
+ * encoding.
+ * <p>
+ * Plain discs are stored by material name and database items are copied as they
+ * are. Items read from YAML with meta are Bukkit maps, which only a server can
+ * turn into Paper's binary form.
+ */
+final class SqliteStorageWriter implements EntryPipeline.Sink<byte[]>, AutoCloseable {
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS multibox_jukeboxes (" +
+            "world TEXT NOT NULL, pos INTEGER NOT NULL, chunk INTEGER NOT NULL, discs BLOB NOT NULL, " +
+            "PRIMARY KEY (world, pos))";
+    private static final String CREATE_CHUNK_INDEX = "CREATE INDEX IF NOT EXISTS multibox_jukeboxes_chunk " +
+            "ON multibox_jukeboxes (world, chunk)";
+    private static final String UPSERT = "INSERT OR REPLACE INTO multibox_jukeboxes (world, pos, chunk, discs) VALUES (?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 1000;
+
+    private static final byte FORMAT_SPARSE = 2;
+    private static final byte SLOT_PLAIN = 1;
+    private static final byte SLOT_SERIALIZED = 2;
+
+    private final Connection connection;
+    private final PreparedStatement upsert;
+    private int batched = 0;
+
+    SqliteStorageWriter(File database) throws IOException {
+        if (database.exists()) throw new IOException(database + " already exists");
+        try {
+            this.connection = DriverManager.getConnection("jdbc:sqlite:" + database.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_TABLE);
+                statement.execute(CREATE_CHUNK_INDEX);
+            }
+            connection.setAutoCommit(false);
+            this.upsert = connection.prepareStatement(UPSERT);
+        } catch (SQLException e) {
+            throw new IOException("Cannot create " + database + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public byte[] prepare(JukeboxEntry entry) throws IOException {
+        entry.requireConvertible(item -> item.paperBytes() != null || item.isPlain(), "SQLite");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + entry.filledSlots() * 6);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_SPARSE);
+            out.writeShort(entry.size());
+            out.writeShort(entry.filledSlots());
+            for (int i = 0; i < entry.size(); i++) {
+                JukeboxEntry.StoredItem item = entry.slots()[i];
+                if (item == null) continue;
+
+                out.writeShort(i);
+                if (item.paperBytes() == null) {
+                    out.writeByte(SLOT_PLAIN);
+                    out.writeUTF(item.material());
+                } else {
+                    out.writeByte(SLOT_SERIALIZED);
+                    out.writeInt(item.paperBytes().length);
+                    out.write(item.paperBytes());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void write(JukeboxEntry entry, byte[] discs) throws SQLException {
+        upsert.setString(1, entry.world());
+        upsert.setLong(2, entry.blockKey());
+        upsert.setLong(3, entry.chunkKey());
+        upsert.setBytes(4, discs);
+        upsert.addBatch();
+        if (++batched >= BATCH_SIZE) flush();
+    }
+
+    private void flush() throws SQLException {
+        upsert.executeBatch();
+        connection.commit();
+        batched = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            upsert.close();
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Failed to finish the database: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Reads stored MultiBoxes one at a time, so memory use doesn't grow with the file.
+ * <p>
+ * Reading only splits the input into raw entries; decoding them is left to
+ * {@link RawEntry#decode()} so it can run on other threads.
+ */
+interface StorageReader extends AutoCloseable {
+
+    /**
+     * Hands every raw entry to the sink, in storage order
+     *
+     * @param sink Receives the entries; may block to apply back pressure
+     * @throws IOException If the input can't be read
+     */
+    void read(Consumer<RawEntry> sink) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * An undecoded entry
+     */
+    interface RawEntry {
+        /**
+         * @return Where the entry came from, for error messages
+         */
+        String describe();
+
+        /**
+         * @return The decoded entry
+         * @throws EntryException If the entry is malformed
+         */
+        JukeboxEntry decode() throws EntryException;
+    }
+
+    /**
+     * An entry that can't be decoded at all
+     */
+    final class EntryException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        EntryException(String message) {
+            super(message);
+        }
+    }
+}
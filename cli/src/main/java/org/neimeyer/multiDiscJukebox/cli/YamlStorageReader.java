@@ -0,0 +1,194 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams the YAML backend: a legacy data.yml, one per-world file, or the worlds/
+ * folder holding them.
+ * <p>
+ * The files are one mapping of location keys to MultiBoxes, as Bukkit writes them:
+ * every key starts a line at column zero and everything belonging to it is indented
+ * or is a sequence item. The reader splits on those lines and only ever holds one
+ * entry's text, which is then parsed as YAML on its own. Hand-edited files that put
+ * a top-level value on several unindented lines aren't supported.
+ */
+final class YamlStorageReader implements StorageReader {
+    private static final String LEGACY_FILE = "data.yml";
+    private static final int MAX_SLOTS = 65535;
+    private static final int CHUNK_SIZE = 64;
+
+    private final List<File> files;
+
+    YamlStorageReader(File input) throws IOException {
+        if (input.isDirectory()) {
+            File[] found = input.listFiles((dir, name) -> name.endsWith(".yml"));
+            if (found == null) throw new IOException("Cannot list " + input);
+            Arrays.sort(found);
+            this.files = List.of(found);
+        } else {
+            this.files = List.of(input);
+        }
+    }
+
+    @Override
+    public void read(Consumer<RawEntry> sink) throws IOException {
+        for (File file : files) {
+            try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                StringBuilder text = new StringBuilder();
+                int startLine = 0;
+                int lineNumber = 0;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    lineNumber++;
+                    if (startsEntry(line)) {
+                        if (!text.isEmpty()) sink.accept(new RawYamlEntry(file.getName(), startLine, text.toString()));
+                        text.setLength(0);
+                        startLine = lineNumber;
+                    }
+                    if (startLine > 0 && !line.isBlank()) text.append(line).append('\n');
+                }
+                if (!text.isEmpty()) sink.accept(new RawYamlEntry(file.getName(), startLine, text.toString()));
+            }
+        }
+    }
+
+    private static boolean startsEntry(String line) {
+        if (line.isEmpty()) return false;
+        char first = line.charAt(0);
+        return first != ' ' && first != '\t' && first != '-' && first != '#' && !line.startsWith("---") && !line.startsWith("...");
+    }
+
+    @Override
+    public void close() {
+        // Files are closed as soon as they've been read
+    }
+
+    private record RawYamlEntry(String fileName, int line, String text) implements RawEntry {
+        // Parsers aren't thread safe; each decoder thread keeps its own
+        private static final ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(() -> {
+            LoaderOptions options = new LoaderOptions();
+            options.setAllowDuplicateKeys(true);
+            return new Yaml(new SafeConstructor(options));
+        });
+
+        @Override
+        public String describe() {
+            return fileName + ":" + line;
+        }
+
+        @Override
+        public JukeboxEntry decode() throws EntryException {
+            Object parsed;
+            try {
+                parsed = YAML.get().load(text);
+            } catch (RuntimeException e) {
+                throw new EntryException("not valid YAML: " + e.getMessage().lines().findFirst().orElse(""));
+            }
+            if (!(parsed instanceof Map<?, ?> map) || map.size() != 1) {
+                throw new EntryException("expected a single location key");
+            }
+
+            var root = map.entrySet().iterator().next();
+            String key = String.valueOf(root.getKey());
+            String[] parts = key.split(",");
+            if (parts.length != 4) throw new EntryException("invalid location key " + key);
+
+            int x, y, z;
+            try {
+                x = Integer.parseInt(parts[1]);
+                y = Integer.parseInt(parts[2]);
+                z = Integer.parseInt(parts[3]);
+            } catch (NumberFormatException e) {
+                throw new EntryException("invalid location key " + key);
+            }
+
+            List<String> problems = new ArrayList<>();
+            String fileWorld = fileName.substring(0, fileName.length() - ".yml".length());
+            if (!fileName.equals(LEGACY_FILE) && !fileWorld.equals(parts[0])) {
+                problems.add("stored in " + fileName + " but belongs to world " + parts[0] + "; the plugin will skip it");
+            }
+
+            JukeboxEntry.StoredItem[] slots;
+            if (root.getValue() instanceof List<?> legacy) {
+                problems.add("uses the old flat item list; it is rewritten as chunks on the next save");
+                slots = new JukeboxEntry.StoredItem[legacy.size()];
+                readItems(legacy, 0, slots, problems);
+            } else if (root.getValue() instanceof Map<?, ?> section) {
+                slots = readSection(section, problems);
+            } else {
+                throw new EntryException("no items");
+            }
+
+            if (slots.length > 1024) problems.add("has " + slots.length + " slots, more than the largest capacity of 1024");
+            return new JukeboxEntry(parts[0], x, y, z, slots, problems);
+        }
+
+        private static JukeboxEntry.StoredItem[] readSection(Map<?, ?> section, List<String> problems) throws EntryException {
+            if (!(section.get("size") instanceof Integer size) || size < 0 || size > MAX_SLOTS) {
+                throw new EntryException("missing or invalid size");
+            }
+
+            JukeboxEntry.StoredItem[] slots = new JukeboxEntry.StoredItem[size];
+            if (!(section.get("chunks") instanceof Map<?, ?> chunks)) return slots;
+
+            for (var chunk : chunks.entrySet()) {
+                int index;
+                try {
+                    index = Integer.parseInt(String.valueOf(chunk.getKey()));
+                } catch (NumberFormatException e) {
+                    problems.add("has invalid chunk " + chunk.getKey());
+                    continue;
+                }
+                if (!(chunk.getValue() instanceof List<?> items)) {
+                    problems.add("chunk " + index + " holds no item list");
+                    continue;
+                }
+                readItems(items, index * CHUNK_SIZE, slots, problems);
+            }
+            return slots;
+        }
+
+        private static void readItems(List<?> items, int offset, JukeboxEntry.StoredItem[] slots, List<String> problems) {
+            for (int i = 0; i < items.size(); i++) {
+                Object value = items.get(i);
+                if (value == null) continue;
+
+                int slot = offset + i;
+                if (slot < 0 || slot >= slots.length) {
+                    problems.add("has an item in slot " + slot + ", past its size " + slots.length + "; it will be dropped");
+                    continue;
+                }
+                if (!(value instanceof Map<?, ?> raw)) {
+                    problems.add("slot " + slot + " is not an item");
+                    continue;
+                }
+
+                @SuppressWarnings("unchecked") Map<String, Object> item = (Map<String, Object>) raw;
+                Object type = item.containsKey("type") ? item.get("type") : item.get("id");
+                String material = JukeboxEntry.StoredItem.materialName(type == null ? null : type.toString());
+                if (material == null) {
+                    problems.add("slot " + slot + " has an item without a type");
+                    continue;
+                }
+                Object amount = item.containsKey("amount") ? item.get("amount") : item.get("count");
+
+                JukeboxEntry.StoredItem stored = new JukeboxEntry.StoredItem(material, amount instanceof Integer n ? n : 1, item, null);
+                if (!stored.isDisc()) problems.add("slot " + slot + " holds " + material + ", which is not a music disc");
+                slots[slot] = stored;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.neimeyer.multiDiscJukebox.cli;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the YAML backend: one file per world in a new folder, laid out like the
+ * plugin's worlds/ folder, with every MultiBox in the chunked format.
+ * <p>
+ * Items read from YAML are written back unchanged. Plain discs read from the
+ * database are written as Bukkit item maps for the given data version; other
+ * database items are Paper's binary form, which only a server can turn into YAML.
+ */
+final class YamlStorageWriter implements EntryPipeline.Sink<String>, AutoCloseable {
+    private static final int CHUNK_SIZE = 64;
+
+    private final File folder;
+    private final int dataVersion;
+    private final Map<String, BufferedWriter> writers = new HashMap<>();
+
+    // Dumpers aren't thread safe; each decoder thread keeps its own
+    private static final ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(() -> {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setIndent(2);
+        return new Yaml(options);
+    });
+
+    YamlStorageWriter(File folder, int dataVersion) throws IOException {
+        String[] existing = folder.list();
+        if (existing != null && existing.length > 0) throw new IOException(folder + " is not empty");
+        Files.createDirectories(folder.toPath());
+        this.folder = folder;
+        this.dataVersion = dataVersion;
+    }
+
+    @Override
+    public String prepare(JukeboxEntry entry) throws IOException {
+        entry.requireConvertible(item -> item.yaml() != null || item.isPlain(), "YAML");
+
+        Map<String, Object> chunks = new LinkedHashMap<>();
+        for (int from = 0; from < entry.size(); from += CHUNK_SIZE) {
+            List<Object> items = new ArrayList<>();
+            boolean empty = true;
+            for (JukeboxEntry.StoredItem item : Arrays.copyOfRange(entry.slots(), from, Math.min(from + CHUNK_SIZE, entry.size()))) {
+                items.add(item == null ? null : toYaml(item));
+                empty &= item == null;
+            }
+            if (!empty) chunks.put(String.valueOf(from / CHUNK_SIZE), items);
+        }
+
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("size", entry.size());
+        section.put("chunks", chunks);
+        return YAML.get().dump(Map.of(entry.key(), section));
+    }
+
+    private Map<String, Object> toYaml(JukeboxEntry.StoredItem item) {
+        if (item.yaml() != null) return item.yaml();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("==", "org.bukkit.inventory.ItemStack");
+        map.put("v", dataVersion);
+        map.put("type", item.material());
+        return map;
+    }
+
+    @Override
+    public void write(JukeboxEntry entry, String text) throws IOException {
+        BufferedWriter writer = writers.get(entry.world());
+        if (writer == null) {
+            writer = Files.newBufferedWriter(new File(folder, entry.world() + ".yml").toPath(), StandardCharsets.UTF_8);
+            writers.put(entry.world(), writer);
+        }
+        writer.write(text);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (BufferedWriter writer : writers.values()) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.neimeyer.multiDiscJukebox;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Audio level of detail: each player hears at most a configured number of MultiBoxes,
+ * the nearest ones that are playing. MultiBoxes linked to the same library playlist
+ * are one group and take one place in the budget, and the player only hears its
+ * nearest member, not a copy of the track from every box in the group.
+ * <p>
+ * A player's audible MultiBoxes are computed when a track starts near them for the
+ * first time, and again once they have moved a few blocks, changed world, or a
+ * MultiBox near them stopped. Playing MultiBoxes are indexed by chunk, so this only
+ * looks at the chunks within hearing range. A MultiBox that drops out is stopped for
+ * that player; one that becomes audible is heard from its next track, since a sound
+ * can't start part way through. Main thread only.
+ */
+public class AudibilityBudget implements Listener {
+    private static final double RANGE_SQUARED = 64.0 * 64.0; // Standard Minecraft jukebox range
+    private static final int CHUNK_RANGE = 4; // Chunks around a player that can be within range
+    private static final double RECOMPUTE_DISTANCE_SQUARED = 4.0 * 4.0;
+    private static final int RECOMPUTES_PER_TICK = 16;
+
+    private final MultiDiscJukebox plugin;
+    private int maxAudible;
+
+    // Every MultiBox that has a track playing, and the same by world and chunk key
+    private final Map<Location, Source> sounding = new HashMap<>();
+    private final Map<World, Map<Long, List<Source>>> soundingByChunk = new HashMap<>();
+    private final Map<UUID, Audible> audible = new HashMap<>();
+    private final Set<UUID> dirty = new LinkedHashSet<>();
+    private final List<Source> candidates = new ArrayList<>();
+    private long skipped = 0;
+
+    public AudibilityBudget(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Re-reads the budget from config and recomputes every player
+     */
+    public void reload() {
+        this.maxAudible = Math.max(0, plugin.getConfig().getInt("audio.max-audible-per-player", 8));
+        dirty.clear();
+        if (maxAudible == 0) {
+            sounding.clear();
+            soundingByChunk.clear();
+            audible.clear();
+            return;
+        }
+
+        // Silences what is now over the limit for everyone who had a budget
+        for (UUID id : List.copyOf(audible.keySet())) {
+            Player player = Bukkit.getPlayer(id);
+            if (player == null) {
+                audible.remove(id);
+            } else {
+                recompute(player);
+            }
+        }
+    }
+
+    /**
+     * Records that a MultiBox is playing a track
+     *
+     * @param loc   The MultiBox location
+     * @param audio Its audio stage
+     */
+    void started(Location loc, TrackAudio audio) {
+        if (maxAudible <= 0) return;
+        String link = plugin.getDiscLibrary() == null ? null : plugin.getDiscLibrary().getLink(loc);
+        Source source = new Source(loc, audio, link == null ? loc : link);
+        unindex(sounding.put(loc, source));
+        soundingByChunk.computeIfAbsent(loc.getWorld(), world -> new HashMap<>())
+                .computeIfAbsent(source.chunkKey, key -> new ArrayList<>(2)).add(source);
+    }
+
+    /**
+     * Records that a MultiBox stopped playing, freeing its place for players nearby
+     *
+     * @param loc The MultiBox location
+     */
+    void stopped(Location loc) {
+        Source source = sounding.remove(loc);
+        if (source == null) return;
+        unindex(source);
+        for (Player player : loc.getWorld().getPlayers()) {
+            if (audible.containsKey(player.getUniqueId()) && player.getLocation().distanceSquared(loc) <= RANGE_SQUARED) {
+                dirty.add(player.getUniqueId());
+            }
+        }
+    }
+
+    /**
+     * Whether a player in range of a MultiBox should be sent its track
+     *
+     * @param player The player
+     * @param loc    The MultiBox location
+     * @return True if the MultiBox is the nearest member of one of the player's nearest groups
+     */
+    boolean isAudible(Player player, Location loc) {
+        if (maxAudible <= 0) return true;
+
+        Source source = sounding.get(loc);
+        if (source == null) return true;
+
+        Audible state = audible.get(player.getUniqueId());
+        if (state == null || state.world != loc.getWorld()) state = recompute(player);
+        if (state.sources.contains(loc)) return true;
+
+        // Nearer than the farthest audible group, so it started after the last computation
+        if (player.getLocation().distanceSquared(loc) < state.cutoffSquared) {
+            state = recompute(player);
+            if (state.sources.contains(loc)) return true;
+        }
+        skipped++;
+        return false;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+        if (event.hasChangedBlock()) markIfMoved(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        markIfMoved(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        audible.remove(event.getPlayer().getUniqueId());
+        dirty.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (dirty.isEmpty()) return;
+
+        Iterator<UUID> it = dirty.iterator();
+        for (int i = 0; i < RECOMPUTES_PER_TICK && it.hasNext(); i++) {
+            UUID id = it.next();
+            it.remove();
+            Player player = Bukkit.getPlayer(id);
+            if (player == null) {
+                audible.remove(id);
+            } else {
+                recompute(player);
+            }
+        }
+    }
+
+    /**
+     * Describes the budget for /multibox load
+     *
+     * @return Report lines
+     */
+    public List<String> getReport() {
+        if (maxAudible <= 0) return List.of("Audio budget: off");
+        return List.of(String.format(Locale.ROOT, "Audio budget: %d MultiBoxes per player, %d playing, %d track starts skipped",
+                maxAudible, sounding.size(), skipped));
+    }
+
+    private void markIfMoved(Player player, Location to) {
+        Audible state = audible.get(player.getUniqueId());
+        if (state == null || to == null) return;
+        if (state.world != to.getWorld() || state.at.distanceSquared(to) > RECOMPUTE_DISTANCE_SQUARED) {
+            dirty.add(player.getUniqueId());
+        }
+    }
+
+    private Audible recompute(Player player) {
+        Audible state = audible.computeIfAbsent(player.getUniqueId(), id -> new Audible());
+        Location at = player.getLocation();
+
+        candidates.clear();
+        Map<Long, List<Source>> chunks = soundingByChunk.get(at.getWorld());
+        if (chunks != null) {
+            int chunkX = at.getBlockX() >> 4;
+            int chunkZ = at.getBlockZ() >> 4;
+            for (int dx = -CHUNK_RANGE; dx <= CHUNK_RANGE; dx++) {
+                for (int dz = -CHUNK_RANGE; dz <= CHUNK_RANGE; dz++) {
+                    List<Source> inChunk = chunks.get(Chunk.getChunkKey(chunkX + dx, chunkZ + dz));
+                    if (inChunk == null) continue;
+                    for (Source source : inChunk) {
+                        source.distanceSquared = source.location.distanceSquared(at);
+                        if (source.distanceSquared <= RANGE_SQUARED) candidates.add(source);
+                    }
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(source -> source.distanceSquared));
+
+        // The nearest member of a group decides its place, and is the only one heard
+        Set<Object> groups = new HashSet<>();
+        Set<Location> sources = new HashSet<>();
+        double cutoff = RANGE_SQUARED;
+        for (Source source : candidates) {
+            if (groups.size() == maxAudible) break;
+            if (groups.add(source.group)) {
+                sources.add(source.location);
+                if (groups.size() == maxAudible) cutoff = source.distanceSquared;
+            }
+        }
+
+        // Everything else, including the other members of audible groups, goes quiet now
+        for (Source source : candidates) {
+            if (!sources.contains(source.location)) source.audio.silence(player);
+        }
+        candidates.clear();
+
+        state.sources = sources;
+        state.world = at.getWorld();
+        state.at = at;
+        state.cutoffSquared = cutoff;
+        return state;
+    }
+
+    private void unindex(Source source) {
+        if (source == null) return;
+        Map<Long, List<Source>> chunks = soundingByChunk.get(source.location.getWorld());
+        if (chunks == null) return;
+        List<Source> inChunk = chunks.get(source.chunkKey);
+        if (inChunk == null) return;
+        inChunk.remove(source);
+        if (inChunk.isEmpty()) chunks.remove(source.chunkKey);
+        if (chunks.isEmpty()) soundingByChunk.remove(source.location.getWorld());
+    }
+
+    private static final class Source {
+        private final Location location;
+        private final TrackAudio audio;
+        // The library playlist id, or the location for MultiBoxes that aren't linked
+        private final Object group;
+        private final long chunkKey;
+        private double distanceSquared;
+
+        private Source(Location location, TrackAudio audio, Object group) {
+            this.location = location;
+            this.audio = audio;
+            this.group = group;
+            this.chunkKey = Chunk.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        }
+    }
+
+    private static final class Audible {
+        // The MultiBoxes this player hears: the nearest member of each audible group
+        private Set<Location> sources = Set.of();
+        private World world;
+        private Location at;
+        private double cutoffSquared;
+    }
+}
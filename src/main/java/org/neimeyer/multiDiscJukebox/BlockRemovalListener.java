@@ -0,0 +1,130 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tears down MultiBoxes removed by anything other than a player breaking them:
+ * explosions, pistons, burning and entities. Fluids are simply kept out.
+ * <p>
+ * Multi-block events are handled as one batch: one index pass over the affected blocks,
+ * one storage batch and one drop pass per event.
+ */
+public class BlockRemovalListener implements Listener {
+    private final MultiDiscJukebox plugin;
+
+    public BlockRemovalListener(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        removeExploded(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        removeExploded(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        // Heads can't be pushed, so any MultiBox in the list is about to be destroyed
+        removeBlocks(collectMultiBoxes(event.getBlocks()));
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        removeBlocks(collectMultiBoxes(event.getBlocks()));
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBurn(BlockBurnEvent event) {
+        Block block = event.getBlock();
+        if (isMultiBox(block)) {
+            removeBlocks(List.of(block));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        // Withers, ravagers and the like replacing a MultiBox with air
+        Block block = event.getBlock();
+        if (event.getTo().isAir() && isMultiBox(block)) {
+            removeBlocks(List.of(block));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event) {
+        // Keep water and lava from washing a MultiBox away
+        if (isMultiBox(event.getToBlock())) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Pulls MultiBoxes out of an explosion's block list and removes them as one batch.
+     * Taking them out of the list stops vanilla from dropping a plain head.
+     */
+    private void removeExploded(List<Block> blocks) {
+        List<Block> multiBoxes = new ArrayList<>();
+        Iterator<Block> it = blocks.iterator();
+        while (it.hasNext()) {
+            Block block = it.next();
+            if (isMultiBox(block)) {
+                multiBoxes.add(block);
+                it.remove();
+            }
+        }
+        removeBlocks(multiBoxes);
+    }
+
+    private List<Block> collectMultiBoxes(List<Block> blocks) {
+        List<Block> multiBoxes = new ArrayList<>();
+        for (Block block : blocks) {
+            if (isMultiBox(block)) multiBoxes.add(block);
+        }
+        return multiBoxes;
+    }
+
+    private void removeBlocks(List<Block> blocks) {
+        if (blocks.isEmpty()) return;
+
+        List<Location> locations = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            locations.add(block.getLocation());
+            // Clear the head ourselves so it doesn't also drop as a plain head
+            block.setType(Material.AIR, false);
+        }
+
+        Map<Location, DiscList> removed = plugin.removeMultiBoxes(locations);
+        JukeboxListener.dropRemoved(plugin, removed);
+        plugin.logInfo("block_events", "Removed " + removed.size() + " MultiBoxes in one batch");
+    }
+
+    /**
+     * Index check only: a head at a known MultiBox position needs no tile-state lookup
+     */
+    private boolean isMultiBox(Block block) {
+        Material type = block.getType();
+        return (type == Material.PLAYER_HEAD || type == Material.PLAYER_WALL_HEAD)
+                && plugin.isMultiBox(block.getLocation());
+    }
+}
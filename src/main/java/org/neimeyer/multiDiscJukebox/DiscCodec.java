@@ -0,0 +1,113 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Compact binary encoding of a MultiBox's slots, used by the database backend.
+ * <p>
+ * Plain discs are written as their material name only; interned items fall back
+ * to Paper's full item serialization.
+ */
+final class DiscCodec {
+    private static final byte FORMAT_SLOTS = 1;
+    private static final byte FORMAT_SPARSE = 2;
+
+    private static final byte SLOT_EMPTY = 0;
+    private static final byte SLOT_PLAIN = 1;
+    private static final byte SLOT_SERIALIZED = 2;
+
+    private DiscCodec() {
+    }
+
+    /**
+     * Encodes the given slots. Only occupied slots are written, so a large, mostly
+     * empty library costs no more than the discs it holds.
+     *
+     * @param contents The slots to encode
+     * @return The encoded bytes
+     */
+    static byte[] encode(DiscList contents) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + contents.occupiedCount() * 6);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_SPARSE);
+            out.writeShort(contents.size());
+            out.writeShort(contents.occupiedCount());
+            for (int i = 0; i < contents.size(); i++) {
+                if (contents.isEmpty(i)) continue;
+
+                out.writeShort(i);
+                ItemStack interned = contents.getInterned(i);
+                if (interned == null) {
+                    out.writeByte(SLOT_PLAIN);
+                    out.writeUTF(contents.getType(i).name());
+                } else {
+                    byte[] data = interned.serializeAsBytes();
+                    out.writeByte(SLOT_SERIALIZED);
+                    out.writeInt(data.length);
+                    out.write(data);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes slots written by {@link #encode(DiscList)}, or by the older format that
+     * wrote every slot
+     *
+     * @param data The encoded bytes
+     * @return The decoded slots; unknown materials decode as empty slots
+     * @throws IOException If the data is truncated or of an unknown version
+     */
+    static DiscList decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version == FORMAT_SLOTS) {
+                DiscList contents = new DiscList(in.readUnsignedShort());
+                for (int i = 0; i < contents.size(); i++) {
+                    readSlot(in, contents, i);
+                }
+                return contents;
+            }
+            if (version == FORMAT_SPARSE) {
+                DiscList contents = new DiscList(in.readUnsignedShort());
+                int count = in.readUnsignedShort();
+                for (int n = 0; n < count; n++) {
+                    int slot = in.readUnsignedShort();
+                    if (slot >= contents.size()) {
+                        throw new IOException("Slot " + slot + " out of range");
+                    }
+                    readSlot(in, contents, slot);
+                }
+                return contents;
+            }
+            throw new IOException("Unknown disc data version " + version);
+        }
+    }
+
+    private static void readSlot(DataInputStream in, DiscList contents, int slot) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case SLOT_EMPTY -> {
+                // Slots start out empty
+            }
+            case SLOT_PLAIN -> contents.setPlain(slot, Material.getMaterial(in.readUTF()));
+            case SLOT_SERIALIZED -> {
+                byte[] item = new byte[in.readInt()];
+                in.readFully(item);
+                contents.set(slot, ItemStack.deserializeBytes(item));
+            }
+            default -> throw new IOException("Unknown slot tag " + tag + " at slot " + slot);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.neimeyer.multiDiscJukebox;
+
+import net.kyori.adventure.sound.Sound;
+import net.kyori.adventure.sound.SoundStop;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+
+/**
+ * Everything playback needs to know about one distinct disc item, resolved once by
+ * {@link DiscResolver}
+ *
+ * @param material      The item's material
+ * @param key           Identifies the track: the disc's material key, the jukebox song key,
+ *                      or {@code <material key>#<custom model data>} for model overrides
+ * @param soundKey      The namespaced key of the sound to play and stop
+ * @param sound         The sound to send, or null if the key isn't a valid namespaced key
+ * @param stop          The matching stop, or null with the sound
+ * @param durationTicks How long the track plays
+ * @param displayName   A name for messages and logs
+ */
+public record DiscDescriptor(Material material, String key, String soundKey, Sound sound, SoundStop stop, int durationTicks, String displayName) {
+    // Volume 4 makes the sound audible for 64 blocks, like a jukebox
+    private static final float VOLUME = 4.0f;
+
+    /**
+     * Builds a descriptor, resolving its sound and stop from the key once
+     *
+     * @param material      The item's material
+     * @param key           Identifies the track
+     * @param soundKey      The namespaced key of the sound
+     * @param durationTicks How long the track plays
+     * @param displayName   A name for messages and logs
+     * @return The descriptor
+     */
+    static DiscDescriptor of(Material material, String key, String soundKey, int durationTicks, String displayName) {
+        NamespacedKey sound = soundKey == null ? null : NamespacedKey.fromString(soundKey);
+        if (sound == null) return new DiscDescriptor(material, key, soundKey, null, null, durationTicks, displayName);
+        return new DiscDescriptor(material, key, soundKey, Sound.sound(sound, Sound.Source.RECORD, VOLUME, 1.0f),
+                SoundStop.namedOnSource(sound, Sound.Source.RECORD), durationTicks, displayName);
+    }
+}
@@ -0,0 +1,274 @@
+package org.neimeyer.multiDiscJukebox;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Container;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Lets hoppers and droppers facing a MultiBox feed discs into it.
+ * <p>
+ * Hoppers are picked up when items move into them, droppers when they fire. Feeders
+ * are drained at the end of the tick and all discs for one box are applied as a single
+ * playlist update. A feeder that finds its box full backs off exponentially instead of
+ * retrying every transfer cycle. Feeders in chunks or worlds that unload are forgotten,
+ * so a retry never loads a chunk.
+ */
+public class DiscFeeder implements Listener {
+    private final MultiDiscJukebox plugin;
+
+    // Feeder location -> how many discs it may hand over this tick
+    private final Map<Location, Integer> pendingFeeders = new LinkedHashMap<>();
+    // Feeder location -> backoff state while its box is full
+    private final Map<Location, Backoff> backoffs = new HashMap<>();
+
+    private boolean enabled;
+    private int initialBackoffTicks;
+    private int maxBackoffTicks;
+
+    public DiscFeeder(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Re-reads the automation settings from config
+     */
+    public void reload() {
+        this.enabled = plugin.getConfig().getBoolean("automation.enabled", true);
+        this.initialBackoffTicks = Math.max(1, plugin.getConfig().getInt("automation.backoff-initial-ticks", 8));
+        this.maxBackoffTicks = Math.max(initialBackoffTicks, plugin.getConfig().getInt("automation.backoff-max-ticks", 200));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemMove(InventoryMoveItemEvent event) {
+        Inventory destination = event.getDestination();
+        if (destination.getType() == InventoryType.HOPPER || destination.getType() == InventoryType.DROPPER) {
+            queueFeeder(destination.getLocation(), Integer.MAX_VALUE);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemPickup(InventoryPickupItemEvent event) {
+        if (event.getInventory().getType() == InventoryType.HOPPER) {
+            queueFeeder(event.getInventory().getLocation(), Integer.MAX_VALUE);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onDispense(BlockDispenseEvent event) {
+        Block block = event.getBlock();
+        if (!enabled || block.getType() != Material.DROPPER) return;
+        if (!plugin.getDiscResolver().isPlayable(event.getItem())) return;
+
+        Location target = facingMultiBox(block);
+        if (target == null) return;
+
+        // The disc goes into the box instead of being dropped in front of it
+        event.setCancelled(true);
+        queueFeeder(block.getLocation(), 1);
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (pendingFeeders.isEmpty()) return;
+        // Feeding can wait while the server is behind; feeders stay queued
+        if (!plugin.getLoadController().allowsNonUrgentWork()) return;
+
+        int tick = event.getTickNumber();
+        Map<Location, Map<Location, Integer>> feedersByBox = new HashMap<>();
+        Map<Location, Integer> waiting = new HashMap<>();
+
+        for (var entry : pendingFeeders.entrySet()) {
+            Location feeder = entry.getKey();
+            // Normally purged on unload; never load a chunk to check a feeder
+            if (!isLoaded(feeder)) {
+                backoffs.remove(feeder);
+                continue;
+            }
+
+            Backoff backoff = backoffs.get(feeder);
+            if (backoff != null && tick < backoff.nextAttemptTick) {
+                waiting.put(feeder, entry.getValue());
+                continue;
+            }
+
+            Location box = facingMultiBox(feeder.getBlock());
+            if (box == null) {
+                backoffs.remove(feeder);
+                continue;
+            }
+            feedersByBox.computeIfAbsent(box, k -> new LinkedHashMap<>()).put(feeder, entry.getValue());
+        }
+        pendingFeeders.clear();
+        pendingFeeders.putAll(waiting);
+
+        for (var entry : feedersByBox.entrySet()) {
+            feedBox(entry.getKey(), entry.getValue(), tick);
+        }
+    }
+
+    /**
+     * Moves discs from every feeder of one box and applies them as one update
+     */
+    private void feedBox(Location box, Map<Location, Integer> feeders, int tick) {
+        // Discs fed while the GUI is open would be overwritten when it closes, and a
+        // synced playlist is only changed on the leader
+        if (plugin.getJukeboxListener().isBeingEdited(box) || plugin.isSyncedFromLeader(box)) {
+            feeders.keySet().forEach(feeder -> backOff(feeder, tick));
+            return;
+        }
+
+        DiscList current = plugin.getInventory(box);
+        DiscList contents = current == null ? new DiscList(plugin.getCapacity()) : current.copy();
+        int freeSlot = contents.firstEmpty(0);
+        int accepted = 0;
+
+        for (var entry : feeders.entrySet()) {
+            Location feeder = entry.getKey();
+            if (freeSlot < 0) {
+                backOff(feeder, tick);
+                continue;
+            }
+
+            if (!isLoaded(feeder) || !(feeder.getBlock().getState(false) instanceof Container container)) continue;
+            Inventory source = container.getInventory();
+            int allowance = entry.getValue();
+
+            for (int i = 0; i < source.getSize() && allowance > 0 && freeSlot >= 0; i++) {
+                ItemStack item = source.getItem(i);
+                if (!plugin.getDiscResolver().isPlayable(item)) continue;
+
+                while (item.getAmount() > 0 && allowance > 0 && freeSlot >= 0) {
+                    ItemStack disc = item.clone();
+                    disc.setAmount(1);
+                    contents.set(freeSlot, disc);
+                    item.setAmount(item.getAmount() - 1);
+                    freeSlot = contents.firstEmpty(freeSlot + 1);
+                    allowance--;
+                    accepted++;
+                }
+                source.setItem(i, item.getAmount() > 0 ? item : null);
+            }
+
+            if (freeSlot < 0 && containsDisc(source)) {
+                // Still holding discs for a full box; stop asking every cycle
+                backOff(feeder, tick);
+            } else {
+                backoffs.remove(feeder);
+            }
+        }
+
+        if (accepted == 0) return;
+
+        // One playlist update and one persistence record for the whole batch
+        plugin.setInventory(box, contents);
+        plugin.persistInventory(box);
+
+        DiscPlayer dp = plugin.getDiscPlayer(box);
+        if (dp == null) {
+            dp = new DiscPlayer(plugin, box, contents);
+            plugin.setDiscPlayer(box, dp);
+            dp.start();
+        } else if (plugin.getDiscLibrary().getLink(box) == null) {
+            // A linked box was already updated with the playlist
+            dp.updateDiscs(contents);
+        }
+
+        box.getWorld().spawnParticle(Particle.NOTE, box.clone().add(0.5, 1.0, 0.5), 1, 0.3, 0.3, 0.3, 1);
+        plugin.logDebug("block_events", "Fed " + accepted + " discs into MultiBox at " + JukeboxListener.locationToString(box) + " from " + feeders.size() + " feeders");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        World world = event.getWorld();
+        int chunkX = event.getChunk().getX();
+        int chunkZ = event.getChunk().getZ();
+        forgetIf(loc -> !loc.isWorldLoaded()
+                || (loc.getWorld().equals(world) && loc.getBlockX() >> 4 == chunkX && loc.getBlockZ() >> 4 == chunkZ));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        World world = event.getWorld();
+        forgetIf(loc -> !loc.isWorldLoaded() || loc.getWorld().equals(world));
+    }
+
+    private void forgetIf(Predicate<Location> unloaded) {
+        if (!pendingFeeders.isEmpty()) pendingFeeders.keySet().removeIf(unloaded);
+        if (!backoffs.isEmpty()) backoffs.keySet().removeIf(unloaded);
+    }
+
+    private static boolean isLoaded(Location loc) {
+        return loc.isWorldLoaded() && loc.getWorld().isChunkLoaded(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+    }
+
+    private void queueFeeder(Location feeder, int allowance) {
+        if (!enabled || feeder == null) return;
+
+        // Backing-off feeders are skipped without touching the world
+        Backoff backoff = backoffs.get(feeder);
+        if (backoff != null && Bukkit.getCurrentTick() < backoff.nextAttemptTick) return;
+
+        if (facingMultiBox(feeder.getBlock()) == null) return;
+        pendingFeeders.merge(feeder, allowance, (a, b) -> (int) Math.min(Integer.MAX_VALUE, (long) a + b));
+    }
+
+    private void backOff(Location feeder, int tick) {
+        Backoff backoff = backoffs.computeIfAbsent(feeder, k -> new Backoff());
+        backoff.delayTicks = backoff.delayTicks == 0 ? initialBackoffTicks : Math.min(maxBackoffTicks, backoff.delayTicks * 2);
+        backoff.nextAttemptTick = tick + backoff.delayTicks;
+        // Retry on our own even if nothing else moves into the feeder
+        pendingFeeders.putIfAbsent(feeder, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Resolves the MultiBox a hopper or dropper is pointing into
+     *
+     * @param block The feeder block
+     * @return The MultiBox location, or null if it doesn't face one
+     */
+    private Location facingMultiBox(Block block) {
+        BlockData data = block.getBlockData();
+        if (!(data instanceof Directional directional)) return null;
+
+        BlockFace facing = directional.getFacing();
+        Location target = block.getRelative(facing).getLocation();
+        return plugin.isMultiBox(target) ? target : null;
+    }
+
+    private boolean containsDisc(Inventory inventory) {
+        for (ItemStack item : inventory.getContents()) {
+            if (plugin.getDiscResolver().isPlayable(item)) return true;
+        }
+        return false;
+    }
+
+    private static final class Backoff {
+        private int delayTicks;
+        private int nextAttemptTick;
+    }
+}
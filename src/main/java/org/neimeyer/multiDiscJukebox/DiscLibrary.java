@@ -0,0 +1,379 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Central playlists that many MultiBoxes can play from.
+ * <p>
+ * A linked MultiBox holds no discs of its own: its entry in memory is the library's
+ * {@link DiscList} instance and its storage entry is an empty placeholder, so each
+ * playlist is kept and saved once no matter how many boxes play it. Edits replace the
+ * playlist with a copy-on-write copy and hand it to every loaded subscriber in one
+ * pass. Playlists and links are saved to library.yml, the only copy of a linked box's
+ * discs: writes go through a temporary file and are ordered, so the newest snapshot
+ * always wins, and nothing is written after the file failed to load.
+ */
+public class DiscLibrary {
+    private static final Pattern ID_PATTERN = Pattern.compile("[a-z0-9_-]{1,32}");
+    // Written to storage in place of a linked box's contents
+    private static final DiscList PLACEHOLDER = new DiscList(0);
+    private static final long SAVE_DELAY_TICKS = 100L;
+
+    private final MultiDiscJukebox plugin;
+    private final File file;
+
+    private final Map<String, DiscList> playlists = new TreeMap<>();
+    // Location key to playlist id, and the reverse
+    private final Map<String, String> links = new HashMap<>();
+    private final Map<String, Set<String>> subscribers = new HashMap<>();
+
+    private boolean saveScheduled = false;
+    // Set when library.yml couldn't be read, so an empty library never replaces it
+    private boolean loadFailed = false;
+    // Async writes can finish out of order; only the newest one is written
+    private final Object writeLock = new Object();
+    private long saveVersion = 0;
+    private long writtenVersion = 0;
+
+    public DiscLibrary(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "library.yml");
+    }
+
+    /**
+     * @param id A proposed playlist id
+     * @return True if the id is 1 to 32 lower case letters, digits, dashes or underscores
+     */
+    public static boolean isValidId(String id) {
+        return ID_PATTERN.matcher(id).matches();
+    }
+
+    /**
+     * Reads library.yml
+     */
+    public void load() {
+        playlists.clear();
+        links.clear();
+        subscribers.clear();
+        loadFailed = false;
+        if (!file.exists()) return;
+
+        YamlConfiguration cfg = new YamlConfiguration();
+        try {
+            cfg.load(file);
+        } catch (IOException | InvalidConfigurationException e) {
+            loadFailed = true;
+            plugin.logError("storage", "Failed to read library.yml; linked MultiBoxes play nothing and library changes are not saved until it is fixed", e);
+            return;
+        }
+        ConfigurationSection playlistSection = cfg.getConfigurationSection("playlists");
+        if (playlistSection != null) {
+            for (String id : playlistSection.getKeys(false)) {
+                DiscList contents = YamlJukeboxStorage.readContents(playlistSection, id);
+                if (contents != null) playlists.put(id, contents);
+            }
+        }
+
+        ConfigurationSection linkSection = cfg.getConfigurationSection("links");
+        if (linkSection != null) {
+            for (String key : linkSection.getKeys(false)) {
+                String id = linkSection.getString(key);
+                if (id == null || !playlists.containsKey(id)) {
+                    plugin.logWarning("storage", "Dropping link of " + key + " to unknown playlist " + id);
+                    continue;
+                }
+                addLink(key, id);
+            }
+        }
+        plugin.logInfo("storage", "Loaded " + playlists.size() + " library playlists with " + links.size() + " linked MultiBoxes");
+    }
+
+    /**
+     * Writes library.yml now
+     */
+    public void save() {
+        if (loadFailed) return;
+        write(serialize(), ++saveVersion);
+    }
+
+    /**
+     * Saves shortly, so a burst of edits is written once. The config is built on the
+     * main thread and written on an async one.
+     */
+    private void saveLater() {
+        if (saveScheduled) return;
+        saveScheduled = true;
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            saveScheduled = false;
+            if (loadFailed) {
+                plugin.logWarning("storage", "Not saving library changes: library.yml failed to load");
+                return;
+            }
+            String data = serialize();
+            long version = ++saveVersion;
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> write(data, version));
+        }, SAVE_DELAY_TICKS);
+    }
+
+    /**
+     * Replaces library.yml with a snapshot, unless a newer one was written already
+     */
+    private void write(String data, long version) {
+        synchronized (writeLock) {
+            if (version <= writtenVersion) return;
+            Path target = file.toPath();
+            Path temp = target.resolveSibling(file.getName() + ".tmp");
+            try {
+                Files.writeString(temp, data, StandardCharsets.UTF_8);
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                writtenVersion = version;
+            } catch (IOException e) {
+                plugin.logError("storage", "Failed to save library.yml", e);
+            }
+        }
+    }
+
+    private String serialize() {
+        YamlConfiguration cfg = new YamlConfiguration();
+        ConfigurationSection playlistSection = cfg.createSection("playlists");
+        playlists.forEach((id, contents) -> YamlJukeboxStorage.writeContents(playlistSection, id, contents));
+        ConfigurationSection linkSection = cfg.createSection("links");
+        links.forEach(linkSection::set);
+        return cfg.saveToString();
+    }
+
+    /**
+     * @return The playlist ids, sorted
+     */
+    public List<String> getIds() {
+        return List.copyOf(playlists.keySet());
+    }
+
+    /**
+     * @param id The playlist id
+     * @return The playlist, or null if there is none with that id
+     */
+    public DiscList getPlaylist(String id) {
+        return playlists.get(id);
+    }
+
+    /**
+     * @param id The playlist id
+     * @return The number of MultiBoxes linked to the playlist, loaded or not
+     */
+    public int getSubscriberCount(String id) {
+        Set<String> keys = subscribers.get(id);
+        return keys == null ? 0 : keys.size();
+    }
+
+    /**
+     * @param id The playlist id
+     * @return The linked MultiBoxes that are currently loaded
+     */
+    public List<Location> getLoadedSubscribers(String id) {
+        List<Location> loaded = new ArrayList<>();
+        for (String key : subscribers.getOrDefault(id, Set.of())) {
+            Location loc = parseLoaded(key);
+            if (loc != null && plugin.isMultiBox(loc)) loaded.add(loc);
+        }
+        return loaded;
+    }
+
+    /**
+     * @param loc A MultiBox location
+     * @return The id of the playlist the box is linked to, or null
+     */
+    public String getLink(Location loc) {
+        return links.isEmpty() ? null : links.get(JukeboxListener.locationToString(loc));
+    }
+
+    /**
+     * Picks what a MultiBox holds in memory when it loads
+     *
+     * @param loc    The MultiBox location
+     * @param stored What storage had for it
+     * @return The shared playlist if the box is linked, otherwise {@code stored}
+     */
+    public DiscList resolve(Location loc, DiscList stored) {
+        String id = getLink(loc);
+        return id == null ? stored : playlists.get(id);
+    }
+
+    /**
+     * Picks what is written to storage for a MultiBox
+     *
+     * @param loc      The MultiBox location
+     * @param contents What the box holds in memory
+     * @return An empty placeholder if the box is linked, otherwise {@code contents}
+     */
+    public DiscList toStored(Location loc, DiscList contents) {
+        return getLink(loc) == null ? contents : PLACEHOLDER;
+    }
+
+    /**
+     * Creates a playlist from a MultiBox's discs and links the box to it
+     *
+     * @param id  The new playlist id
+     * @param loc The MultiBox whose discs move into the library
+     */
+    public void create(String id, Location loc) {
+        playlists.put(id, plugin.getInventory(loc));
+        link(loc, id);
+    }
+
+    /**
+     * Links a MultiBox to a playlist. The box's own contents are replaced, so callers
+     * must make sure it is empty.
+     *
+     * @param loc The MultiBox location
+     * @param id  The playlist id
+     */
+    public void link(Location loc, String id) {
+        addLink(JukeboxListener.locationToString(loc), id);
+        apply(loc, playlists.get(id));
+        plugin.persistInventory(loc);
+        saveLater();
+    }
+
+    /**
+     * Unlinks a MultiBox; it is left empty and the playlist stays in the library
+     *
+     * @param loc The MultiBox location
+     * @return The playlist id it was linked to, or null if it wasn't linked
+     */
+    public String unlink(Location loc) {
+        String id = removeLink(JukeboxListener.locationToString(loc));
+        if (id == null) return null;
+
+        apply(loc, new DiscList(plugin.getCapacity()));
+        plugin.persistInventory(loc);
+        saveLater();
+        return id;
+    }
+
+    /**
+     * Forgets the link of a MultiBox that was removed from the world
+     *
+     * @param loc The MultiBox location
+     * @return True if the box was linked, in which case its discs belong to the library
+     */
+    public boolean forget(Location loc) {
+        if (removeLink(JukeboxListener.locationToString(loc)) == null) return false;
+        saveLater();
+        return true;
+    }
+
+    /**
+     * Deletes a playlist nothing is linked to
+     *
+     * @param id The playlist id
+     * @return The playlist's discs, or null if it doesn't exist or still has subscribers
+     */
+    public DiscList delete(String id) {
+        if (getSubscriberCount(id) > 0) return null;
+        DiscList removed = playlists.remove(id);
+        if (removed != null) saveLater();
+        return removed;
+    }
+
+    /**
+     * Replaces a playlist and hands the new contents to every loaded subscriber in one pass
+     *
+     * @param id       The playlist id
+     * @param contents The new contents; from now on shared with every subscriber
+     */
+    public void update(String id, DiscList contents) {
+        playlists.put(id, contents);
+
+        int updated = 0;
+        for (Location loc : getLoadedSubscribers(id)) {
+            if (apply(loc, contents)) updated++;
+        }
+        plugin.logInfo("disc_player", "Updated playlist " + id + " on " + updated + " loaded MultiBoxes");
+        saveLater();
+    }
+
+    /**
+     * Points a loaded MultiBox and its player at new contents
+     *
+     * @return True if the box was loaded
+     */
+    private boolean apply(Location loc, DiscList contents) {
+        WorldJukeboxManager manager = plugin.getWorldManager(loc.getWorld());
+        if (manager == null || !manager.getInventories().containsKey(loc)) return false;
+
+        manager.getInventories().put(loc, contents);
+        DiscPlayer dp = manager.getDiscPlayers().get(loc);
+        if (dp != null) dp.updateDiscs(contents);
+        return true;
+    }
+
+    private void addLink(String key, String id) {
+        String previous = links.put(key, id);
+        if (previous != null) subscribers.get(previous).remove(key);
+        subscribers.computeIfAbsent(id, k -> new LinkedHashSet<>()).add(key);
+    }
+
+    private String removeLink(String key) {
+        String id = links.remove(key);
+        if (id != null) {
+            Set<String> keys = subscribers.get(id);
+            keys.remove(key);
+            if (keys.isEmpty()) subscribers.remove(id);
+        }
+        return id;
+    }
+
+    private Location parseLoaded(String key) {
+        String[] parts = key.split(",");
+        if (parts.length != 4) return null;
+        World world = Bukkit.getWorld(parts[0]);
+        if (world == null) return null;
+        try {
+            return new Location(world, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the report shown by /multibox library list
+     *
+     * @return The report lines
+     */
+    public List<String> getReport() {
+        List<String> lines = new ArrayList<>();
+        if (playlists.isEmpty()) {
+            lines.add("§6The library is empty");
+            return lines;
+        }
+        playlists.forEach((id, contents) -> lines.add("§6" + id + "§f: " + contents.playableCount() + " discs, "
+                + getSubscriberCount(id) + " linked MultiBoxes"));
+        return lines;
+    }
+}
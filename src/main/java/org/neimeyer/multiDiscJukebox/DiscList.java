@@ -0,0 +1,537 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact per-jukebox slot list.
+ * <p>
+ * Each slot is one short: 0 for empty, {@code ordinal + 1} for a plain music disc
+ * (no meta, amount 1), or {@code -(id + 1)} for anything else, where {@code id}
+ * points into a shared pool of interned, deduplicated item stacks. Full
+ * {@link ItemStack} arrays are only materialized when something (the GUI, drops,
+ * YAML storage) really needs them.
+ * <p>
+ * Pool ids no list holds any more are freed by {@link #sweep()} and reused. If the
+ * pool is still full, the stack is kept whole in a side table of the list instead.
+ * <p>
+ * Slots are stored in chunks of {@value #CHUNK_SIZE} that are only allocated once
+ * something is put in them and are shared copy-on-write between copies, so large
+ * and mostly empty libraries stay cheap to hold and to copy. Occupied and playable
+ * slots are tracked in bitsets, so counting discs and finding the next one doesn't
+ * scan the slots.
+ * <p>
+ * Not thread-safe; used from the main thread only.
+ */
+public final class DiscList {
+    static final int CHUNK_SIZE = 64;
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final boolean[] DISC_MATERIALS = new boolean[MATERIALS.length];
+
+    static {
+        for (Material material : MATERIALS) {
+            DISC_MATERIALS[material.ordinal()] = material.name().startsWith("MUSIC_DISC_");
+        }
+    }
+
+    // Slot value of a stack kept in the list's own side table because the pool was full
+    private static final short OVERFLOW = Short.MIN_VALUE;
+    private static final int MAX_INTERNED = Short.MAX_VALUE;
+
+    // Interned stacks are never modified after being added; callers get clones. Freed ids hold null
+    private static final List<ItemStack> INTERNED = new ArrayList<>();
+    private static final Map<ItemStack, Integer> INTERNED_IDS = new HashMap<>();
+    // Interned stacks that play in a jukebox: discs, or anything with a jukebox song component
+    private static final BitSet INTERNED_PLAYABLE = new BitSet();
+    private static final BitSet FREE_IDS = new BitSet();
+    // Every list that may hold interned ids, for the sweep
+    private static final List<WeakReference<DiscList>> HOLDERS = new ArrayList<>();
+    // Bumped whenever ids are freed, so caches keyed by id know to drop them
+    private static int internGeneration = 0;
+    // Set when a sweep on demand freed nothing, so a full pool isn't swept on every store
+    private static boolean exhausted = false;
+
+    private final int size;
+    // A null chunk is all empty; chunks not owned are shared with a copy
+    private final short[][] chunks;
+    private final boolean[] ownedChunks;
+    private final long[] occupied;
+    private final long[] playable;
+    private int occupiedCount = 0;
+    private int playableCount = 0;
+    private boolean holdsInterned = false;
+    // Slot to stack, for stacks that didn't fit in the pool
+    private Map<Integer, ItemStack> overflow = null;
+
+    /**
+     * Creates an empty list
+     *
+     * @param size The number of slots
+     */
+    public DiscList(int size) {
+        this.size = size;
+        int chunkCount = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunks = new short[chunkCount][];
+        this.ownedChunks = new boolean[chunkCount];
+        this.occupied = new long[chunkCount];
+        this.playable = new long[chunkCount];
+    }
+
+    private DiscList(DiscList source, int size) {
+        this(size);
+        int shared = Math.min(chunks.length, source.chunks.length);
+        System.arraycopy(source.chunks, 0, chunks, 0, shared);
+        System.arraycopy(source.occupied, 0, occupied, 0, shared);
+        System.arraycopy(source.playable, 0, playable, 0, shared);
+
+        // Neither side may write to the shared chunks any more
+        for (int i = 0; i < source.ownedChunks.length; i++) {
+            source.ownedChunks[i] = false;
+        }
+
+        if (size < source.size) {
+            // Drop anything past the new end of the last chunk
+            int tail = size % CHUNK_SIZE;
+            if (tail != 0) {
+                long mask = (1L << tail) - 1;
+                occupied[chunks.length - 1] &= mask;
+                playable[chunks.length - 1] &= mask;
+            }
+        }
+        for (int i = 0; i < chunks.length; i++) {
+            occupiedCount += Long.bitCount(occupied[i]);
+            playableCount += Long.bitCount(playable[i]);
+        }
+
+        if (source.holdsInterned) registerHolder();
+        if (source.overflow != null) {
+            source.overflow.forEach((slot, item) -> {
+                if (slot < size) {
+                    if (overflow == null) overflow = new HashMap<>();
+                    overflow.put(slot, item);
+                }
+            });
+        }
+    }
+
+    /**
+     * Compacts an item array
+     *
+     * @param contents The items, may contain nulls
+     * @return A new list holding the same items
+     */
+    public static DiscList of(ItemStack[] contents) {
+        return of(contents, contents.length);
+    }
+
+    /**
+     * Compacts an item array into a list of the given size
+     *
+     * @param contents The items, may contain nulls; anything past {@code size} is ignored
+     * @param size     The number of slots
+     * @return A new list holding the same items
+     */
+    public static DiscList of(ItemStack[] contents, int size) {
+        DiscList list = new DiscList(size);
+        for (int i = 0; i < Math.min(size, contents.length); i++) {
+            list.set(i, contents[i]);
+        }
+        return list;
+    }
+
+    /**
+     * Number of distinct interned stacks shared by all lists
+     *
+     * @return The pool size
+     */
+    public static int internedCount() {
+        return INTERNED.size() - FREE_IDS.cardinality();
+    }
+
+    /**
+     * Generation of the pool ids; it changes whenever ids are freed for reuse
+     *
+     * @return The generation
+     */
+    static int internGeneration() {
+        return internGeneration;
+    }
+
+    /**
+     * Frees the pool ids that no live list holds any more, so they can be reused.
+     * Called periodically, and when the pool runs out of ids.
+     *
+     * @return The number of ids freed
+     */
+    public static int sweep() {
+        exhausted = false;
+        BitSet live = new BitSet(INTERNED.size());
+        HOLDERS.removeIf(ref -> {
+            DiscList list = ref.get();
+            if (list == null) return true;
+            list.markInterned(live);
+            return false;
+        });
+
+        int freed = 0;
+        for (int id = live.nextClearBit(0); id < INTERNED.size(); id = live.nextClearBit(id + 1)) {
+            if (FREE_IDS.get(id)) continue;
+            INTERNED_IDS.remove(INTERNED.get(id));
+            INTERNED.set(id, null);
+            INTERNED_PLAYABLE.clear(id);
+            FREE_IDS.set(id);
+            freed++;
+        }
+        if (freed > 0) internGeneration++;
+        return freed;
+    }
+
+    private void markInterned(BitSet live) {
+        for (int i = 0; i < chunks.length; i++) {
+            short[] chunk = chunks[i];
+            if (chunk == null || occupied[i] == 0) continue;
+            for (short value : chunk) {
+                if (value < 0 && value != OVERFLOW) live.set(-value - 1);
+            }
+        }
+    }
+
+    private void registerHolder() {
+        if (holdsInterned) return;
+        holdsInterned = true;
+        HOLDERS.add(new WeakReference<>(this));
+    }
+
+    /**
+     * @return The number of slots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of slots holding anything
+     */
+    public int occupiedCount() {
+        return occupiedCount;
+    }
+
+    /**
+     * @return The number of slots holding a music disc or other jukebox-playable item
+     */
+    public int playableCount() {
+        return playableCount;
+    }
+
+    /**
+     * Creates an independent copy of this list. Chunks and interned stacks stay
+     * shared until one side writes to them.
+     *
+     * @return The copy
+     */
+    public DiscList copy() {
+        return new DiscList(this, size);
+    }
+
+    /**
+     * Creates a copy with a different number of slots
+     *
+     * @param newSize The number of slots of the copy
+     * @return The copy; slots past {@code newSize} are dropped
+     */
+    public DiscList resized(int newSize) {
+        return new DiscList(this, newSize);
+    }
+
+    /**
+     * @param slot The slot index
+     * @return True if the slot holds nothing
+     */
+    public boolean isEmpty(int slot) {
+        return (occupied[slot / CHUNK_SIZE] & (1L << (slot % CHUNK_SIZE))) == 0;
+    }
+
+    /**
+     * @param slot The slot index
+     * @return True if the slot holds a music disc or other jukebox-playable item
+     */
+    public boolean isPlayable(int slot) {
+        return (playable[slot / CHUNK_SIZE] & (1L << (slot % CHUNK_SIZE))) != 0;
+    }
+
+    private short raw(int slot) {
+        short[] chunk = chunks[slot / CHUNK_SIZE];
+        return chunk == null ? 0 : chunk[slot % CHUNK_SIZE];
+    }
+
+    /**
+     * Gets the material in a slot without materializing the item
+     *
+     * @param slot The slot index
+     * @return The material, or null for an empty slot
+     */
+    public Material getType(int slot) {
+        short value = raw(slot);
+        if (value == 0) return null;
+        if (value > 0) return MATERIALS[value - 1];
+        if (value == OVERFLOW) return overflow.get(slot).getType();
+        return INTERNED.get(-value - 1).getType();
+    }
+
+    /**
+     * Gets the shared stack for a slot that holds more than a plain disc
+     *
+     * @param slot The slot index
+     * @return The interned or side-table stack (must not be modified), or null for empty or plain slots
+     */
+    ItemStack getInterned(int slot) {
+        short value = raw(slot);
+        if (value == OVERFLOW) return overflow.get(slot);
+        return value < 0 ? INTERNED.get(-value - 1) : null;
+    }
+
+    /**
+     * Gets the id of the shared interned stack in a slot. Equal ids mean equal items,
+     * so the id is a cheap fingerprint for caching per-item data.
+     *
+     * @param slot The slot index
+     * @return The interned id, or -1 for empty or plain slots and stacks kept in the side table
+     */
+    int getInternedId(int slot) {
+        short value = raw(slot);
+        return value < 0 && value != OVERFLOW ? -value - 1 : -1;
+    }
+
+    /**
+     * Materializes one slot
+     *
+     * @param slot The slot index
+     * @return A new item the caller may modify, or null for an empty slot
+     */
+    public ItemStack get(int slot) {
+        short value = raw(slot);
+        if (value == 0) return null;
+        if (value > 0) return new ItemStack(MATERIALS[value - 1]);
+        if (value == OVERFLOW) return overflow.get(slot).clone();
+        return INTERNED.get(-value - 1).clone();
+    }
+
+    /**
+     * Stores an item in a slot, compacting plain discs and interning everything else
+     *
+     * @param slot The slot index
+     * @param item The item, or null to clear the slot
+     */
+    public void set(int slot, ItemStack item) {
+        if (item == null || item.getType().isAir()) {
+            write(slot, (short) 0, false);
+        } else if (DISC_MATERIALS[item.getType().ordinal()] && item.getAmount() == 1 && !item.hasItemMeta()) {
+            write(slot, (short) (item.getType().ordinal() + 1), true);
+        } else {
+            int id = intern(item);
+            if (id >= 0) {
+                registerHolder();
+                write(slot, (short) -(id + 1), INTERNED_PLAYABLE.get(id));
+            } else {
+                // The pool is full; keep this one whole
+                ItemStack copy = item.clone();
+                write(slot, OVERFLOW, isPlayableStack(copy));
+                if (overflow == null) overflow = new HashMap<>();
+                overflow.put(slot, copy);
+            }
+        }
+    }
+
+    /**
+     * Stores a plain item of the given material (amount 1, no meta)
+     *
+     * @param slot     The slot index
+     * @param material The material, or null to clear the slot
+     */
+    public void setPlain(int slot, Material material) {
+        if (material == null || material.isAir()) {
+            write(slot, (short) 0, false);
+        } else if (DISC_MATERIALS[material.ordinal()]) {
+            write(slot, (short) (material.ordinal() + 1), true);
+        } else {
+            set(slot, new ItemStack(material));
+        }
+    }
+
+    private void write(int slot, short value, boolean isDisc) {
+        int chunkIndex = slot / CHUNK_SIZE;
+        int offset = slot % CHUNK_SIZE;
+        short[] chunk = chunks[chunkIndex];
+
+        if (chunk == null) {
+            if (value == 0) return; // Already empty
+            chunk = new short[CHUNK_SIZE];
+            chunks[chunkIndex] = chunk;
+            ownedChunks[chunkIndex] = true;
+        } else if (!ownedChunks[chunkIndex]) {
+            chunk = chunk.clone();
+            chunks[chunkIndex] = chunk;
+            ownedChunks[chunkIndex] = true;
+        }
+        if (chunk[offset] == OVERFLOW && value != OVERFLOW) overflow.remove(slot);
+        chunk[offset] = value;
+
+        long bit = 1L << offset;
+        boolean wasOccupied = (occupied[chunkIndex] & bit) != 0;
+        boolean wasPlayable = (playable[chunkIndex] & bit) != 0;
+        boolean nowOccupied = value != 0;
+
+        if (wasOccupied != nowOccupied) {
+            occupied[chunkIndex] ^= bit;
+            occupiedCount += nowOccupied ? 1 : -1;
+        }
+        if (wasPlayable != isDisc) {
+            playable[chunkIndex] ^= bit;
+            playableCount += isDisc ? 1 : -1;
+        }
+    }
+
+    /**
+     * Finds the next empty slot
+     *
+     * @param from The first slot to look at
+     * @return The slot index, or -1 if there is none
+     */
+    public int firstEmpty(int from) {
+        for (int word = from / CHUNK_SIZE; word < occupied.length; word++) {
+            long free = ~occupied[word];
+            if (word == from / CHUNK_SIZE) free &= -1L << (from % CHUNK_SIZE);
+            if (free != 0) {
+                int slot = word * CHUNK_SIZE + Long.numberOfTrailingZeros(free);
+                return slot < size ? slot : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the next slot holding a music disc, wrapping around to the start
+     *
+     * @param from The first slot to look at
+     * @return The slot index, or -1 if the list holds no discs
+     */
+    public int nextPlayable(int from) {
+        if (playableCount == 0) return -1;
+
+        from = Math.floorMod(from, size);
+        int startWord = from / CHUNK_SIZE;
+        long first = playable[startWord] & (-1L << (from % CHUNK_SIZE));
+        if (first != 0) return startWord * CHUNK_SIZE + Long.numberOfTrailingZeros(first);
+
+        for (int i = 1; i <= playable.length; i++) {
+            int word = (startWord + i) % playable.length;
+            if (playable[word] != 0) return word * CHUNK_SIZE + Long.numberOfTrailingZeros(playable[word]);
+        }
+        return -1;
+    }
+
+    /**
+     * @return The number of storage chunks
+     */
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * @param chunk The chunk index
+     * @return True if no slot in the chunk holds anything
+     */
+    boolean isChunkEmpty(int chunk) {
+        return occupied[chunk] == 0;
+    }
+
+    /**
+     * Materializes the whole list
+     *
+     * @return A new array of new items
+     */
+    public ItemStack[] toItemStacks() {
+        return toItemStacks(0, size);
+    }
+
+    /**
+     * Materializes a range of slots
+     *
+     * @param from The first slot
+     * @param to   One past the last slot; slots past the end come back empty
+     * @return A new array of {@code to - from} new items
+     */
+    public ItemStack[] toItemStacks(int from, int to) {
+        ItemStack[] contents = new ItemStack[to - from];
+        for (int i = from; i < Math.min(to, size); i++) {
+            if (!isEmpty(i)) contents[i - from] = get(i);
+        }
+        return contents;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DiscList other) || other.size != size) return false;
+        for (int i = 0; i < chunks.length; i++) {
+            if (occupied[i] != other.occupied[i]) return false;
+            if (chunks[i] == other.chunks[i]) continue;
+            for (int slot = i * CHUNK_SIZE; slot < Math.min(size, (i + 1) * CHUNK_SIZE); slot++) {
+                if (raw(slot) != other.raw(slot)) return false;
+            }
+        }
+        return overflow == null || overflow.isEmpty()
+                ? other.overflow == null || other.overflow.isEmpty()
+                : overflow.equals(other.overflow);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = size;
+        for (int i = 0; i < size; i++) {
+            if (!isEmpty(i)) hash = 31 * hash + raw(i) * 131 + i;
+        }
+        return hash;
+    }
+
+    /**
+     * @return The pool id of an equal stack, or -1 if the pool is out of ids
+     */
+    private static int intern(ItemStack item) {
+        Integer id = INTERNED_IDS.get(item);
+        if (id != null) return id;
+
+        if (FREE_IDS.isEmpty() && INTERNED.size() >= MAX_INTERNED) {
+            if (exhausted || sweep() == 0) {
+                exhausted = true;
+                return -1;
+            }
+        }
+
+        ItemStack copy = item.clone();
+        if (FREE_IDS.isEmpty()) {
+            id = INTERNED.size();
+            INTERNED.add(copy);
+        } else {
+            id = FREE_IDS.nextSetBit(0);
+            FREE_IDS.clear(id);
+            INTERNED.set(id, copy);
+        }
+        INTERNED_IDS.put(copy, id);
+        // Meta is only inspected once per distinct stack
+        if (isPlayableStack(copy)) INTERNED_PLAYABLE.set(id);
+        return id;
+    }
+
+    private static boolean isPlayableStack(ItemStack stack) {
+        return DISC_MATERIALS[stack.getType().ordinal()] || (stack.hasItemMeta() && stack.getItemMeta().hasJukeboxPlayable());
+    }
+}
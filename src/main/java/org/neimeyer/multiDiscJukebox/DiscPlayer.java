@@ -1,8 +1,6 @@
 package org.neimeyer.multiDiscJukebox;
 
 import org.bukkit.*;
-import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.Particle;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -10,42 +8,55 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class DiscPlayer {
-    // Constants
-    private static final double JUKEBOX_RANGE = 64.0; // Standard Minecraft jukebox range
     // Map of disc types to their durations in ticks (1 second = 20 ticks)
     private static Map<Material, Integer> DISC_DURATIONS = new HashMap<>();
+    // Track ends by how many ticks after the scheduled end the next track started; the
+    // last bucket counts anything later. For /multibox bench
+    static final int GAP_BUCKETS = 21;
+    private static final long[] transitionGaps = new long[GAP_BUCKETS];
+    // The next disc is resolved this many ticks before the current one ends
+    private static final int STAGE_AHEAD_TICKS = 20;
     // Core properties
     private final MultiDiscJukebox plugin;
     private final Location location;
-    private ItemStack[] discs;
+    private DiscList discs;
     // Playback state
     private int currentIndex = -1; // Start with -1 to ensure the first disc is 0
     private BukkitTask particleTask; // Task for spawning particles
     private BukkitTask discFinishTask; // Task to track when current disc should finish
     private boolean isPaused = false;
     private boolean isPlaying = false;
-    private Material currentDiscType = null;
+    private DiscDescriptor currentDisc = null;
     private long playStartTime = 0; // When the current disc started playing
-    private int playCountdown = 0; // Countdown timer for current disc (in ticks)
-    private boolean acceleratedEnd = false; // Flag to prevent double disc advancement
+    private int endTick = 0; // Server tick the current disc ends on
+    private int stagedIndex = -1; // Slot of the next disc, resolved shortly before the current one ends
+    private DiscDescriptor stagedDisc = null;
+    private DiscList stagedFrom = null; // The list the staged disc was resolved from
+    private int particleSeconds = 0; // Seconds since the last particle, thinned out under load
+    private int stateVersion = 0; // Bumped on every state change so snapshots can skip unchanged players
+    private final PlaybackHistory history; // Recent tracks, fixed size
+    private final TrackAudio audio; // Sends track starts and stops, and remembers to whom
+    private boolean recordsStats = true; // False for benchmark players, which have no block; also gates transitions
 
     /**
      * Creates a new disc player for the given location with the specified discs
      *
      * @param plugin   The MultiDiscJukebox plugin instance
      * @param location The location of this jukebox
-     * @param discs    The array of discs in the jukebox
+     * @param discs    The discs in the jukebox
      */
-    public DiscPlayer(MultiDiscJukebox plugin, Location location, ItemStack[] discs) {
+    public DiscPlayer(MultiDiscJukebox plugin, Location location, DiscList discs) {
         this.plugin = plugin;
         this.location = location;
         this.discs = discs;
+        this.history = new PlaybackHistory(PlaybackHistory.configuredSize(plugin));
+        this.audio = new TrackAudio(location, plugin.getAudibilityBudget());
 
         // Log initialization
         plugin.logInfo("disc_player", "Created DiscPlayer at " + formatLocation(location));
@@ -97,19 +108,30 @@ public class DiscPlayer {
                 config.set(discName, entry.getValue() / 20); // Store in seconds for easier editing
                 saveNewConfig = true;
             }
+            if (Material.getMaterial(discName) == null) {
+                plugin.logWarning("disc_player", "Could not find Material type for " + discName);
+            }
+        }
 
-            // Try to get the Material type
-            try {
-                Material discType = Material.valueOf(discName);
+        // Load every disc in the file, including those added since the defaults were written
+        for (String discName : config.getKeys(false)) {
+            if (discName.startsWith("_") || config.isConfigurationSection(discName)) continue;
 
-                // Duration in config is in seconds, convert to ticks (1 second = 20 ticks)
-                int durationInSeconds = config.getInt(discName);
-                DISC_DURATIONS.put(discType, durationInSeconds * 20);
+            Material discType = Material.getMaterial(discName);
+            if (discType == null) {
+                plugin.logDebug("disc_durations", "Skipping duration for " + discName + ", which is not a material on this server");
+                continue;
+            }
 
-                plugin.logInfo("disc_durations", "Loaded duration for " + discName + ": " + durationInSeconds + " seconds");
-            } catch (IllegalArgumentException e) {
-                plugin.logWarning("disc_player", "Could not find Material type for " + discName);
+            // Duration in config is in seconds, possibly fractional; convert to ticks (1 second = 20 ticks)
+            int durationTicks = secondsToTicks(config.getDouble(discName));
+            if (durationTicks <= 0) {
+                plugin.logWarning("disc_durations", "Ignoring duration for " + discName + ": " + config.getString(discName) + " is not a positive number of seconds");
+                continue;
             }
+            DISC_DURATIONS.put(discType, durationTicks);
+
+            plugin.logInfo("disc_durations", "Loaded duration for " + discName + ": " + formatTicks(durationTicks));
         }
 
         // Save config if we added any defaults
@@ -123,8 +145,9 @@ public class DiscPlayer {
         }
 
         // Add note in the config
-        if (!config.contains("_note")) {
-            config.set("_note", "Duration values are in seconds. Edit these to match custom resource packs or future disc lengths.");
+        if (!config.contains("_note") || !config.contains("_custom_note")) {
+            config.set("_note", "Duration values are in seconds and may have decimals, e.g. 185.35; they are rounded to the nearest tick (0.05 seconds). Edit these to match custom resource packs or future disc lengths.");
+            config.set("_custom_note", "Datapack songs go under 'songs' (e.g. songs.mypack:anthem.sound and .seconds); custom model data discs under 'models' (e.g. models.MUSIC_DISC_CAT:1001.sound and .seconds).");
             try {
                 config.save(durationFile);
             } catch (IOException e) {
@@ -149,12 +172,13 @@ public class DiscPlayer {
      *
      * @param plugin          The plugin instance
      * @param discName        The name of the disc (e.g., "MUSIC_DISC_CAT")
-     * @param durationSeconds The duration in seconds
+     * @param durationSeconds The duration in seconds, rounded to the nearest tick
      * @return True if successful, false otherwise
      */
-    public static boolean updateDiscDuration(MultiDiscJukebox plugin, String discName, int durationSeconds) {
+    public static boolean updateDiscDuration(MultiDiscJukebox plugin, String discName, double durationSeconds) {
         // Validate input
-        if (discName == null || discName.isEmpty() || durationSeconds <= 0) {
+        int durationTicks = secondsToTicks(durationSeconds);
+        if (discName == null || discName.isEmpty() || durationTicks <= 0) {
             return false;
         }
 
@@ -165,18 +189,18 @@ public class DiscPlayer {
         File durationFile = new File(plugin.getDataFolder(), "disc_durations.yml");
         YamlConfiguration config = YamlConfiguration.loadConfiguration(durationFile);
 
-        // Update the duration
-        config.set(discName, durationSeconds);
+        // Update the duration; whole seconds stay integers in the file
+        config.set(discName, durationTicks % 20 == 0 ? (Object) (durationTicks / 20) : durationTicks / 20.0);
 
         // Save the config
         try {
             config.save(durationFile);
-            plugin.logInfo("disc_durations", "Updated duration for " + discName + " to " + durationSeconds + " seconds");
+            plugin.logInfo("disc_durations", "Updated duration for " + discName + " to " + formatTicks(durationTicks));
 
             // Update the runtime map as well
             try {
                 Material discType = Material.valueOf(discName);
-                DISC_DURATIONS.put(discType, durationSeconds * 20); // Convert to ticks
+                DISC_DURATIONS.put(discType, durationTicks);
             } catch (IllegalArgumentException e) {
                 plugin.logWarning("disc_durations", "Added disc " + discName + " to config, but it's not a valid Material type");
             }
@@ -203,13 +227,10 @@ public class DiscPlayer {
         // Get all keys except notes
         for (String key : config.getKeys(false)) {
             if (key.startsWith("_")) continue; // Skip notes/metadata
+            if (config.isConfigurationSection(key)) continue; // Song and model overrides, see DiscResolver
 
-            int seconds = config.getInt(key);
-            int minutes = seconds / 60;
-            int remainingSeconds = seconds % 60;
-
-            // Format as mm:ss
-            String formattedTime = String.format("%d:%02d", minutes, remainingSeconds);
+            // Format as m:ss, with hundredths if it isn't whole seconds
+            String formattedTime = formatTicks(secondsToTicks(config.getDouble(key)));
 
             // Check if it's a known Material
             boolean isValid = false;
@@ -227,6 +248,30 @@ public class DiscPlayer {
         return result;
     }
 
+    /**
+     * Converts a duration in seconds to ticks, rounding to the nearest tick
+     *
+     * @param seconds The duration in seconds
+     * @return The duration in ticks
+     */
+    static int secondsToTicks(double seconds) {
+        return (int) Math.round(seconds * 20);
+    }
+
+    /**
+     * Formats a duration as m:ss, or m:ss.hh if it isn't whole seconds
+     *
+     * @param ticks The duration in ticks
+     * @return The formatted duration
+     */
+    static String formatTicks(int ticks) {
+        int seconds = ticks / 20;
+        int hundredths = ticks % 20 * 5;
+        return hundredths == 0
+                ? String.format(Locale.ROOT, "%d:%02d", seconds / 60, seconds % 60)
+                : String.format(Locale.ROOT, "%d:%02d.%02d", seconds / 60, seconds % 60, hundredths);
+    }
+
     /**
      * Automatically add an unknown disc to the durations config
      *
@@ -265,10 +310,9 @@ public class DiscPlayer {
         this.currentIndex = -1;
         this.isPaused = false;
         this.isPlaying = false;
-        this.currentDiscType = null;
+        this.currentDisc = null;
         this.playStartTime = 0;
-        this.playCountdown = 0;
-        this.acceleratedEnd = false;
+        this.endTick = 0;
 
         // Check if we have discs to play
         if (hasValidDiscs()) {
@@ -282,6 +326,81 @@ public class DiscPlayer {
         startParticleEffects();
     }
 
+    /**
+     * Starts the disc player from a saved playback state instead of the first track.
+     * Sounds can't be started part-way through, so the saved track is replayed from
+     * its beginning, or skipped if it had almost finished.
+     *
+     * @param state             The saved state
+     * @param minRemainingTicks Tracks with less time left than this are skipped
+     */
+    public void resume(WarmRestart.PlaybackState state, int minRemainingTicks) {
+        if (discs == null || state.index() < 0 || state.index() >= discs.size() || !hasValidDiscs()) {
+            start();
+            return;
+        }
+
+        stop(); // Stop any existing playback
+
+        plugin.logInfo("disc_player", "Resuming DiscPlayer at " + formatLocation(location) + " from slot " + state.index());
+
+        this.isPlaying = false;
+        this.currentDisc = null;
+        this.playStartTime = 0;
+        this.endTick = 0;
+
+        if (state.paused()) {
+            // Stay paused on the saved track; resuming advances from there as usual
+            this.currentIndex = state.index();
+            this.isPlaying = true;
+            this.isPaused = true;
+        } else {
+            // playNextDisc advances first, so step back to land on the saved track
+            boolean skip = state.remainingTicks() < minRemainingTicks;
+            this.currentIndex = skip ? state.index() : state.index() - 1;
+            this.isPaused = false;
+            playNextDisc();
+        }
+
+        startParticleEffects();
+    }
+
+    /**
+     * Aligns this player with a position published by another server. A sound can't be
+     * started part way through, so switching track plays the new disc from its start,
+     * but the countdown is set to end it when the other server's does.
+     *
+     * @param index          The slot being played
+     * @param remainingTicks Ticks left on it
+     * @param toleranceTicks Countdown differences up to this are left alone
+     * @return True if the track or countdown was changed
+     */
+    public boolean syncTo(int index, int remainingTicks, int toleranceTicks) {
+        if (isPaused || discs == null || index < 0 || index >= discs.size() || !discs.isPlayable(index)) {
+            return false;
+        }
+
+        if (isPlaying && currentIndex == index && currentDisc != null) {
+            if (Math.abs(getRemainingTicks() - remainingTicks) <= toleranceTicks) return false;
+        } else {
+            resume(new WarmRestart.PlaybackState(index, remainingTicks, false), 0);
+            if (currentIndex != index) return true;
+        }
+
+        scheduleEnd(remainingTicks);
+        return true;
+    }
+
+    /**
+     * Captures the current playlist position for a warm restart
+     *
+     * @return The state, or null if nothing is playing or paused on a track
+     */
+    public WarmRestart.PlaybackState captureState() {
+        if (!isPlaying || currentIndex < 0) return null;
+        return new WarmRestart.PlaybackState(currentIndex, getRemainingTicks(), isPaused);
+    }
+
     /* ----- Disc Handling Methods ----- */
 
     /**
@@ -294,25 +413,37 @@ public class DiscPlayer {
 
         particleTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
             if (isPlaying && !isPaused) {
-                // Spawn note particles above the jukebox
-                Location particleLoc = location.clone().add(0.5, 1.2, 0.5);
-                location.getWorld().spawnParticle(Particle.NOTE, particleLoc, 1,  // Count
-                        0.3, 0.3, 0.3,  // Offset
-                        1   // Extra (determines the note color)
-                );
-
-                // Log remaining time every 20 seconds (400 ticks)
-                if (playCountdown > 0 && playCountdown % 400 == 0) {
-                    plugin.logInfo("disc_durations", "Disc " + currentDiscType + " has " + (playCountdown / 20) + " seconds remaining until next disc");
+                // Fewer (or no) particles while the server is behind
+                int interval = plugin.getLoadController().getParticleIntervalSeconds();
+                if (interval > 0 && ++particleSeconds >= interval) {
+                    particleSeconds = 0;
+                    spawnNoteParticle();
                 }
             }
         }, 20L, 20L); // Every second
     }
 
+    /**
+     * Spawns a single note particle above the jukebox
+     */
+    private void spawnNoteParticle() {
+        // Spawn note particles above the jukebox
+        Location particleLoc = location.clone().add(0.5, 1.2, 0.5);
+        location.getWorld().spawnParticle(Particle.NOTE, particleLoc, 1,  // Count
+                0.3, 0.3, 0.3,  // Offset
+                1   // Extra (determines the note color)
+        );
+    }
+
     /**
      * Stops playback and cancels the playback task
      */
     public void stop() {
+        JfrEvents.TrackStop jfr = new JfrEvents.TrackStop();
+        jfr.begin();
+        DiscDescriptor stoppedDisc = currentDisc;
+        int remainingTicks = getRemainingTicks();
+        stateVersion++;
         plugin.logInfo("disc_player", "Stopping DiscPlayer at " + formatLocation(location));
 
         // Make sure we cancel any ongoing tasks
@@ -328,14 +459,22 @@ public class DiscPlayer {
 
         // Stop any current music
         stopRecordSound();
+        audio.release();
+        if (stoppedDisc != null) publish(PlaybackTransition.Type.ENDED, stoppedDisc);
 
         // Update state
         this.isPlaying = false;
         this.isPaused = true;
-        this.currentDiscType = null;
+        this.currentDisc = null;
         this.playStartTime = 0;
-        this.playCountdown = 0;
-        this.acceleratedEnd = false;
+        this.endTick = 0;
+
+        if (jfr.shouldCommit()) {
+            jfr.at(location);
+            jfr.disc = stoppedDisc == null ? null : stoppedDisc.displayName();
+            jfr.remainingTicks = remainingTicks;
+            jfr.commit();
+        }
     }
 
     /**
@@ -346,19 +485,26 @@ public class DiscPlayer {
     public void setPaused(boolean paused) {
         if (this.isPaused == paused) return; // No change
 
+        stateVersion++;
         this.isPaused = paused;
         plugin.logInfo("disc_player", "DiscPlayer at " + formatLocation(location) + " " + (paused ? "paused" : "resumed"));
 
         if (paused) {
+            DiscDescriptor pausedDisc = currentDisc;
             stopRecordSound();
+            audio.release();
+            publish(PlaybackTransition.Type.PAUSED, pausedDisc);
             // Cancel the disc finish task when paused
             if (this.discFinishTask != null) {
                 this.discFinishTask.cancel();
                 this.discFinishTask = null;
             }
-        } else if (hasValidDiscs() && isPlaying) {
+        } else {
+            publish(PlaybackTransition.Type.RESUMED, null);
             // Restart playing if we have discs and just unpaused
-            playNextDisc();
+            if (hasValidDiscs() && isPlaying) {
+                playNextDisc();
+            }
         }
     }
 
@@ -367,30 +513,36 @@ public class DiscPlayer {
     /**
      * Updates the discs in this jukebox and manages playback state accordingly
      *
-     * @param newDiscs The new array of discs
+     * @param newDiscs The new discs
      */
-    public void updateDiscs(ItemStack[] newDiscs) {
+    public void updateDiscs(DiscList newDiscs) {
+        JfrEvents.DiscsUpdated jfr = new JfrEvents.DiscsUpdated();
+        jfr.begin();
+        stateVersion++;
         boolean hadValidDiscs = hasValidDiscs();
         boolean willHaveValidDiscs = hasValidDiscs(newDiscs);
 
         plugin.logInfo("disc_player", "Updating discs at " + formatLocation(location) + ", had valid discs: " + hadValidDiscs + ", will have valid discs: " + willHaveValidDiscs);
 
         this.discs = newDiscs;
+        clearStaged();
 
         // Reset index if the current index is out of bounds
-        if (this.discs == null || currentIndex >= this.discs.length) {
+        if (this.discs == null || currentIndex >= this.discs.size()) {
             currentIndex = -1;
         }
 
+        publish(PlaybackTransition.Type.DISCS_CHANGED, currentDisc);
+
         // Stop all music if we no longer have valid discs
         if (hadValidDiscs && !willHaveValidDiscs) {
             plugin.logInfo("disc_player", "No more valid discs, stopping playback");
+            if (currentDisc != null) publish(PlaybackTransition.Type.ENDED, currentDisc);
             stopRecordSound();
             isPlaying = false;
-            currentDiscType = null;
+            currentDisc = null;
             playStartTime = 0;
-            playCountdown = 0;
-            acceleratedEnd = false;
+            endTick = 0;
 
             // Cancel disc finish task
             if (this.discFinishTask != null) {
@@ -409,6 +561,13 @@ public class DiscPlayer {
             // We'll continue playing with the current disc
             plugin.logInfo("disc_player", "Discs updated, continuing with current playback");
         }
+
+        if (jfr.shouldCommit()) {
+            jfr.at(location);
+            jfr.slots = newDiscs == null ? 0 : newDiscs.size();
+            jfr.discs = newDiscs == null ? 0 : newDiscs.playableCount();
+            jfr.commit();
+        }
     }
 
     /**
@@ -421,288 +580,246 @@ public class DiscPlayer {
     }
 
     /**
-     * Checks if the given array of items contains at least one valid music disc
+     * Checks if the given list contains at least one valid music disc
      *
-     * @param items The array of items to check
+     * @param items The list to check
      * @return True if there's at least one valid music disc
      */
-    private boolean hasValidDiscs(ItemStack[] items) {
-        if (items == null) return false;
-
-        boolean result = Arrays.stream(items).anyMatch(this::isValidMusicDisc);
-
-        if (result) {
-            int count = 0;
-            for (ItemStack item : items) {
-                if (isValidMusicDisc(item)) count++;
-            }
-            plugin.logInfo("disc_player", "Found " + count + " valid music discs");
-        }
-
-        return result;
-    }
-
-    /**
-     * Checks if the given item is a valid music disc
-     *
-     * @param disc The item to check
-     * @return True if the item is a valid music disc
-     */
-    private boolean isValidMusicDisc(ItemStack disc) {
-        if (disc == null) return false;
-
-        String typeName = disc.getType().toString().toLowerCase();
-        return typeName.contains("music_disc");
+    private boolean hasValidDiscs(DiscList items) {
+        // Kept up to date by the list itself, so this is constant time at any capacity
+        return items != null && items.playableCount() > 0;
     }
 
     /**
      * Advances to the next valid disc and plays it
      */
     public void playNextDisc() {
+        stateVersion++;
         if (isPaused || discs == null) {
             plugin.logInfo("disc_player", "Not playing next disc: paused=" + isPaused + ", discs=" + (discs == null ? "null" : "notNull"));
             return;
         }
 
-        // Prevent double advancement from callbacks
-        if (acceleratedEnd) {
-            plugin.logInfo("disc_player", "Ignoring playNextDisc call due to accelerated end flag");
-            acceleratedEnd = false;
-            return;
-        }
-
         // Cancel any existing finish task
         if (this.discFinishTask != null) {
             this.discFinishTask.cancel();
             this.discFinishTask = null;
         }
 
+        // Whatever happens next, the current track is over
+        if (currentDisc != null) publish(PlaybackTransition.Type.ENDED, currentDisc);
+
         // If no valid discs, don't play anything
         if (!hasValidDiscs()) {
             isPlaying = false;
-            currentDiscType = null;
+            currentDisc = null;
             playStartTime = 0;
-            playCountdown = 0;
+            endTick = 0;
+            audio.release();
             plugin.logInfo("disc_player", "No valid discs to play");
             return;
         }
 
-        // Find the next valid disc
-        int startIndex = currentIndex;
-        boolean foundDisc = false;
+        // Find the next valid disc; the list tracks disc slots, so this doesn't scan
+        plugin.logInfo("disc_player", "Looking for next disc, starting from index " + currentIndex);
+        int next = discs.nextPlayable(currentIndex + 1);
+
+        if (next >= 0) {
+            currentIndex = next;
+            // Resolved ahead of time when the previous disc was about to end
+            DiscDescriptor disc = stagedFrom == discs && stagedIndex == next ? stagedDisc : plugin.getDiscResolver().resolve(discs, currentIndex);
+            clearStaged();
+            plugin.logInfo("disc_player", "Found valid disc at index " + currentIndex + ": " + (disc == null ? null : disc.displayName()));
+            playDisc(disc);
+        } else {
+            isPlaying = false;
+            currentDisc = null;
+            playStartTime = 0;
+            endTick = 0;
+            plugin.logWarning("disc_player", "Couldn't find any valid discs despite hasValidDiscs returning true!");
+        }
+    }
 
-        plugin.logInfo("disc_player", "Looking for next disc, starting from index " + startIndex);
+    /**
+     * Schedules the end of the current disc. The task runs once a second for staging
+     * and progress logs, and is phased so that its last run falls on the ending tick itself.
+     *
+     * @param ticks Ticks from now until the disc ends
+     */
+    private void scheduleEnd(int ticks) {
+        if (this.discFinishTask != null) {
+            this.discFinishTask.cancel();
+        }
+        ticks = Math.max(1, ticks);
+        this.endTick = Bukkit.getCurrentTick() + ticks;
+        stateVersion++;
+        clearStaged();
+
+        this.discFinishTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (isPaused) return; // Pausing cancels this task; just in case
+
+            int remaining = endTick - Bukkit.getCurrentTick();
+            if (remaining <= 0) {
+                finishDisc();
+            } else if (remaining <= STAGE_AHEAD_TICKS) {
+                stageNextDisc();
+            } else if (remaining % 400 == 0) {
+                // Log remaining time every 20 seconds (400 ticks)
+                plugin.logInfo("disc_durations", "Disc " + (currentDisc == null ? null : currentDisc.displayName()) + " has " + (remaining / 20) + " seconds remaining until next disc");
+            }
+        }, (ticks - 1) % 20 + 1, 20);
+    }
 
-        // First increment to next position
-        currentIndex = (currentIndex + 1) % discs.length;
+    /**
+     * Ends the current disc early, as if it were that long; for /multibox bench
+     *
+     * @param ticks Ticks from now until the disc ends
+     */
+    void endDiscIn(int ticks) {
+        if (currentDisc != null && !isPaused) scheduleEnd(ticks);
+    }
 
-        // Then find a valid disc
-        do {
-            ItemStack disc = discs[currentIndex];
+    /**
+     * Resolves the disc that will follow the current one, so the change itself is
+     * only a lookup and the sound dispatch
+     */
+    private void stageNextDisc() {
+        if (discs == null || stagedFrom == discs) return;
+        int next = discs.nextPlayable(currentIndex + 1);
+        if (next < 0) return;
+        stagedIndex = next;
+        stagedDisc = plugin.getDiscResolver().resolve(discs, next);
+        stagedFrom = discs;
+    }
 
-            if (isValidMusicDisc(disc)) {
-                plugin.logInfo("disc_player", "Found valid disc at index " + currentIndex + ": " + disc.getType());
-                playDisc(disc);
-                foundDisc = true;
-                break;
-            }
+    private void clearStaged() {
+        stagedIndex = -1;
+        stagedDisc = null;
+        stagedFrom = null;
+    }
 
-            // If current disc isn't valid, move to next
-            currentIndex = (currentIndex + 1) % discs.length;
-            plugin.logInfo("disc_player", "Disc at index " + currentIndex + " is not valid, trying next");
-        } while (currentIndex != startIndex); // Stop if we've checked all discs
+    /**
+     * Moves on from a disc that has played to its end, recording how many ticks after
+     * the scheduled end the next disc started
+     */
+    private void finishDisc() {
+        plugin.logInfo("disc_player", "Disc " + (currentDisc == null ? null : currentDisc.displayName()) + " finished playing, moving to next disc");
+        int scheduledEnd = endTick;
+
+        // Cancel this task (it is recreated for the next disc)
+        if (discFinishTask != null) {
+            discFinishTask.cancel();
+            discFinishTask = null;
+        }
 
-        if (!foundDisc) {
-            isPlaying = false;
-            currentDiscType = null;
-            playStartTime = 0;
-            playCountdown = 0;
-            plugin.logWarning("disc_player", "Couldn't find any valid discs despite hasValidDiscs returning true!");
+        playNextDisc();
+        if (currentDisc != null) {
+            int gap = Bukkit.getCurrentTick() - scheduledEnd;
+            transitionGaps[Math.max(0, Math.min(gap, GAP_BUCKETS - 1))]++;
         }
     }
 
     /**
      * Plays the given music disc at the jukebox location
      *
-     * @param disc The music disc to play
+     * @param disc The resolved disc to play
      */
-    private void playDisc(ItemStack disc) {
-        if (isValidMusicDisc(disc)) {
+    private void playDisc(DiscDescriptor disc) {
+        if (disc != null) {
             try {
                 // First, stop any current sounds
                 stopRecordSound();
 
-                // Convert the disc type to the corresponding sound key
-                Material discType = disc.getType();
-                this.currentDiscType = discType;
+                this.currentDisc = disc;
                 this.playStartTime = System.currentTimeMillis();
-                this.acceleratedEnd = false;
-
-                // Get the duration for this disc
-                int discDuration = getDiscDuration(discType);
-                this.playCountdown = discDuration;
-
-                // Schedule a task to play the next disc when this one finishes
-                this.discFinishTask = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
-                    @Override
-                    public void run() {
-                        if (isPaused) return; // Don't count down while paused
-
-                        playCountdown -= 20; // Decrease by 20 ticks (1 second)
-
-                        // When the countdown reaches zero, play the next disc
-                        if (playCountdown <= 0) {
-                            plugin.logInfo("disc_player", "Disc " + currentDiscType + " finished playing (duration: " + (discDuration / 20) + " seconds), moving to next disc");
-
-                            // Cancel this task (it will be recreated for the next disc)
-                            if (discFinishTask != null) {
-                                discFinishTask.cancel();
-                                discFinishTask = null;
-                            }
 
-                            // Play the next disc
-                            acceleratedEnd = true; // Prevent double advancement
-                            playNextDisc();
-                        }
-                    }
-                }, 20, 20); // Run every second (20 ticks)
-
-                // Extract the disc name (e.g., "cat" from "MUSIC_DISC_CAT")
-                String discName = discType.toString().toLowerCase().replace("music_disc_", "");
-
-                // Format the proper sound key for Paper 1.21
-                String recordsSound = "minecraft:record." + discName;
-                String legacySound = "minecraft:music_disc." + discName;
+                // Get the duration for this disc and schedule its end on the exact tick
+                int discDuration = disc.durationTicks();
+                scheduleEnd(discDuration);
 
                 // Debug log before playing
-                plugin.logInfo("disc_player", "Playing disc: " + discType + " with duration: " + (discDuration / 20) + " seconds at " + formatLocation(location));
-
-                // Try both sound naming patterns for compatibility
-                boolean played = false;
-
-                // Try direct playback for all players in range
-                for (Player player : location.getWorld().getPlayers()) {
-                    if (player.getLocation().distance(location) <= JUKEBOX_RANGE) {
-                        try {
-                            // Try both sound formats
-                            player.playSound(location, recordsSound, SoundCategory.RECORDS, 4.0f, 1.0f);
-                            plugin.logInfo("disc_player", "Played record sound for player: " + player.getName());
-                            played = true;
-                        } catch (Exception e) {
-                            try {
-                                player.playSound(location, legacySound, SoundCategory.RECORDS, 4.0f, 1.0f);
-                                plugin.logInfo("disc_player", "Played legacy sound for player: " + player.getName());
-                                played = true;
-                            } catch (Exception e2) {
-                                plugin.logWarning("disc_player", "Failed to play both sound formats for " + player.getName());
-                            }
-                        }
-                    }
+                plugin.logInfo("disc_player", "Playing disc: " + disc.displayName() + " with duration: " + (discDuration / 20) + " seconds at " + formatLocation(location));
+                if (disc.sound() == null) {
+                    plugin.logWarning("disc_player", "Sound key " + disc.soundKey() + " of " + disc.displayName() + " is not a valid namespaced key; the track will be silent");
                 }
 
-                // Fallback to world playSound if individual player method failed
-                if (!played) {
-                    try {
-                        location.getWorld().playSound(location, recordsSound, SoundCategory.RECORDS, 4.0f, 1.0f);
-                        plugin.logInfo("disc_player", "Played world sound using record format");
-                    } catch (Exception e) {
-                        try {
-                            location.getWorld().playSound(location, legacySound, SoundCategory.RECORDS, 4.0f, 1.0f);
-                            plugin.logInfo("disc_player", "Played world sound using legacy format");
-                        } catch (Exception e2) {
-                            throw new Exception("Both sound formats failed for world playback", e2);
-                        }
-                    }
+                JfrEvents.TrackStart jfr = new JfrEvents.TrackStart();
+                jfr.begin();
+
+                // The sound was resolved once per distinct disc item; it is sent once to everyone in range
+                int audience = audio.play(disc);
+                plugin.logInfo("disc_player", "Played " + disc.soundKey() + " for " + audience + " players");
+                history.record(disc, Bukkit.getCurrentTick(), audience);
+                if (recordsStats) plugin.getPlaybackStats().record(disc, audience);
+
+                if (jfr.shouldCommit()) {
+                    jfr.at(location);
+                    jfr.disc = disc.displayName();
+                    jfr.audience = audience;
+                    jfr.lengthTicks = discDuration;
+                    jfr.commit();
                 }
 
-                // Also try to use Sound enum (as a fallback)
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    // Get the raw Sound value from the Material type
-                    try {
-                        Sound discSound = null;
-                        try {
-                            discSound = Sound.valueOf("MUSIC_DISC_" + discName.toUpperCase());
-                        } catch (IllegalArgumentException e) {
-                            // Try with just "RECORD_" prefix for legacy compatibility
-                            try {
-                                discSound = Sound.valueOf("RECORD_" + discName.toUpperCase());
-                            } catch (IllegalArgumentException e2) {
-                                plugin.logWarning("disc_player", "Could not find Sound enum for " + discName);
-                            }
-                        }
-
-                        if (discSound != null) {
-                            location.getWorld().playSound(location, discSound, SoundCategory.RECORDS, 4.0f, 1.0f);
-                            plugin.logInfo("disc_player", "Played sound using Sound enum: " + discSound);
-                        }
-                    } catch (Exception e) {
-                        plugin.logWarning("disc_player", "Error in sound enum fallback: " + e.getMessage());
-                    }
-                });
-
                 // Set the playback state
                 isPlaying = true;
+                publish(PlaybackTransition.Type.STARTED, disc);
 
                 // Debug log after playing
-                plugin.logInfo("disc_player", "Successfully played disc: " + disc.getType() + ", will play for " + (discDuration / 20) + " seconds");
+                plugin.logInfo("disc_player", "Successfully played disc: " + disc.displayName() + ", will play for " + (discDuration / 20) + " seconds");
 
             } catch (Exception e) {
-                plugin.logError("disc_player", "Error playing disc: " + disc.getType(), e);
+                plugin.logError("disc_player", "Error playing disc: " + disc.displayName(), e);
                 isPlaying = false;
-                currentDiscType = null;
+                currentDisc = null;
                 playStartTime = 0;
-                playCountdown = 0;
-                acceleratedEnd = false;
+                endTick = 0;
             }
         } else {
-            plugin.logWarning("disc_player", "Attempted to play invalid disc: " + (disc == null ? "null" : disc.getType()));
+            plugin.logWarning("disc_player", "Attempted to play a slot that holds no playable disc");
         }
     }
 
     // Add these methods to DiscPlayer.java
 
     /**
-     * Stops all music disc sounds for players within range of this jukebox
+     * Stops the current track for the players it was sent to. If no track was sent by
+     * this player, every disc sound is stopped for players in range instead, unless the
+     * server is behind.
      */
     private void stopRecordSound() {
         try {
-            plugin.logInfo("disc_player", "Stopping all music disc sounds at " + formatLocation(location));
-
-            // Find all music disc materials
-            List<String> musicDiscSoundKeys = new ArrayList<>();
-
-            // Use the Material enum to find all music disc types
-            for (Material material : Material.values()) {
-                if (material.name().contains("MUSIC_DISC")) {
-                    // Both naming patterns for compatibility
-                    String discName = material.name().toLowerCase().replace("music_disc_", "");
-                    musicDiscSoundKeys.add("minecraft:record." + discName);
-                    musicDiscSoundKeys.add("minecraft:music_disc." + discName);
-                }
+            plugin.logInfo("disc_player", "Stopping music disc sounds at " + formatLocation(location));
+
+            JfrEvents.StopSound jfr = new JfrEvents.StopSound();
+            jfr.begin();
+            int audience = 0;
+            int packets = 0;
+            boolean fullSweep = false;
+
+            if (audio.isTracking()) {
+                // Everyone it was sent to, even players who have since fallen out of range
+                audience = audio.stop();
+                packets = audience;
+            } else if (plugin.getLoadController().allowsFullStopSweep()) {
+                // Every disc sound key, including those of custom discs seen so far
+                String[] musicDiscSoundKeys = plugin.getDiscResolver().allSoundKeys();
+                audience = audio.sweep(musicDiscSoundKeys);
+                packets = audience * musicDiscSoundKeys.length;
+                fullSweep = true;
             }
 
-            // Only stop sounds for players within range
-            for (Player player : location.getWorld().getPlayers()) {
-                // Check if the player is within jukebox range
-                if (player.getLocation().distance(location) <= JUKEBOX_RANGE) {
-                    // Stop all music disc sounds for this player
-                    for (String soundKey : musicDiscSoundKeys) {
-                        player.stopSound(soundKey, SoundCategory.RECORDS);
-                    }
-
-                    // Also try to stop using the Sound enum
-                    for (Sound sound : Sound.values()) {
-                        if (sound.name().contains("MUSIC_DISC") || sound.name().contains("RECORD")) {
-                            player.stopSound(sound, SoundCategory.RECORDS);
-                        }
-                    }
-                }
+            if (jfr.shouldCommit()) {
+                jfr.at(location);
+                jfr.audience = audience;
+                jfr.packets = packets;
+                jfr.fullSweep = fullSweep;
+                jfr.commit();
             }
 
             // Reset the current disc type
-            currentDiscType = null;
+            currentDisc = null;
             playStartTime = 0;
-            playCountdown = 0;
+            endTick = 0;
         } catch (Exception e) {
             plugin.logError("disc_playback", "Error stopping record sounds", e);
         }
@@ -714,7 +831,70 @@ public class DiscPlayer {
      * @return true if music is playing, false otherwise
      */
     public boolean isPlaying() {
-        return isPlaying && !isPaused && currentDiscType != null;
+        return isPlaying && !isPaused && currentDisc != null;
+    }
+
+    /**
+     * Gets a counter that changes whenever this player's observable state changes
+     *
+     * @return The state version
+     */
+    public int getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * Gets the disc that is currently playing
+     *
+     * @return The resolved disc, or null if nothing is playing
+     */
+    public DiscDescriptor getCurrentDisc() {
+        return currentDisc;
+    }
+
+    /**
+     * Gets the ticks left on the current disc
+     *
+     * @return The remaining ticks, 0 if nothing is playing
+     */
+    public int getRemainingTicks() {
+        return currentDisc == null ? 0 : Math.max(0, endTick - Bukkit.getCurrentTick());
+    }
+
+    /**
+     * Gets the server tick the current disc ends on
+     *
+     * @return The ending tick, 0 if nothing is playing or playback is paused
+     */
+    public int getEndTick() {
+        return currentDisc == null || isPaused ? 0 : endTick;
+    }
+
+    /**
+     * Counts the playable discs held by this player
+     *
+     * @return The number of valid music discs
+     */
+    public int getDiscCount() {
+        return discs == null ? 0 : discs.playableCount();
+    }
+
+    /**
+     * Checks if this player is paused, by redstone or because it was stopped
+     *
+     * @return true if paused
+     */
+    public boolean isPaused() {
+        return isPaused;
+    }
+
+    /**
+     * Gets the tracks this player started recently
+     *
+     * @return The history ring buffer
+     */
+    public PlaybackHistory getHistory() {
+        return history;
     }
 
     /**
@@ -723,37 +903,66 @@ public class DiscPlayer {
      * @return A string describing the current playback state
      */
     public String getPlaybackInfo() {
-        if (!isPlaying || isPaused || currentDiscType == null) {
+        if (!isPlaying || isPaused || currentDisc == null) {
             return "Not playing";
         }
 
         long elapsedSeconds = (System.currentTimeMillis() - playStartTime) / 1000;
-        long remainingSeconds = playCountdown / 20;
+        long remainingSeconds = getRemainingTicks() / 20;
+
+        return "Playing " + currentDisc.displayName() + " for " + elapsedSeconds + " seconds, " + remainingSeconds + " seconds remaining";
+    }
 
-        return "Playing " + currentDiscType + " for " + elapsedSeconds + " seconds, " + remainingSeconds + " seconds remaining";
+    /**
+     * Keeps this player's plays out of the server-wide stats and the transition stream
+     */
+    void excludeFromStats() {
+        this.recordsStats = false;
     }
 
     /**
-     * Get the duration in ticks for a specific disc
+     * Publishes a transition of this player, if anyone listens
      *
-     * @param discType The disc material
-     * @return Duration in ticks, or default 3 minutes (3600 ticks) if unknown
+     * @param type The transition
+     * @param disc The disc it is about, or null
+     */
+    private void publish(PlaybackTransition.Type type, DiscDescriptor disc) {
+        TransitionPublisher transitions = plugin.getTransitionPublisher();
+        if (!recordsStats || !transitions.hasListeners()) return;
+
+        World world = location.getWorld();
+        transitions.publish(new PlaybackTransition(type, world.getUID(), world.getName(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ(),
+                disc == null ? null : disc.key(), disc == null ? -1 : currentIndex,
+                disc == null ? 0 : disc.durationTicks(), getDiscCount(), Bukkit.getCurrentTick()));
+    }
+
+    /**
+     * Track ends so far, by how many ticks after its scheduled end the next track
+     * started; the last bucket counts anything later
+     *
+     * @return A copy of the counts
      */
-    private int getDiscDuration(Material discType) {
-        // Use our predefined durations or default to 3 minutes (3600 ticks)
-        Integer duration = DISC_DURATIONS.get(discType);
-        if (duration == null) {
-            // For custom/unknown discs, use a default of 3 minutes
-            duration = 3600; // 3 minutes in ticks
+    static long[] getTransitionGaps() {
+        return transitionGaps.clone();
+    }
 
-            // Add the unknown disc to config with default duration
-            DiscPlayer.addUnknownDisc(plugin, discType, 180); // 3 minutes
+    /**
+     * Total play and stop sound packets sent to players by all MultiBoxes
+     *
+     * @return The packet count since the plugin loaded
+     */
+    static long getSoundPacketsSent() {
+        return TrackAudio.getPacketsSent();
+    }
 
-            // Log the discovery
-            plugin.logInfo("disc_durations", "Found unknown disc " + discType.name() + ", added to disc_durations.yml with default value: 180 seconds");
-        } else {
-            plugin.logInfo("disc_durations", "Duration for " + discType + ": " + (duration / 20) + " seconds");
-        }
-        return duration;
+    /**
+     * Get the configured duration for a disc
+     *
+     * @param discType The disc material
+     * @return Duration in ticks, or null if disc_durations.yml has none
+     */
+    static Integer getConfiguredDuration(Material discType) {
+        return DISC_DURATIONS.get(discType);
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package org.neimeyer.multiDiscJukebox;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.Sound;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Constant data resolved once at enable (and on reload) so hot paths can use
+ * array lookups by {@link Material#ordinal()} instead of string building and
+ * exception-driven lookups.
+ */
+public final class DiscRegistry {
+    private static final UUID MULTIBOX_PROFILE_ID = new UUID(-1850217977L, 998918894L);
+    private static final String MULTIBOX_TEXTURE = "eyJ0ZXh0dXJlcyI6eyJTS0lOIjp7InVybCI6Imh0dHA6Ly90ZXh0dXJlcy5taW5lY3JhZnQubmV0L3RleHR1cmUvOGY1NjU4ZmM2N2FhNTNjNmIxMzMwZDI3OTBiMDgzMDE2Y2NhNGU3NzkxYTI0Y2ExNzg3ZmQ3MzA3YjUyZGRhMyJ9fX0=";
+
+    private final boolean[] discs;
+    private final String[] soundKeys;
+    private final Sound[] sounds;
+    private final List<String> discNames;
+    private final String[] allSoundKeys;
+    private final ItemStack multiBoxTemplate;
+
+    private DiscRegistry(boolean[] discs, String[] soundKeys, Sound[] sounds, List<String> discNames,
+                         String[] allSoundKeys, ItemStack multiBoxTemplate) {
+        this.discs = discs;
+        this.soundKeys = soundKeys;
+        this.sounds = sounds;
+        this.discNames = discNames;
+        this.allSoundKeys = allSoundKeys;
+        this.multiBoxTemplate = multiBoxTemplate;
+    }
+
+    /**
+     * Resolves every music disc material and builds the MultiBox item template
+     *
+     * @param plugin The plugin instance
+     * @return The new registry
+     */
+    public static DiscRegistry build(MultiDiscJukebox plugin) {
+        Material[] materials = Material.values();
+        boolean[] discs = new boolean[materials.length];
+        String[] soundKeys = new String[materials.length];
+        Sound[] sounds = new Sound[materials.length];
+        List<String> discNames = new ArrayList<>();
+        List<String> allSoundKeys = new ArrayList<>();
+
+        for (Material material : materials) {
+            if (!material.name().startsWith("MUSIC_DISC_")) continue;
+
+            int ordinal = material.ordinal();
+            String discName = material.name().substring("MUSIC_DISC_".length()).toLowerCase(Locale.ROOT);
+            NamespacedKey modern = NamespacedKey.minecraft("music_disc." + discName);
+            NamespacedKey legacy = NamespacedKey.minecraft("record." + discName);
+
+            // Prefer whichever key the server actually knows about
+            Sound sound = Registry.SOUNDS.get(modern);
+            NamespacedKey resolvedKey = modern;
+            if (sound == null) {
+                sound = Registry.SOUNDS.get(legacy);
+                if (sound != null) resolvedKey = legacy;
+            }
+
+            discs[ordinal] = true;
+            soundKeys[ordinal] = resolvedKey.toString();
+            sounds[ordinal] = sound;
+            discNames.add(material.name());
+
+            // Both naming patterns are stopped for compatibility
+            allSoundKeys.add(modern.toString());
+            allSoundKeys.add(legacy.toString());
+            if (sound == null) {
+                plugin.logWarning("disc_player", "Could not resolve a sound for " + material.name() + ", using key " + resolvedKey);
+            }
+        }
+
+        plugin.logInfo("disc_player", "Resolved sounds for " + discNames.size() + " music discs");
+
+        return new DiscRegistry(discs, soundKeys, sounds, List.copyOf(discNames),
+                allSoundKeys.toArray(new String[0]), buildMultiBoxItem(plugin));
+    }
+
+    private static ItemStack buildMultiBoxItem(MultiDiscJukebox plugin) {
+        // Create the head item
+        ItemStack head = new ItemStack(Material.PLAYER_HEAD);
+
+        if (head.getItemMeta() instanceof SkullMeta skullMeta) {
+            // Set basic metadata
+            skullMeta.getPersistentDataContainer().set(plugin.getCyclerKey(), PersistentDataType.BYTE, (byte) 1);
+            skullMeta.displayName(Component.text("MultiBox", NamedTextColor.GOLD));
+            skullMeta.lore(List.of(Component.text("This jukebox can play multiple discs", NamedTextColor.GRAY)));
+
+            // Set the custom texture
+            try {
+                PlayerProfile profile = Bukkit.createProfile(MULTIBOX_PROFILE_ID, null);
+                profile.setProperty(new ProfileProperty("textures", MULTIBOX_TEXTURE));
+                skullMeta.setPlayerProfile(profile);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to set custom skull texture: " + e.getMessage());
+            }
+
+            head.setItemMeta(skullMeta);
+        }
+
+        return head;
+    }
+
+    /**
+     * Checks whether a material is a music disc
+     *
+     * @param material The material to check
+     * @return True if the material is a known music disc
+     */
+    public boolean isDisc(Material material) {
+        return material != null && discs[material.ordinal()];
+    }
+
+    /**
+     * Gets the resolved sound key for a disc
+     *
+     * @param material The disc material
+     * @return The namespaced sound key, or null if the material isn't a disc
+     */
+    public String soundKey(Material material) {
+        return material == null ? null : soundKeys[material.ordinal()];
+    }
+
+    /**
+     * Gets the resolved {@link Sound} for a disc
+     *
+     * @param material The disc material
+     * @return The sound, or null if the server has no registered sound for it
+     */
+    public Sound sound(Material material) {
+        return material == null ? null : sounds[material.ordinal()];
+    }
+
+    /**
+     * Every disc sound key in both naming patterns, for stopping playback
+     *
+     * @return The shared array; callers must not modify it
+     */
+    String[] allSoundKeys() {
+        return allSoundKeys;
+    }
+
+    /**
+     * Names of all music disc materials, for tab completion
+     *
+     * @return An immutable list of material names
+     */
+    public List<String> discNames() {
+        return discNames;
+    }
+
+    /**
+     * Creates a fresh MultiBox item from the cached template
+     *
+     * @return A new item the caller may modify
+     */
+    public ItemStack createMultiBoxItem() {
+        return multiBoxTemplate.clone();
+    }
+}
@@ -0,0 +1,197 @@
+package org.neimeyer.multiDiscJukebox;
+
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves disc items into {@link DiscDescriptor}s and caches them, so playback does
+ * one array lookup per track instead of deriving sounds and durations from names.
+ * <p>
+ * Plain discs are cached by material ordinal. Anything with meta is cached by its
+ * {@link DiscList} interned id, which is the same for equal stacks. Such items are
+ * resolved from their jukebox song component, so datapack discs that reuse a vanilla
+ * material play their own song, or from their custom model data. Songs and models
+ * can be given a sound and length in the {@code songs} and {@code models} sections of
+ * disc_durations.yml. Main thread only; rebuilt when durations change.
+ */
+public final class DiscResolver {
+    private static final int DEFAULT_DURATION_TICKS = 3600;
+    private static final DiscDescriptor NOT_PLAYABLE = new DiscDescriptor(Material.AIR, "minecraft:air", null, null, null, 0, "none");
+
+    private record SoundOverride(String soundKey, int durationTicks) {
+    }
+
+    private final MultiDiscJukebox plugin;
+    private final DiscRegistry registry;
+    private final DiscDescriptor[] byMaterial = new DiscDescriptor[Material.values().length];
+    private DiscDescriptor[] byInterned = new DiscDescriptor[64];
+    // Pool ids are reused after a sweep, so the cache above is only good for one generation
+    private int internGeneration = DiscList.internGeneration();
+    private final Map<NamespacedKey, DiscDescriptor> bySong = new HashMap<>();
+    private final Map<String, SoundOverride> songOverrides = new HashMap<>();
+    private final Map<String, SoundOverride> modelOverrides = new HashMap<>();
+    private String[] allSoundKeys;
+
+    public DiscResolver(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        this.registry = plugin.getDiscRegistry();
+        this.allSoundKeys = registry.allSoundKeys();
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(new File(plugin.getDataFolder(), "disc_durations.yml"));
+        readOverrides(config.getConfigurationSection("songs"), songOverrides);
+        readOverrides(config.getConfigurationSection("models"), modelOverrides);
+    }
+
+    private void readOverrides(ConfigurationSection section, Map<String, SoundOverride> into) {
+        if (section == null) return;
+        for (String key : section.getKeys(false)) {
+            String sound = section.getString(key + ".sound");
+            int ticks = DiscPlayer.secondsToTicks(section.getDouble(key + ".seconds", 0));
+            into.put(key.toLowerCase(Locale.ROOT), new SoundOverride(sound, ticks > 0 ? ticks : DEFAULT_DURATION_TICKS));
+        }
+    }
+
+    /**
+     * Resolves the item in a slot
+     *
+     * @param list The contents
+     * @param slot The slot index
+     * @return The descriptor, or null if the slot holds nothing playable
+     */
+    public DiscDescriptor resolve(DiscList list, int slot) {
+        int id = list.getInternedId(slot);
+        if (id < 0) {
+            // Stacks that didn't fit in the pool aren't cached
+            ItemStack kept = list.getInterned(slot);
+            if (kept != null) {
+                DiscDescriptor descriptor = resolveItem(kept);
+                return descriptor == NOT_PLAYABLE ? null : descriptor;
+            }
+            Material material = list.getType(slot);
+            return material == null ? null : forMaterial(material);
+        }
+
+        if (internGeneration != DiscList.internGeneration()) {
+            Arrays.fill(byInterned, null);
+            internGeneration = DiscList.internGeneration();
+        }
+
+        if (id >= byInterned.length) {
+            byInterned = Arrays.copyOf(byInterned, Math.max(id + 1, byInterned.length * 2));
+        }
+        DiscDescriptor descriptor = byInterned[id];
+        if (descriptor == null) {
+            descriptor = resolveItem(list.getInterned(slot));
+            byInterned[id] = descriptor;
+        }
+        return descriptor == NOT_PLAYABLE ? null : descriptor;
+    }
+
+    /**
+     * Checks whether an item can be played: a music disc, or any item with a jukebox
+     * song component
+     *
+     * @param item The item
+     * @return True if a MultiBox can play it
+     */
+    public boolean isPlayable(ItemStack item) {
+        if (item == null) return false;
+        if (registry.isDisc(item.getType())) return true;
+        return item.hasItemMeta() && item.getItemMeta().hasJukeboxPlayable();
+    }
+
+    /**
+     * Every sound key a MultiBox may be playing, for stopping playback
+     *
+     * @return The shared array; callers must not modify it
+     */
+    String[] allSoundKeys() {
+        return allSoundKeys;
+    }
+
+    private DiscDescriptor forMaterial(Material material) {
+        DiscDescriptor descriptor = byMaterial[material.ordinal()];
+        if (descriptor != null) return descriptor == NOT_PLAYABLE ? null : descriptor;
+
+        if (!registry.isDisc(material)) {
+            byMaterial[material.ordinal()] = NOT_PLAYABLE;
+            return null;
+        }
+
+        Integer duration = DiscPlayer.getConfiguredDuration(material);
+        if (duration == null) {
+            // Add the unknown disc to the config with a default duration
+            duration = DEFAULT_DURATION_TICKS;
+            DiscPlayer.addUnknownDisc(plugin, material, DEFAULT_DURATION_TICKS / 20);
+            plugin.logInfo("disc_durations", "Found unknown disc " + material.name() + ", added to disc_durations.yml with default value: " + (DEFAULT_DURATION_TICKS / 20) + " seconds");
+        }
+
+        descriptor = DiscDescriptor.of(material, material.getKey().toString(), registry.soundKey(material), duration, material.name());
+        byMaterial[material.ordinal()] = descriptor;
+        return descriptor;
+    }
+
+    private DiscDescriptor resolveItem(ItemStack item) {
+        Material material = item.getType();
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) return registry.isDisc(material) ? forMaterial(material) : NOT_PLAYABLE;
+
+        if (meta.hasJukeboxPlayable()) {
+            NamespacedKey song = meta.getJukeboxPlayable().getSongKey();
+            return bySong.computeIfAbsent(song, key -> resolveSong(key, material));
+        }
+
+        if (meta.hasCustomModelData()) {
+            SoundOverride model = modelOverrides.get((material.name() + ":" + meta.getCustomModelData()).toLowerCase(Locale.ROOT));
+            if (model != null) {
+                String name = meta.hasDisplayName() ? PlainTextComponentSerializer.plainText().serialize(meta.displayName()) : material.name();
+                return describe(material, material.getKey() + "#" + meta.getCustomModelData(),
+                        model.soundKey() != null ? model.soundKey() : registry.soundKey(material), model.durationTicks(), name);
+            }
+        }
+
+        return registry.isDisc(material) ? forMaterial(material) : NOT_PLAYABLE;
+    }
+
+    private DiscDescriptor resolveSong(NamespacedKey song, Material material) {
+        SoundOverride override = songOverrides.get(song.toString());
+        if (override != null) {
+            String soundKey = override.soundKey() != null ? override.soundKey() : song.getNamespace() + ":music_disc." + song.getKey();
+            return describe(material, song.toString(), soundKey, override.durationTicks(), song.toString());
+        }
+
+        // Vanilla songs play exactly like their own disc
+        if (song.getNamespace().equals(NamespacedKey.MINECRAFT)) {
+            Material vanilla = Material.getMaterial("MUSIC_DISC_" + song.getKey().toUpperCase(Locale.ROOT));
+            if (vanilla != null && registry.isDisc(vanilla)) return forMaterial(vanilla);
+        }
+
+        plugin.logWarning("disc_durations", "No sound or length configured for jukebox song " + song
+                + ", assuming " + song.getNamespace() + ":music_disc." + song.getKey() + " and " + (DEFAULT_DURATION_TICKS / 20)
+                + " seconds. Add it under 'songs' in disc_durations.yml.");
+        return describe(material, song.toString(), song.getNamespace() + ":music_disc." + song.getKey(), DEFAULT_DURATION_TICKS, song.toString());
+    }
+
+    private DiscDescriptor describe(Material material, String key, String soundKey, int durationTicks, String displayName) {
+        // Newly seen sounds must also be stopped by full sweeps
+        if (!Arrays.asList(allSoundKeys).contains(soundKey)) {
+            Set<String> keys = new LinkedHashSet<>(Arrays.asList(allSoundKeys));
+            keys.add(soundKey);
+            allSoundKeys = keys.toArray(new String[0]);
+        }
+        return DiscDescriptor.of(material, key, soundKey, durationTicks, displayName);
+    }
+}
@@ -0,0 +1,236 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets that keep auto-clickers and disc spam from driving MultiBox work.
+ * <p>
+ * Every player (keyed by UUID) and, for redstone, every MultiBox (keyed by location)
+ * gets one row of buckets, one per {@link Action}, stored in flat arrays and refilled
+ * lazily from the tick counter when next used. Rows whose buckets have all refilled
+ * are released by {@link #cleanup()}. Main thread only, except the throttle counters.
+ */
+public class InteractionLimiter implements Listener {
+
+    /**
+     * Rate-limited actions
+     */
+    public enum Action {
+        /** Opening a MultiBox GUI */
+        GUI_OPEN("gui-open", 4, 1.0),
+        /** Inserting a disc by right-clicking with it */
+        DISC_INSERT("disc-insert", 8, 4.0),
+        /** Applying a redstone pause/resume change, per MultiBox */
+        REDSTONE("redstone", 4, 2.0);
+
+        private final String configKey;
+        private final int defaultBurst;
+        private final double defaultPerSecond;
+
+        Action(String configKey, int defaultBurst, double defaultPerSecond) {
+            this.configKey = configKey;
+            this.defaultBurst = defaultBurst;
+            this.defaultPerSecond = defaultPerSecond;
+        }
+
+        public String getConfigKey() {
+            return configKey;
+        }
+    }
+
+    private static final int ACTIONS = Action.values().length;
+    // Tokens are kept in thousandths so slow refill rates still add up per tick
+    private static final int SCALE = 1000;
+
+    private final MultiDiscJukebox plugin;
+
+    private boolean enabled;
+    private final int[] capacity = new int[ACTIONS];
+    private final int[] refillPerTick = new int[ACTIONS];
+    private int noticeCooldownTicks;
+
+    // Player UUID or MultiBox location to its row in the arrays below
+    private final Map<Object, Integer> rows = new HashMap<>();
+    private int[] tokens = new int[16 * ACTIONS];
+    private int[] refilledTick = new int[16 * ACTIONS];
+    private int[] noticeTick = new int[16];
+    private int[] freeRows = new int[16];
+    private int freeCount = 0;
+    private int rowCount = 0;
+
+    // Read by API consumers on any thread
+    private final AtomicLongArray throttled = new AtomicLongArray(ACTIONS);
+
+    public InteractionLimiter(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Re-reads the limits from config. Existing buckets keep their tokens.
+     */
+    public void reload() {
+        this.enabled = plugin.getConfig().getBoolean("rate-limit.enabled", true);
+        for (Action action : Action.values()) {
+            String path = "rate-limit." + action.configKey;
+            int burst = Math.max(1, plugin.getConfig().getInt(path + ".burst", action.defaultBurst));
+            double perSecond = Math.max(0.0, plugin.getConfig().getDouble(path + ".per-second", action.defaultPerSecond));
+            capacity[action.ordinal()] = burst * SCALE;
+            refillPerTick[action.ordinal()] = (int) Math.round(perSecond * SCALE / 20.0);
+        }
+        this.noticeCooldownTicks = Math.max(0, plugin.getConfig().getInt("rate-limit.notice-cooldown-seconds", 3)) * 20;
+    }
+
+    /**
+     * Takes one token for an action, if there is one
+     *
+     * @param key    A player UUID, or a MultiBox location for redstone
+     * @param action The action
+     * @param tick   The current server tick
+     * @return True if the action may go ahead; false if it is over budget and was counted as throttled
+     */
+    public boolean tryAcquire(Object key, Action action, int tick) {
+        if (!enabled) return true;
+
+        int i = rowFor(key, tick) * ACTIONS + action.ordinal();
+        refill(i, action.ordinal(), tick);
+        if (tokens[i] >= SCALE) {
+            tokens[i] -= SCALE;
+            return true;
+        }
+        throttled.incrementAndGet(action.ordinal());
+        return false;
+    }
+
+    /**
+     * Whether a throttled player should be told to slow down, at most once per cooldown
+     *
+     * @param key  The player UUID
+     * @param tick The current server tick
+     * @return True if a notice should be sent now
+     */
+    public boolean shouldNotify(Object key, int tick) {
+        Integer row = rows.get(key);
+        if (row == null || tick - noticeTick[row] < noticeCooldownTicks) return false;
+        noticeTick[row] = tick;
+        return true;
+    }
+
+    /**
+     * Releases the buckets of a MultiBox or player that is gone
+     *
+     * @param key The player UUID or MultiBox location
+     */
+    public void forget(Object key) {
+        Integer row = rows.remove(key);
+        if (row != null) release(row);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        forget(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Releases every row whose buckets have refilled completely, since a fresh row is
+     * the same thing. Called periodically.
+     */
+    public void cleanup() {
+        int tick = Bukkit.getCurrentTick();
+        Iterator<Map.Entry<Object, Integer>> it = rows.entrySet().iterator();
+        while (it.hasNext()) {
+            int row = it.next().getValue();
+            boolean full = true;
+            for (int a = 0; a < ACTIONS && full; a++) {
+                refill(row * ACTIONS + a, a, tick);
+                full = tokens[row * ACTIONS + a] >= capacity[a];
+            }
+            if (full && tick - noticeTick[row] >= noticeCooldownTicks) {
+                it.remove();
+                release(row);
+            }
+        }
+    }
+
+    /**
+     * Throttle counts since the plugin was enabled; safe to call from any thread
+     *
+     * @return Count per action config key, e.g. {@code gui-open}
+     */
+    public Map<String, Long> getThrottleCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Action action : Action.values()) {
+            counts.put(action.configKey, throttled.get(action.ordinal()));
+        }
+        return counts;
+    }
+
+    /**
+     * Describes the limiter for /multibox load
+     *
+     * @return Report lines
+     */
+    public List<String> getReport() {
+        List<String> lines = new ArrayList<>();
+        StringBuilder counts = new StringBuilder("Rate limiting: " + (enabled ? "on" : "off") + ", throttled");
+        for (Action action : Action.values()) {
+            counts.append(' ').append(action.configKey).append(' ').append(throttled.get(action.ordinal()));
+            if (action.ordinal() < ACTIONS - 1) counts.append(',');
+        }
+        lines.add(counts.toString());
+        lines.add(String.format(Locale.ROOT, "Tracking %d players and MultiBoxes", rows.size()));
+        return lines;
+    }
+
+    private void refill(int i, int action, int tick) {
+        int elapsed = tick - refilledTick[i];
+        if (elapsed <= 0) return;
+        tokens[i] = (int) Math.min(capacity[action], tokens[i] + (long) elapsed * refillPerTick[action]);
+        refilledTick[i] = tick;
+    }
+
+    private int rowFor(Object key, int tick) {
+        Integer existing = rows.get(key);
+        if (existing != null) return existing;
+
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            row = rowCount++;
+            if (row == noticeTick.length) {
+                int rowsCapacity = noticeTick.length * 2;
+                tokens = Arrays.copyOf(tokens, rowsCapacity * ACTIONS);
+                refilledTick = Arrays.copyOf(refilledTick, rowsCapacity * ACTIONS);
+                noticeTick = Arrays.copyOf(noticeTick, rowsCapacity);
+            }
+        }
+
+        // New rows start with full buckets
+        for (int a = 0; a < ACTIONS; a++) {
+            tokens[row * ACTIONS + a] = capacity[a];
+            refilledTick[row * ACTIONS + a] = tick;
+        }
+        noticeTick[row] = tick - noticeCooldownTicks;
+        rows.put(key, row);
+        return row;
+    }
+
+    private void release(int row) {
+        if (freeCount == freeRows.length) freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        freeRows[freeCount++] = row;
+    }
+}
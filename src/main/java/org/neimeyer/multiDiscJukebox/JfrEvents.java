@@ -0,0 +1,156 @@
+package org.neimeyer.multiDiscJukebox;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.inventory.InventoryEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+
+/**
+ * Java Flight Recorder events for MultiBox work, so recordings attribute time to
+ * individual boxes instead of anonymous scheduler lambdas.
+ * <p>
+ * Every event is disabled by default. Turn them on in a .jfc settings file or with
+ * {@code jcmd <pid> JFR.start settings=<file>} by enabling {@code org.neimeyer.multibox.*}.
+ * While disabled, creating and committing an event is a no-op the JIT removes; fields
+ * are only filled in after {@link Event#shouldCommit()} says the event will be kept.
+ */
+final class JfrEvents {
+    private JfrEvents() {
+    }
+
+    @Enabled(false)
+    @StackTrace(false)
+    @Category({"MultiBox"})
+    abstract static class PositionedEvent extends Event {
+        @Label("World")
+        String world;
+
+        @Label("X")
+        int x;
+
+        @Label("Y")
+        int y;
+
+        @Label("Z")
+        int z;
+
+        void at(Location loc) {
+            if (loc == null || loc.getWorld() == null) return;
+            world = loc.getWorld().getName();
+            x = loc.getBlockX();
+            y = loc.getBlockY();
+            z = loc.getBlockZ();
+        }
+    }
+
+    @Name("org.neimeyer.multibox.TrackStart")
+    @Label("Track Start")
+    @Description("A MultiBox started a disc, timed over sending the sound")
+    static final class TrackStart extends PositionedEvent {
+        @Label("Disc")
+        String disc;
+
+        @Label("Audience")
+        @Description("Players the sound was sent to")
+        int audience;
+
+        @Label("Track Length")
+        @Description("Length of the disc in ticks")
+        int lengthTicks;
+    }
+
+    @Name("org.neimeyer.multibox.TrackStop")
+    @Label("Track Stop")
+    @Description("A MultiBox player was stopped")
+    static final class TrackStop extends PositionedEvent {
+        @Label("Disc")
+        String disc;
+
+        @Label("Remaining")
+        @Description("Ticks that were left on the disc")
+        int remainingTicks;
+    }
+
+    @Name("org.neimeyer.multibox.StopSound")
+    @Label("Stop Sound Dispatch")
+    @Description("Stop-sound packets sent for a MultiBox")
+    static final class StopSound extends PositionedEvent {
+        @Label("Audience")
+        int audience;
+
+        @Label("Packets")
+        int packets;
+
+        @Label("Full Sweep")
+        @Description("True if every disc sound was stopped rather than just the current one")
+        boolean fullSweep;
+    }
+
+    @Name("org.neimeyer.multibox.DiscsUpdated")
+    @Label("Discs Updated")
+    @Description("A MultiBox player was handed new contents")
+    static final class DiscsUpdated extends PositionedEvent {
+        @Label("Slots")
+        int slots;
+
+        @Label("Discs")
+        int discs;
+    }
+
+    @Name("org.neimeyer.multibox.ListenerCall")
+    @Label("Listener Call")
+    @Description("A JukeboxListener handler ran")
+    static final class ListenerCall extends PositionedEvent {
+        @Label("Handler")
+        String handler;
+
+        @Label("Event")
+        String eventType;
+
+        void end(String handlerName, org.bukkit.event.Event event) {
+            if (!shouldCommit()) return;
+            handler = handlerName;
+            eventType = event.getEventName();
+            at(positionOf(event));
+            commit();
+        }
+    }
+
+    @Enabled(false)
+    @StackTrace(false)
+    @Category({"MultiBox"})
+    @Name("org.neimeyer.multibox.Storage")
+    @Label("Storage Operation")
+    @Description("MultiBoxes were loaded from or written to storage")
+    static final class StorageOperation extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("World")
+        String world;
+
+        @Label("MultiBoxes")
+        int boxes;
+    }
+
+    private static Location positionOf(org.bukkit.event.Event event) {
+        Block block = null;
+        if (event instanceof BlockEvent blockEvent) {
+            block = blockEvent.getBlock();
+        } else if (event instanceof PlayerInteractEvent interact) {
+            block = interact.getClickedBlock();
+        } else if (event instanceof InventoryEvent inventoryEvent
+                && inventoryEvent.getInventory().getHolder(false) instanceof JukeboxHolder holder) {
+            return holder.getLocation();
+        }
+        return block == null ? null : block.getLocation();
+    }
+}
@@ -2,22 +2,55 @@ package org.neimeyer.multiDiscJukebox;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The MultiBox GUI.
+ * <p>
+ * Capacities up to a double chest are shown on a single page. Larger ones are split
+ * into pages of {@value #PAGE_SLOTS} discs with a navigation row, and only the page
+ * being looked at is materialized and sent to the client.
+ * <p>
+ * The page is remembered as it was shown, and only the slots the viewer changed are
+ * written back, so a GUI left open doesn't undo what others did to the same contents
+ * meanwhile, such as another box linked to the same library playlist.
+ */
 public class JukeboxHolder implements InventoryHolder {
+    static final int PAGE_SLOTS = 45;
+    static final int PREVIOUS_SLOT = 45;
+    static final int INFO_SLOT = 49;
+    static final int NEXT_SLOT = 53;
+
     private final Location loc;
     private final Inventory inventory;
+    private final int capacity;
+    private final int discSlots;
+    private final boolean paged;
+    private int page = 0;
+    // The disc slots of the page as last rendered
+    private ItemStack[] shown = new ItemStack[0];
 
-    public JukeboxHolder(Location loc) {
+    public JukeboxHolder(Location loc, int capacity) {
         this.loc = loc;
-        // Updated to use Component for inventory title
+        this.capacity = capacity;
+        this.paged = capacity > 54;
+        this.discSlots = paged ? PAGE_SLOTS : capacity;
+
+        int rows = paged ? 6 : (capacity + 8) / 9;
         this.inventory = Bukkit.createInventory(
                 this,
-                27,
+                rows * 9,
                 Component.text("MultiBox")
         );
     }
@@ -32,8 +65,110 @@ public class JukeboxHolder implements InventoryHolder {
         return inventory;
     }
 
-    // Optional: Method to set initial contents of the inventory
-    public void setContents(ItemStack[] contents) {
-        inventory.setContents(contents);
+    /**
+     * @return True if the GUI has a navigation row
+     */
+    public boolean isPaged() {
+        return paged;
+    }
+
+    /**
+     * @return The number of pages
+     */
+    public int getPageCount() {
+        return paged ? (capacity + PAGE_SLOTS - 1) / PAGE_SLOTS : 1;
+    }
+
+    /**
+     * @param rawSlot A slot of the top inventory
+     * @return True if the slot is part of the navigation row or past the capacity
+     */
+    public boolean isControlSlot(int rawSlot) {
+        if (rawSlot < 0 || rawSlot >= inventory.getSize()) return false;
+        return rawSlot >= discSlots || page * discSlots + rawSlot >= capacity;
+    }
+
+    /**
+     * Shows a page of the given contents
+     *
+     * @param contents The MultiBox contents, or null if it has none yet
+     * @param newPage  The page to show; clamped to the valid range
+     */
+    public void render(DiscList contents, int newPage) {
+        page = Math.max(0, Math.min(newPage, getPageCount() - 1));
+        int from = page * discSlots;
+
+        ItemStack[] view = new ItemStack[inventory.getSize()];
+        if (contents != null) {
+            ItemStack[] discs = contents.toItemStacks(from, from + discSlots);
+            System.arraycopy(discs, 0, view, 0, discSlots);
+        }
+
+        ItemStack blocked = button(Material.GRAY_STAINED_GLASS_PANE, Component.text(" "));
+        for (int i = 0; i < view.length; i++) {
+            if (isControlSlot(i)) view[i] = blocked;
+        }
+        if (paged) {
+            if (page > 0) {
+                view[PREVIOUS_SLOT] = button(Material.ARROW, Component.text("Previous page").color(NamedTextColor.GOLD));
+            }
+            if (page < getPageCount() - 1) {
+                view[NEXT_SLOT] = button(Material.ARROW, Component.text("Next page").color(NamedTextColor.GOLD));
+            }
+            view[INFO_SLOT] = button(Material.JUKEBOX, Component.text("Page " + (page + 1) + " of " + getPageCount()).color(NamedTextColor.YELLOW));
+        }
+
+        // The inventory keeps its own copies, so these stay as shown
+        shown = Arrays.copyOf(view, discSlots);
+        inventory.setContents(view);
+    }
+
+    /**
+     * Writes the slots the viewer changed back into a copy of the contents. A slot
+     * that was also changed by someone else since the page was shown keeps their
+     * change; an item the viewer put there goes to a free slot instead.
+     *
+     * @param current   The MultiBox contents, or null if it has none yet
+     * @param displaced Receives items the viewer put in that found no free slot
+     * @return The new contents, or {@code current} itself if the viewer changed nothing
+     */
+    public DiscList commit(DiscList current, List<ItemStack> displaced) {
+        DiscList contents = null;
+        int from = page * discSlots;
+        for (int i = 0; i < discSlots && from + i < capacity; i++) {
+            ItemStack now = inventory.getItem(i);
+            if (Objects.equals(now, shown[i])) continue;
+
+            if (contents == null) contents = current == null ? new DiscList(capacity) : current.copy();
+            int slot = from + i;
+            if (slot >= contents.size()) continue;
+
+            if (Objects.equals(contents.get(slot), shown[i])) {
+                contents.set(slot, now);
+            } else if (now != null) {
+                int free = contents.firstEmpty(0);
+                if (free >= 0) {
+                    contents.set(free, now);
+                } else {
+                    displaced.add(now);
+                }
+            }
+        }
+        return contents == null ? current : contents;
+    }
+
+    /**
+     * @return The page being shown
+     */
+    public int getPage() {
+        return page;
+    }
+
+    private static ItemStack button(Material material, Component name) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        meta.displayName(name);
+        item.setItemMeta(meta);
+        return item;
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.block.Skull;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -13,9 +14,14 @@ import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.BlockRedstoneEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
@@ -30,6 +36,9 @@ public class JukeboxListener implements Listener {
     // Key is player UUID + block position hash, value is timestamp
     private final Map<String, Long> handledEvents = new HashMap<>();
 
+    // Number of open GUIs per MultiBox location
+    private final Map<Location, Integer> openEditors = new HashMap<>();
+
     public JukeboxListener(MultiDiscJukebox plugin) {
         this.plugin = plugin;
         this.cyclerKey = plugin.getCyclerKey();
@@ -45,6 +54,23 @@ public class JukeboxListener implements Listener {
         }
     }
 
+    /**
+     * Drops the discs and the MultiBox item for every removed MultiBox in one pass
+     *
+     * @param plugin  The plugin instance
+     * @param removed The removed contents keyed by location
+     */
+    public static void dropRemoved(MultiDiscJukebox plugin, Map<Location, DiscList> removed) {
+        for (var entry : removed.entrySet()) {
+            Location loc = entry.getKey();
+            if (!loc.isWorldLoaded()) continue;
+
+            DiscList discs = entry.getValue();
+            dropDiscItems(loc, discs == null ? null : discs.toItemStacks(), loc.getWorld());
+            loc.getWorld().dropItemNaturally(loc, plugin.getMultiBoxItem());
+        }
+    }
+
     public static boolean isCyclerJukebox(Skull skull, NamespacedKey cyclerKey) {
         return skull != null && skull.getPersistentDataContainer().has(cyclerKey, PersistentDataType.BYTE);
     }
@@ -53,8 +79,8 @@ public class JukeboxListener implements Listener {
         return loc.getWorld().getName() + "," + loc.getBlockX() + "," + loc.getBlockY() + "," + loc.getBlockZ();
     }
 
-    private boolean isMusicDisc(Material material) {
-        return material != null && material.name().contains("MUSIC_DISC");
+    private boolean isMusicDisc(ItemStack item) {
+        return plugin.getDiscResolver().isPlayable(item);
     }
 
     // Generate a unique key for tracking an interaction event
@@ -84,69 +110,197 @@ public class JukeboxListener implements Listener {
         }
     }
 
+    /**
+     * Takes a rate limit token for a player action on a known MultiBox, before any tile
+     * state is read. Over budget, the click is cancelled and the player is told to slow
+     * down, at most once per cooldown.
+     */
+    private boolean isThrottled(PlayerInteractEvent event, Location loc, InteractionLimiter.Action action) {
+        if (!plugin.isMultiBox(loc)) return false;
+
+        Player player = event.getPlayer();
+        InteractionLimiter limiter = plugin.getInteractionLimiter();
+        int tick = Bukkit.getCurrentTick();
+        if (limiter.tryAcquire(player.getUniqueId(), action, tick)) return false;
+
+        event.setCancelled(true);
+        if (limiter.shouldNotify(player.getUniqueId(), tick)) {
+            player.sendMessage(Component.text("Slow down, you're using MultiBoxes too quickly.").color(NamedTextColor.RED));
+        }
+        plugin.logDebug("block_events", "Throttled " + action.getConfigKey() + " by " + player.getName() + " at " + locationToString(loc));
+        return true;
+    }
+
     @EventHandler(priority = EventPriority.NORMAL)
     public void onInteract(PlayerInteractEvent event) {
-        // Check if this event has already been handled
-        if (wasEventHandled(event)) {
-            event.setCancelled(true);  // Make sure it stays canceled
-            return;
-        }
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            // Check if this event has already been handled
+            if (wasEventHandled(event)) {
+                event.setCancelled(true);  // Make sure it stays canceled
+                return;
+            }
 
-        // only care about right‐clicks on blocks
-        if (event.getAction() != org.bukkit.event.block.Action.RIGHT_CLICK_BLOCK) {
-            return;
-        }
+            // only care about right‐clicks on blocks
+            if (event.getAction() != org.bukkit.event.block.Action.RIGHT_CLICK_BLOCK) {
+                return;
+            }
 
-        Block clicked = event.getClickedBlock();
-        if (!isPlayerHead(clicked)) {
-            return;
-        }
+            Block clicked = event.getClickedBlock();
+            if (!isPlayerHead(clicked)) {
+                return;
+            }
+
+            // If holding a music disc, let onInteractWithDisc handle it
+            ItemStack inHand = event.getItem();
+            if (inHand != null && isMusicDisc(inHand)) {
+                // We'll let the HIGH priority handler deal with this
+                return;
+            }
+
+            Location loc = clicked.getLocation();
+            if (isThrottled(event, loc, InteractionLimiter.Action.GUI_OPEN)) {
+                return;
+            }
 
-        Skull skull = (Skull) clicked.getState();
-        if (!isCyclerJukebox(skull, cyclerKey)) {
-            return;
+            Skull skull = (Skull) clicked.getState();
+            if (!isCyclerJukebox(skull, cyclerKey)) {
+                return;
+            }
+
+            // Discs taken out here would come back with the leader's next publish
+            if (plugin.isSyncedFromLeader(loc)) {
+                event.setCancelled(true);
+                sendSyncedNotice(event.getPlayer());
+                return;
+            }
+
+            // Open inventory GUI only if not holding a music disc
+            DiscList previous = plugin.getInventory(loc);
+            int capacity = previous == null ? plugin.getCapacity() : Math.max(plugin.getCapacity(), previous.size());
+            JukeboxHolder holder = new JukeboxHolder(loc, capacity);
+            // Only the visible page is materialized while the GUI is open
+            holder.render(previous, 0);
+
+            if (event.getPlayer().openInventory(holder.getInventory()) != null) {
+                openEditors.merge(loc, 1, Integer::sum);
+            }
+
+            // now it's safe to cancel – right‐click won't break the block
+            event.setCancelled(true);
+        } finally {
+            jfr.end("onInteract", event);
         }
+    }
+
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            // only care about our custom MultiBox UI
+            if (!(event.getInventory().getHolder() instanceof JukeboxHolder holder)) {
+                return;
+            }
 
-        // If holding a music disc, let onInteractWithDisc handle it
-        ItemStack inHand = event.getItem();
-        if (inHand != null && isMusicDisc(inHand.getType())) {
-            // We'll let the HIGH priority handler deal with this
-            return;
+            Location loc = holder.getLocation();
+            openEditors.computeIfPresent(loc, (k, count) -> count > 1 ? count - 1 : null);
+            commitPage(holder, event.getPlayer());
+        } finally {
+            jfr.end("onInventoryClose", event);
         }
+    }
 
-        // Open inventory GUI only if not holding a music disc
-        Location loc = skull.getLocation();
-        JukeboxHolder holder = new JukeboxHolder(loc);
-        ItemStack[] previous = plugin.getInventories().get(loc);
-        if (previous != null) holder.setContents(previous);
+    @EventHandler
+    public void onInventoryClick(InventoryClickEvent event) {
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            if (!(event.getInventory().getHolder() instanceof JukeboxHolder holder)) {
+                return;
+            }
 
-        event.getPlayer().openInventory(holder.getInventory());
+            // Opened before sync made the box read-only
+            if (plugin.isSyncedFromLeader(holder.getLocation())) {
+                event.setCancelled(true);
+                return;
+            }
 
-        // now it's safe to cancel – right‐click won't break the block
-        event.setCancelled(true);
+            // Control slots are always filled, so shift-clicks never land in them
+            if (!holder.isControlSlot(event.getRawSlot())) {
+                return;
+            }
+
+            event.setCancelled(true);
+            if (!holder.isPaged()) return;
+
+            int target = holder.getPage();
+            if (event.getRawSlot() == JukeboxHolder.PREVIOUS_SLOT) target--;
+            else if (event.getRawSlot() == JukeboxHolder.NEXT_SLOT) target++;
+            if (target == holder.getPage() || target < 0 || target >= holder.getPageCount()) return;
+
+            // Save the page being left, then show the next one from the stored contents
+            int page = target;
+            HumanEntity viewer = event.getWhoClicked();
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                commitPage(holder, viewer);
+                holder.render(plugin.getInventory(holder.getLocation()), page);
+            });
+        } finally {
+            jfr.end("onInventoryClick", event);
+        }
     }
 
     @EventHandler
-    public void onInventoryClose(InventoryCloseEvent event) {
-        // only care about our custom MultiBox UI
-        if (!(event.getInventory().getHolder() instanceof JukeboxHolder holder)) {
-            return;
+    public void onInventoryDrag(InventoryDragEvent event) {
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            if (!(event.getInventory().getHolder() instanceof JukeboxHolder holder)) {
+                return;
+            }
+
+            for (int rawSlot : event.getRawSlots()) {
+                if (holder.isControlSlot(rawSlot) || plugin.isSyncedFromLeader(holder.getLocation())) {
+                    event.setCancelled(true);
+                    return;
+                }
+            }
+        } finally {
+            jfr.end("onInventoryDrag", event);
         }
+    }
 
+    /**
+     * Writes the changes made on the page shown in a GUI back to the MultiBox and
+     * updates its player
+     */
+    private void commitPage(JukeboxHolder holder, HumanEntity viewer) {
         Location loc = holder.getLocation();
-        ItemStack[] contents = event.getInventory().getContents();
+        DiscList current = plugin.getInventory(loc);
+        List<ItemStack> displaced = new ArrayList<>();
+        DiscList contents = holder.commit(current, displaced);
+
+        // Items that lost their slot to someone else's change and found no other go back
+        viewer.getInventory().addItem(displaced.toArray(new ItemStack[0])).values()
+                .forEach(stack -> viewer.getWorld().dropItemNaturally(viewer.getLocation(), stack));
+        if (contents == current && current != null) return;
 
         // Persist the new contents in your map
-        plugin.getInventories().put(loc, contents);
+        plugin.setInventory(loc, contents);
+        plugin.persistInventory(loc);
+        // A linked box and its player were already updated with the playlist
+        boolean linked = plugin.getDiscLibrary().getLink(loc) != null;
 
         // Create or update the DiscPlayer so playback actually happens
-        DiscPlayer dp = plugin.getDiscPlayers().get(loc);
+        DiscPlayer dp = plugin.getDiscPlayer(loc);
         if (dp == null) {
             // make and start it
             dp = new DiscPlayer(plugin, loc, contents);
-            plugin.getDiscPlayers().put(loc, dp);
+            plugin.setDiscPlayer(loc, dp);
             dp.start();
-        } else {
+        } else if (!linked) {
             // already playing: just tell it about the new set of discs
             dp.updateDiscs(contents);
         }
@@ -154,26 +308,36 @@ public class JukeboxListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onInteractWithDisc(PlayerInteractEvent event) {
-        // Only handle right-click with item on block
-        if (event.getAction() != Action.RIGHT_CLICK_BLOCK || event.getClickedBlock() == null) {
-            return;
-        }
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            // Only handle right-click with item on block
+            if (event.getAction() != Action.RIGHT_CLICK_BLOCK || event.getClickedBlock() == null) {
+                return;
+            }
 
-        Block clicked = event.getClickedBlock();
-        if (!isPlayerHead(clicked)) {
-            return;
-        }
+            Block clicked = event.getClickedBlock();
+            if (!isPlayerHead(clicked)) {
+                return;
+            }
 
-        Skull skull = (Skull) clicked.getState();
-        if (!isCyclerJukebox(skull, plugin.getCyclerKey())) {
-            return;
-        }
+            // Check if the player is holding a music disc
+            Player player = event.getPlayer();
+            ItemStack inHand = event.getItem();
+            if (inHand == null || !isMusicDisc(inHand)) {
+                return;
+            }
 
-        // Check if the player is holding a music disc
-        Player player = event.getPlayer();
-        ItemStack inHand = event.getItem();
+            if (isThrottled(event, clicked.getLocation(), InteractionLimiter.Action.DISC_INSERT)) {
+                markEventAsHandled(event);
+                return;
+            }
+
+            Skull skull = (Skull) clicked.getState();
+            if (!isCyclerJukebox(skull, plugin.getCyclerKey())) {
+                return;
+            }
 
-        if (inHand != null && isMusicDisc(inHand.getType())) {
             // Mark this event as handled to prevent the normal interaction handler from running
             markEventAsHandled(event);
 
@@ -184,29 +348,31 @@ public class JukeboxListener implements Listener {
             plugin.logInfo("block_events", "Processing disc interaction from player " + player.getName() + " with disc: " + inHand.getType());
 
             Location loc = clicked.getLocation();
-            ItemStack[] contents = plugin.getInventories().get(loc);
-
-            // If no inventory exists yet, create one
-            if (contents == null) {
-                contents = new ItemStack[27];
-                plugin.getInventories().put(loc, contents);
+            if (plugin.isSyncedFromLeader(loc)) {
+                sendSyncedNotice(player);
+                return;
             }
+            DiscList current = plugin.getInventory(loc);
+
+            // Work on a copy: the list may be a library playlist shared with other boxes
+            DiscList contents = current == null ? new DiscList(plugin.getCapacity()) : current.copy();
 
             // Try to find an empty slot for the disc
             boolean added = false;
-            for (int i = 0; i < contents.length; i++) {
-                if (contents[i] == null) {
-                    // Add a copy of the disc (with amount 1)
-                    ItemStack disc = inHand.clone();
-                    disc.setAmount(1);
-                    contents[i] = disc;
-                    added = true;
-                    plugin.logInfo("block_events", "Added disc " + disc.getType() + " to slot " + i);
-                    break;
-                }
+            int slot = contents.firstEmpty(0);
+            if (slot >= 0) {
+                // Add a copy of the disc (with amount 1)
+                ItemStack disc = inHand.clone();
+                disc.setAmount(1);
+                contents.set(slot, disc);
+                added = true;
+                plugin.logInfo("block_events", "Added disc " + disc.getType() + " to slot " + slot);
             }
 
             if (added) {
+                plugin.setInventory(loc, contents);
+                plugin.persistInventory(loc);
+
                 // Decrement the disc in the player's hand
                 if (inHand.getAmount() > 1) {
                     inHand.setAmount(inHand.getAmount() - 1);
@@ -216,27 +382,24 @@ public class JukeboxListener implements Listener {
                 }
 
                 // Update the jukebox player
-                DiscPlayer dp = plugin.getDiscPlayers().get(loc);
+                DiscPlayer dp = plugin.getDiscPlayer(loc);
                 if (dp == null) {
                     // Create a new player if needed
                     plugin.logInfo("disc_player", "Creating new DiscPlayer for location: " + loc);
                     dp = new DiscPlayer(plugin, loc, contents);
-                    plugin.getDiscPlayers().put(loc, dp);
+                    plugin.setDiscPlayer(loc, dp);
                     dp.start();
-                } else {
-                    // Update discs in existing player
+                } else if (plugin.getDiscLibrary().getLink(loc) == null) {
+                    // Update discs in existing player; a linked one was updated with the playlist
                     plugin.logInfo("disc_player", "Updating existing DiscPlayer with new disc contents");
                     dp.updateDiscs(contents);
                 }
 
-                // Force play if not already playing
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    DiscPlayer checkPlayer = plugin.getDiscPlayers().get(loc);
-                    if (checkPlayer != null && !checkPlayer.isPlaying()) {
-                        plugin.logInfo("disc_player", "Force-starting playback after adding disc");
-                        checkPlayer.playNextDisc();
-                    }
-                }, 10L); // Short delay
+                // Start right away if it isn't playing; paused players stay paused
+                if (!dp.isPlaying()) {
+                    plugin.logInfo("disc_player", "Force-starting playback after adding disc");
+                    dp.playNextDisc();
+                }
 
                 // Provide feedback
                 player.sendMessage(Component.text("Added disc to MultiBox").color(NamedTextColor.GOLD));
@@ -247,9 +410,25 @@ public class JukeboxListener implements Listener {
             } else {
                 player.sendMessage(Component.text("MultiBox is full. Open it to manage discs.").color(NamedTextColor.RED));
             }
+        } finally {
+            jfr.end("onInteractWithDisc", event);
         }
     }
 
+    private void sendSyncedNotice(Player player) {
+        player.sendMessage(Component.text("This MultiBox plays a playlist synced from another server; change its discs there.").color(NamedTextColor.RED));
+    }
+
+    /**
+     * Checks whether a player currently has the GUI of a MultiBox open
+     *
+     * @param loc The MultiBox location
+     * @return True if the contents are being edited through the GUI
+     */
+    public boolean isBeingEdited(Location loc) {
+        return openEditors.containsKey(loc);
+    }
+
     // Clean up old handled events periodically to prevent memory leaks
     public void cleanupHandledEvents() {
         long now = System.currentTimeMillis();
@@ -258,74 +437,122 @@ public class JukeboxListener implements Listener {
 
     @EventHandler
     public void onRedstoneChange(BlockRedstoneEvent event) {
-        Block block = event.getBlock();
-        if (block.getType() != Material.PLAYER_HEAD) return;
-        Skull skull = (Skull) block.getState();
-        if (!isCyclerJukebox(skull, cyclerKey)) return;
-
-        DiscPlayer dp = plugin.getDiscPlayers().get(block.getLocation());
-        if (dp != null) {
-            dp.setPaused(event.getNewCurrent() > 0);
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            Block block = event.getBlock();
+            if (block.getType() != Material.PLAYER_HEAD) return;
+
+            // Only known MultiBoxes have a player, so no tile-state lookup is needed
+            Location loc = block.getLocation();
+            if (plugin.getDiscPlayer(loc) == null) return;
+
+            // Resolved once at end of tick so flicker never reaches the sound layer
+            plugin.getRedstoneCoalescer().submit(loc, event.getNewCurrent() > 0, Bukkit.getCurrentTick());
+        } finally {
+            jfr.end("onRedstoneChange", event);
         }
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onBlockBreak(BlockBreakEvent event) {
-        Block block = event.getBlock();
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            Block block = event.getBlock();
+
+            // Check if the block is a Multibox (i.e., a player head with the correct key)
+            if (!isPlayerHead(block)) return;
+            Skull skull = (Skull) block.getState();
+            if (!isCyclerJukebox(skull, cyclerKey)) return;
+
+            // Allow breaking and prevent drops
+            event.setCancelled(false);
+            event.setDropItems(false);
+
+            // Stop the player, forget the contents and drop everything
+            Map<Location, DiscList> removed = plugin.removeMultiBoxes(List.of(block.getLocation()));
+            dropRemoved(plugin, removed);
+        } finally {
+            jfr.end("onBlockBreak", event);
+        }
+    }
 
-        // Check if the block is a Multibox (i.e., a player head with the correct key)
-        if (!isPlayerHead(block)) return;
-        Skull skull = (Skull) block.getState();
-        if (!isCyclerJukebox(skull, cyclerKey)) return;
+    @EventHandler(ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent ev) {
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            // Check if it's our MultiBox
+            ItemStack inHand = ev.getItemInHand();
+            ItemMeta meta = inHand.getItemMeta();
+            if (meta == null || !meta.getPersistentDataContainer().has(cyclerKey, PersistentDataType.BYTE)) {
+                return;
+            }
 
-        // Allow breaking and prevent drops
-        event.setCancelled(false);
-        event.setDropItems(false);
+            // Check if it's being placed as a player head
+            Block placed = ev.getBlockPlaced();
+            if (placed.getType() != Material.PLAYER_HEAD && placed.getType() != Material.PLAYER_WALL_HEAD) {
+                return;
+            }
 
-        Location loc = block.getLocation();
+            // Store the cycler key in the skull's PersistentDataContainer
+            if (placed.getState() instanceof Skull skull) {
+                skull.getPersistentDataContainer().set(cyclerKey, PersistentDataType.BYTE, (byte) 1);
+                skull.update();
+            }
 
-        // Stop any active disc players
-        DiscPlayer dp = plugin.getDiscPlayers().remove(loc);
-        if (dp != null) {
-            dp.stop();
-            plugin.logInfo("disc_player", "Stopped DiscPlayer at " + JukeboxListener.locationToString(loc));
+            // Initialize the inventory for this location
+            plugin.setInventory(placed.getLocation(), new DiscList(plugin.getCapacity()));
+            plugin.persistInventory(placed.getLocation());
+        } finally {
+            jfr.end("onPlace", ev);
         }
-
-        // Drop associated inventory items
-        ItemStack[] discs = plugin.getInventories().remove(loc);
-        dropDiscItems(loc, discs, block.getWorld());
-
-        // Drop the Multibox item itself
-        block.getWorld().dropItemNaturally(loc, plugin.getMultiBoxItem());
     }
 
-    @EventHandler(ignoreCancelled = true)
-    public void onPlace(BlockPlaceEvent ev) {
-        // Check if it's our MultiBox
-        ItemStack inHand = ev.getItemInHand();
-        ItemMeta meta = inHand.getItemMeta();
-        if (meta == null || !meta.getPersistentDataContainer().has(cyclerKey, PersistentDataType.BYTE)) {
-            return;
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            // Only indexed storage backends load MultiBoxes per chunk
+            plugin.loadChunk(event.getChunk());
+        } finally {
+            jfr.end("onChunkLoad", event);
         }
+    }
 
-        // Check if it's being placed as a player head
-        Block placed = ev.getBlockPlaced();
-        if (placed.getType() != Material.PLAYER_HEAD && placed.getType() != Material.PLAYER_WALL_HEAD) {
-            return;
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            plugin.loadWorld(event.getWorld());
+        } finally {
+            jfr.end("onWorldLoad", event);
         }
+    }
 
-        // Store the cycler key in the skull's PersistentDataContainer
-        if (placed.getState() instanceof Skull skull) {
-            skull.getPersistentDataContainer().set(cyclerKey, PersistentDataType.BYTE, (byte) 1);
-            skull.update();
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            // Only release once nothing else has kept the world loaded
+            plugin.unloadWorld(event.getWorld());
+        } finally {
+            jfr.end("onWorldUnload", event);
         }
-
-        // Initialize the inventory for this location
-        plugin.getInventories().put(placed.getLocation(), new ItemStack[27]);
     }
 
     @EventHandler
     public void onJoin(PlayerJoinEvent ev) {
-        ev.getPlayer().discoverRecipe(plugin.getMultiboxKey());
+        JfrEvents.ListenerCall jfr = new JfrEvents.ListenerCall();
+        jfr.begin();
+        try {
+            ev.getPlayer().discoverRecipe(plugin.getMultiboxKey());
+        } finally {
+            jfr.end("onJoin", ev);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.UUID;
+
+/**
+ * Immutable state of one MultiBox at the time a snapshot was published
+ *
+ * @param worldId        The UID of the world the MultiBox is in
+ * @param worldName      The name of that world
+ * @param x              Block X coordinate
+ * @param y              Block Y coordinate
+ * @param z              Block Z coordinate
+ * @param currentDisc    Key of the track playing, or null if none is: the disc's material key,
+ *                       the jukebox song key of a datapack disc, or
+ *                       {@code <material key>#<custom model data>} for a custom model disc
+ * @param endTick        Server tick the current disc ends on, 0 if none is playing
+ * @param discCount      Number of playable discs held
+ * @param paused         True if playback is paused (by redstone or otherwise)
+ * @param totalPlays     Tracks started since the MultiBox was loaded
+ * @param lastAudience   Players the latest track was sent to
+ */
+public record JukeboxState(UUID worldId, String worldName, int x, int y, int z,
+                           String currentDisc, long endTick, int discCount, boolean paused,
+                           long totalPlays, int lastAudience) {
+
+    /**
+     * @return True if a disc is currently playing
+     */
+    public boolean isPlaying() {
+        return currentDisc != null && !paused;
+    }
+
+    /**
+     * Works out the ticks left on the current disc at a given server tick. Snapshots are
+     * only republished when something changes, so pass the current tick for a live
+     * countdown, or {@link MultiBoxSnapshot#getTick()} for the time the snapshot was taken.
+     *
+     * @param tick The server tick
+     * @return The remaining ticks, 0 if none is playing
+     */
+    public int remainingTicksAt(long tick) {
+        return endTick == 0 ? 0 : (int) Math.max(0, endTick - tick);
+    }
+}
@@ -0,0 +1,86 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persistence backend for MultiBox contents.
+ * <p>
+ * All methods are called from the main server thread. Implementations that do
+ * their I/O elsewhere are responsible for handing results back to the main thread.
+ */
+public interface JukeboxStorage {
+
+    /**
+     * Opens the backend (files, connections, worker threads)
+     *
+     * @throws IOException If the backend could not be opened
+     */
+    void open() throws IOException;
+
+    /**
+     * Whether this backend supports indexed per-chunk lookups. Backends that do
+     * are queried on demand as chunks load instead of being read in full at startup.
+     *
+     * @return True if {@link #loadChunk(World, int, int)} should be used
+     */
+    boolean isChunkIndexed();
+
+    /**
+     * Loads every stored MultiBox
+     *
+     * @return The stored contents keyed by block location
+     */
+    Map<Location, DiscList> loadAll();
+
+    /**
+     * Loads the MultiBoxes stored in a single chunk
+     *
+     * @param world  The world the chunk belongs to
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return A future completed on the main thread with the stored contents
+     */
+    CompletableFuture<Map<Location, DiscList>> loadChunk(World world, int chunkX, int chunkZ);
+
+    /**
+     * Records the current contents of one MultiBox
+     *
+     * @param loc      The MultiBox location
+     * @param contents The contents to store
+     */
+    void save(Location loc, DiscList contents);
+
+    /**
+     * Removes one MultiBox from storage
+     *
+     * @param loc The MultiBox location
+     */
+    void delete(Location loc);
+
+    /**
+     * Removes several MultiBoxes from storage as one batch
+     *
+     * @param locations The MultiBox locations
+     */
+    default void deleteAll(Collection<Location> locations) {
+        locations.forEach(this::delete);
+    }
+
+    /**
+     * Writes every MultiBox currently held in memory
+     *
+     * @param inventories The contents keyed by block location
+     */
+    void saveAll(Map<Location, DiscList> inventories);
+
+    /**
+     * Flushes anything pending and releases the backend
+     */
+    void close();
+}
@@ -0,0 +1,293 @@
+package org.neimeyer.multiDiscJukebox;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Synthetic load for /multibox bench: measures what MultiBoxes cost on the server
+ * it runs on.
+ * <p>
+ * A run first records tick times with nothing added, then creates the requested
+ * number of virtual MultiBoxes in a grid around a point. They have no blocks and
+ * are not saved or visible to the API, but are ordinary {@link DiscPlayer}s filled
+ * with random discs, so their scheduling and sounds reach the players nearby like
+ * real ones. Every box skips a track every {@value #SKIP_INTERVAL_TICKS} ticks,
+ * spread evenly over the interval, and the track it skips to is cut short so that it
+ * ends on its own half way to the next skip. At the end the players are stopped and a
+ * report of added tick time, call times, sound packets, heap growth and how promptly
+ * ended tracks were followed by the next one is sent.
+ */
+public class LoadBenchmark implements Listener {
+    static final int MAX_BOXES = 2000;
+    static final int MAX_SECONDS = 600;
+    private static final int BASELINE_TICKS = 100;
+    private static final int GRID_SPACING = 4;
+    private static final int SKIP_INTERVAL_TICKS = 200;
+    private static final int HEAP_SAMPLE_TICKS = 20;
+
+    private enum Phase { IDLE, BASELINE, RUNNING }
+
+    private final MultiDiscJukebox plugin;
+
+    private Phase phase = Phase.IDLE;
+    private CommandSender requester;
+    private Location center;
+    private int boxCount;
+    private int runTicks;
+
+    private final double[] baselineMspt = new double[BASELINE_TICKS];
+    private int baselineTicks;
+    private double[] runMspt = new double[0];
+    private int ticksRun;
+
+    private final List<DiscPlayer> players = new ArrayList<>();
+    private BukkitTask skipTask;
+    private int skipCursor;
+    private final Timings trackChanges = new Timings();
+    private final Timings stops = new Timings();
+    private long packetsBefore;
+    private long[] gapsBefore;
+    private long heapBefore;
+    private long heapPeak;
+
+    public LoadBenchmark(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts a run
+     *
+     * @param sender  Who gets the report
+     * @param center  The middle of the grid
+     * @param count   Number of virtual MultiBoxes
+     * @param seconds How long they play for
+     * @return False if a run is already in progress
+     */
+    public boolean start(CommandSender sender, Location center, int count, int seconds) {
+        if (phase != Phase.IDLE) return false;
+
+        this.requester = sender;
+        this.center = center.toBlockLocation();
+        this.boxCount = Math.max(1, Math.min(count, MAX_BOXES));
+        this.runTicks = Math.max(1, Math.min(seconds, MAX_SECONDS)) * 20;
+        this.runMspt = new double[runTicks];
+        this.baselineTicks = 0;
+        this.ticksRun = 0;
+        this.skipCursor = 0;
+        trackChanges.clear();
+        stops.clear();
+
+        phase = Phase.BASELINE;
+        plugin.logInfo("commands", "Benchmark of " + boxCount + " MultiBoxes requested by " + sender.getName());
+        return true;
+    }
+
+    /**
+     * @return True while a run is measuring or playing
+     */
+    public boolean isRunning() {
+        return phase != Phase.IDLE;
+    }
+
+    /**
+     * Ends the current run early, reporting what was measured so far
+     */
+    public void cancel() {
+        if (phase == Phase.RUNNING) {
+            finish();
+        } else if (phase == Phase.BASELINE) {
+            phase = Phase.IDLE;
+            send(List.of("§6Benchmark cancelled before it started"));
+        }
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (phase == Phase.BASELINE) {
+            baselineMspt[baselineTicks++] = event.getTickDuration();
+            if (baselineTicks == BASELINE_TICKS) spawn();
+        } else if (phase == Phase.RUNNING) {
+            runMspt[ticksRun++] = event.getTickDuration();
+            if (ticksRun % HEAP_SAMPLE_TICKS == 0) heapPeak = Math.max(heapPeak, usedHeap());
+            if (ticksRun == runTicks) finish();
+        }
+    }
+
+    private void spawn() {
+        List<String> names = plugin.getDiscRegistry().discNames();
+        Material[] discs = new Material[names.size()];
+        for (int i = 0; i < discs.length; i++) {
+            discs[i] = Material.valueOf(names.get(i));
+        }
+        if (discs.length == 0) {
+            phase = Phase.IDLE;
+            send(List.of("§cBenchmark cancelled: the server has no music discs"));
+            return;
+        }
+
+        heapBefore = usedHeap();
+        heapPeak = heapBefore;
+        packetsBefore = DiscPlayer.getSoundPacketsSent();
+        gapsBefore = DiscPlayer.getTransitionGaps();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int side = (int) Math.ceil(Math.sqrt(boxCount));
+        int capacity = plugin.getCapacity();
+        for (int i = 0; i < boxCount; i++) {
+            Location loc = center.clone().add((i % side - side / 2) * GRID_SPACING, 0, (i / side - side / 2) * GRID_SPACING);
+            DiscList contents = new DiscList(capacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                contents.set(slot, new ItemStack(discs[random.nextInt(discs.length)]));
+            }
+
+            DiscPlayer dp = new DiscPlayer(plugin, loc, contents);
+            dp.excludeFromStats();
+            long started = System.nanoTime();
+            dp.start();
+            trackChanges.add(System.nanoTime() - started);
+            players.add(dp);
+        }
+
+        // Each box skips once per interval, a few boxes per tick
+        int perTick = (boxCount + SKIP_INTERVAL_TICKS - 1) / SKIP_INTERVAL_TICKS;
+        skipTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            for (int i = 0; i < perTick; i++) {
+                DiscPlayer dp = players.get(skipCursor++ % players.size());
+                long started = System.nanoTime();
+                dp.playNextDisc();
+                trackChanges.add(System.nanoTime() - started);
+                // Also exercise a natural end before the next skip
+                dp.endDiscIn(SKIP_INTERVAL_TICKS / 2);
+            }
+        }, 1L, 1L);
+
+        phase = Phase.RUNNING;
+        send(List.of("§6Benchmark started: " + boxCount + " virtual MultiBoxes for " + (runTicks / 20) + " seconds"));
+    }
+
+    private void finish() {
+        if (skipTask != null) {
+            skipTask.cancel();
+            skipTask = null;
+        }
+        long heapRunning = usedHeap();
+        long packets = DiscPlayer.getSoundPacketsSent() - packetsBefore;
+        long[] gaps = DiscPlayer.getTransitionGaps();
+        for (int i = 0; i < gaps.length; i++) {
+            gaps[i] -= gapsBefore[i];
+        }
+
+        for (DiscPlayer dp : players) {
+            long started = System.nanoTime();
+            dp.stop();
+            stops.add(System.nanoTime() - started);
+        }
+        players.clear();
+        phase = Phase.IDLE;
+
+        send(getReport(heapRunning, packets, gaps));
+    }
+
+    private List<String> getReport(long heapRunning, long packets, long[] gaps) {
+        double baseline = mean(baselineMspt, baselineTicks);
+        double loaded = mean(runMspt, ticksRun);
+        double worst = 0;
+        for (int i = 0; i < ticksRun; i++) {
+            worst = Math.max(worst, runMspt[i]);
+        }
+        double seconds = Math.max(1, ticksRun) / 20.0;
+
+        List<String> lines = new ArrayList<>();
+        lines.add("§6Benchmark of " + boxCount + " virtual MultiBoxes over " + String.format(Locale.ROOT, "%.0f", seconds) + "s:");
+        lines.add(String.format(Locale.ROOT, "§fTick time: §e%.2f§f mspt baseline, §e%.2f§f with MultiBoxes (§e%+.2f§f), worst §e%.2f",
+                baseline, loaded, loaded - baseline, worst));
+        lines.add("§fTrack changes: " + trackChanges.describe());
+        lines.add("§fStops: " + stops.describe());
+        lines.add("§fTrack ends: " + describeGaps(gaps));
+        lines.add(String.format(Locale.ROOT, "§fSound packets: §e%d§f (%.1f/s)", packets, packets / seconds));
+        lines.add(String.format(Locale.ROOT, "§fHeap: §e%+.1f§f MB at the end, §e%+.1f§f MB peak (sampled every second)",
+                (heapRunning - heapBefore) / 1048576.0, (heapPeak - heapBefore) / 1048576.0));
+        return lines;
+    }
+
+    private void send(List<String> lines) {
+        // The requester may have logged out during a long run
+        CommandSender target = requester instanceof Player p && !p.isOnline() ? Bukkit.getConsoleSender() : requester;
+        for (String line : lines) {
+            target.sendMessage(line);
+        }
+    }
+
+    /**
+     * Passes if every track that ended was followed by the next within one tick
+     */
+    private static String describeGaps(long[] gaps) {
+        long ends = 0;
+        long late = 0;
+        int worst = 0;
+        for (int gap = 0; gap < gaps.length; gap++) {
+            ends += gaps[gap];
+            if (gaps[gap] > 0) worst = gap;
+            if (gap > 1) late += gaps[gap];
+        }
+        if (ends == 0) return "§7none";
+
+        String prefix = "§e" + ends + "§f, next track within one tick: ";
+        if (late == 0) return prefix + "§aPASS";
+        return prefix + "§cFAIL§f (§e" + late + "§f late, worst §e" + worst
+                + (worst == gaps.length - 1 ? "+" : "") + "§f ticks)";
+    }
+
+    private static double mean(double[] values, int count) {
+        if (count == 0) return 0;
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return sum / count;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Call durations in nanoseconds, kept raw for percentiles
+     */
+    private static final class Timings {
+        private long[] nanos = new long[256];
+        private int count;
+
+        void add(long duration) {
+            if (count == nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+            nanos[count++] = duration;
+        }
+
+        void clear() {
+            count = 0;
+        }
+
+        String describe() {
+            if (count == 0) return "none";
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return String.format(Locale.ROOT, "§e%d§f calls, p50 §e%.3f§f ms, p99 §e%.3f§f ms, max §e%.3f§f ms", count,
+                    sorted[(count - 1) / 2] / 1e6, sorted[(count - 1) * 99 / 100] / 1e6, sorted[count - 1] / 1e6);
+        }
+    }
+}
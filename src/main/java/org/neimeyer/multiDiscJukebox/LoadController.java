@@ -0,0 +1,226 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Samples the server's average tick time and steps MultiBox work down in tiers
+ * while the server is behind.
+ * <p>
+ * Tiers go up as soon as a threshold is crossed and only come back down one tier
+ * at a time, after tick time has stayed below the threshold by a margin for several
+ * samples in a row.
+ * <p>
+ * Track transitions themselves are never delayed, since listeners would hear the
+ * gap. What gets deferred instead is the work that produces the non-urgent ones:
+ * hopper feeding (disc changes) and orphan scans wait at {@link Tier#HIGH} and above.
+ */
+public class LoadController {
+
+    /**
+     * Degradation tiers, from no degradation to the most aggressive
+     */
+    public enum Tier {
+        /** Everything runs normally */
+        NORMAL,
+        /** Fewer particles, no stop sweeps for sounds that weren't recorded */
+        ELEVATED,
+        /** Even fewer particles, automation and orphan scans postponed */
+        HIGH,
+        /** No particles and database flushes postponed */
+        CRITICAL
+    }
+
+    private static final long SAMPLE_INTERVAL_TICKS = 20L;
+
+    private final MultiDiscJukebox plugin;
+
+    private BukkitTask sampleTask;
+    private boolean enabled;
+    private final double[] thresholds = new double[Tier.values().length];
+    private double recoverMargin;
+    private int recoverSamples;
+
+    // Read by the storage thread and API callers
+    private volatile Tier tier = Tier.NORMAL;
+    private volatile double lastMspt = 0;
+    private int samplesBelow = 0;
+
+    // Counters for /multibox load
+    private long samples = 0;
+    private long tierChanges = 0;
+    private long tierSinceMillis = System.currentTimeMillis();
+    private final AtomicLongArray samplesPerTier = new AtomicLongArray(Tier.values().length);
+
+    public LoadController(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * (Re)reads the thresholds from config and starts sampling
+     */
+    public void start() {
+        stop();
+
+        this.enabled = plugin.getConfig().getBoolean("load.enabled", true);
+        thresholds[Tier.NORMAL.ordinal()] = 0;
+        thresholds[Tier.ELEVATED.ordinal()] = plugin.getConfig().getDouble("load.elevated-mspt", 40.0);
+        thresholds[Tier.HIGH.ordinal()] = plugin.getConfig().getDouble("load.high-mspt", 47.0);
+        thresholds[Tier.CRITICAL.ordinal()] = plugin.getConfig().getDouble("load.critical-mspt", 55.0);
+        this.recoverMargin = Math.max(0.0, plugin.getConfig().getDouble("load.recover-margin-mspt", 5.0));
+        this.recoverSamples = Math.max(1, plugin.getConfig().getInt("load.recover-samples", 5));
+
+        if (!enabled) {
+            setTier(Tier.NORMAL);
+            return;
+        }
+
+        this.sampleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sample, SAMPLE_INTERVAL_TICKS, SAMPLE_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stops sampling; the current tier is kept until the next start
+     */
+    public void stop() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+    }
+
+    private void sample() {
+        lastMspt = Bukkit.getAverageTickTime();
+        samples++;
+        samplesPerTier.incrementAndGet(tier.ordinal());
+
+        // Step up straight to the highest tier whose threshold is exceeded
+        Tier target = Tier.NORMAL;
+        for (Tier candidate : Tier.values()) {
+            if (candidate != Tier.NORMAL && lastMspt >= thresholds[candidate.ordinal()]) {
+                target = candidate;
+            }
+        }
+
+        if (target.ordinal() > tier.ordinal()) {
+            samplesBelow = 0;
+            setTier(target);
+            return;
+        }
+
+        // Step down one tier at a time once load has stayed clearly below the current threshold
+        if (tier != Tier.NORMAL && lastMspt < thresholds[tier.ordinal()] - recoverMargin) {
+            if (++samplesBelow >= recoverSamples) {
+                samplesBelow = 0;
+                setTier(Tier.values()[tier.ordinal() - 1]);
+            }
+        } else {
+            samplesBelow = 0;
+        }
+    }
+
+    private void setTier(Tier newTier) {
+        if (newTier == tier) return;
+
+        plugin.logInfo("load", "Load tier " + tier + " -> " + newTier + String.format(Locale.ROOT, " (%.1f mspt)", lastMspt));
+        tier = newTier;
+        tierChanges++;
+        tierSinceMillis = System.currentTimeMillis();
+    }
+
+    public Tier getTier() {
+        return tier;
+    }
+
+    /**
+     * Gets the average tick time seen by the last sample. Safe to call from any thread.
+     *
+     * @return The tick time in milliseconds, or 0 before the first sample
+     */
+    public double getLastMspt() {
+        return lastMspt;
+    }
+
+    /**
+     * Gets how many samples were taken in each tier. Safe to call from any thread.
+     *
+     * @return Counts keyed by lower case tier name
+     */
+    public Map<String, Long> getSamplesPerTier() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Tier t : Tier.values()) {
+            counts.put(t.name().toLowerCase(Locale.ROOT), samplesPerTier.get(t.ordinal()));
+        }
+        return counts;
+    }
+
+    /**
+     * How often a playing MultiBox shows its note particle
+     *
+     * @return The interval in seconds, or 0 for no particles
+     */
+    public int getParticleIntervalSeconds() {
+        return switch (tier) {
+            case NORMAL -> 1;
+            case ELEVATED -> 2;
+            case HIGH -> 4;
+            case CRITICAL -> 0;
+        };
+    }
+
+    /**
+     * Whether stopping a record that no track start was recorded for should sweep
+     * every disc sound for the players in range
+     *
+     * @return True if full stop sweeps are allowed
+     */
+    public boolean allowsFullStopSweep() {
+        return tier == Tier.NORMAL;
+    }
+
+    /**
+     * Whether work that can wait (automation, orphan scans)
+     * should run now
+     *
+     * @return True if non-urgent work may run
+     */
+    public boolean allowsNonUrgentWork() {
+        return tier.ordinal() < Tier.HIGH.ordinal();
+    }
+
+    /**
+     * Whether queued storage writes should be flushed now. Safe to call from any thread.
+     *
+     * @return True if flushes may run
+     */
+    public boolean allowsFlush() {
+        return tier != Tier.CRITICAL;
+    }
+
+    /**
+     * Describes the controller state for /multibox load
+     *
+     * @return Report lines
+     */
+    public List<String> getReport() {
+        List<String> lines = new ArrayList<>();
+        long seconds = (System.currentTimeMillis() - tierSinceMillis) / 1000;
+        lines.add("Load tier: " + tier + " for " + seconds + "s" + (enabled ? "" : " (controller disabled)"));
+        lines.add(String.format(Locale.ROOT, "Average tick time: %.1f mspt (elevated %.1f, high %.1f, critical %.1f)",
+                enabled ? lastMspt : Bukkit.getAverageTickTime(),
+                thresholds[Tier.ELEVATED.ordinal()], thresholds[Tier.HIGH.ordinal()], thresholds[Tier.CRITICAL.ordinal()]));
+
+        StringBuilder perTier = new StringBuilder("Samples: " + samples + ", tier changes: " + tierChanges);
+        for (Tier t : Tier.values()) {
+            perTier.append(", ").append(t.name().toLowerCase(Locale.ROOT)).append(' ').append(samplesPerTier.get(t.ordinal()));
+        }
+        lines.add(perTier.toString());
+        return lines;
+    }
+}
@@ -0,0 +1,43 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * In-memory stand-in for a network transport: every instance on the same channel
+ * within this JVM receives what the others publish. Useful for trying sync on a single
+ * test server or wiring up several nodes in one process.
+ */
+public class LocalSyncTransport implements SyncTransport {
+    private static final Map<String, Set<LocalSyncTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final String channel;
+    private volatile Consumer<byte[]> receiver = message -> {
+    };
+
+    public LocalSyncTransport(String channel) {
+        this.channel = channel;
+        CHANNELS.computeIfAbsent(channel, k -> new CopyOnWriteArraySet<>()).add(this);
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        for (LocalSyncTransport other : CHANNELS.getOrDefault(channel, Set.of())) {
+            if (other != this) other.receiver.accept(message.clone());
+        }
+    }
+
+    @Override
+    public void setReceiver(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void close() {
+        Set<LocalSyncTransport> members = CHANNELS.get(channel);
+        if (members != null) members.remove(this);
+    }
+}
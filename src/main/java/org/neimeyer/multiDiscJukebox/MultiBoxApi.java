@@ -0,0 +1,90 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Read-only view of MultiBox state for other plugins and dashboards.
+ * <p>
+ * Obtain it from Bukkit's services manager:
+ * <pre>{@code
+ * MultiBoxApi api = Bukkit.getServicesManager().load(MultiBoxApi.class);
+ * MultiBoxSnapshot snapshot = api.getSnapshot();
+ * }</pre>
+ * Snapshots are immutable and hold no Bukkit objects, so they may be read from any
+ * thread without locking.
+ */
+public interface MultiBoxApi {
+
+    /**
+     * Gets the most recently published snapshot. A new snapshot is published at the end
+     * of any tick in which a MultiBox changed; otherwise the same instance is returned.
+     *
+     * @return The latest snapshot, never null
+     */
+    MultiBoxSnapshot getSnapshot();
+
+    /**
+     * Gets how many player and redstone actions rate limiting has held back since the
+     * plugin was enabled. Safe to call from any thread.
+     *
+     * @return Counts keyed by action: {@code gui-open}, {@code disc-insert} and {@code redstone}
+     */
+    Map<String, Long> getThrottleCounts();
+
+    /**
+     * Gets the tier MultiBox currently degrades its work to because of server load.
+     * Safe to call from any thread.
+     *
+     * @return The current tier, {@link LoadController.Tier#NORMAL} when the server keeps up
+     */
+    LoadController.Tier getLoadTier();
+
+    /**
+     * Gets the average tick time the load tier was last decided on. Safe to call from
+     * any thread.
+     *
+     * @return The tick time in milliseconds, or 0 before the first sample
+     */
+    double getLoadMspt();
+
+    /**
+     * Gets how many load samples (one per second) fell into each tier since the plugin
+     * was enabled. Safe to call from any thread.
+     *
+     * @return Counts keyed by tier: {@code normal}, {@code elevated}, {@code high} and {@code critical}
+     */
+    Map<String, Long> getLoadTierSamples();
+
+    /**
+     * What a transition subscriber's buffer does when the subscriber falls behind
+     */
+    enum Overflow {
+        /** Drop the oldest buffered transition to make room */
+        DROP_OLDEST,
+        /** Keep only the newest undelivered transition; the buffer size is ignored */
+        LATEST_ONLY
+    }
+
+    /**
+     * Gets the stream of playback transitions: tracks starting and ending, pauses,
+     * resumes and disc changes. Subscribers are called on the common pool with a
+     * buffer of {@link Flow#defaultBufferSize()}, dropping the oldest transitions when
+     * they fall behind. The same transitions are also called as
+     * {@link PlaybackTransitionEvent}s on the main thread.
+     *
+     * @return The publisher
+     */
+    Flow.Publisher<PlaybackTransition> getTransitions();
+
+    /**
+     * Gets the stream of playback transitions with a chosen executor and buffer
+     *
+     * @param executor   Runs the subscriber's callbacks
+     * @param bufferSize Transitions held for the subscriber before overflow
+     * @param overflow   What to do when the buffer is full
+     * @return The publisher
+     */
+    Flow.Publisher<PlaybackTransition> getTransitions(Executor executor, int bufferSize, Overflow overflow);
+}
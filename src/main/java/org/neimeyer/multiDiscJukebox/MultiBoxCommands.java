@@ -0,0 +1,651 @@
+package org.neimeyer.multiDiscJukebox;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.StringReader;
+import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.mojang.brigadier.tree.ArgumentCommandNode;
+import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
+import io.papermc.paper.command.brigadier.argument.ArgumentTypes;
+import io.papermc.paper.command.brigadier.argument.resolvers.selector.PlayerSelectorArgumentResolver;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The /multibox command tree, registered through Paper's Brigadier API.
+ * <p>
+ * Commands execute on the main thread, but read-only work (reading disc_durations.yml,
+ * finding the nearest MultiBox) runs on an async thread against immutable data and
+ * only the final message hops back. Tab completion is answered off the main thread in
+ * {@link AsyncTabCompleteEvent} by walking the same tree, whose suggestions come from
+ * precomputed lists.
+ */
+public class MultiBoxCommands implements Listener {
+    private static final List<String> AMOUNTS = List.of("1", "16", "32", "64");
+    private static final List<String> DURATIONS = List.of("120", "180", "240", "300");
+    private static final List<String> BENCH_COUNTS = List.of("50", "200", "1000");
+    private static final List<String> BENCH_SECONDS = List.of("30", "60", "120");
+    private static final List<String> CUSTOM_NAMES = List.of("CUSTOM", "MOD", "MODDED");
+    private static final double STATUS_RANGE = 10.0;
+    private static final int TARGET_RANGE = 5;
+
+    private final MultiDiscJukebox plugin;
+    private final Executor asyncExecutor;
+    private final Executor mainExecutor;
+
+    // Immutable lists swapped on change, read from async completion threads
+    private volatile List<String> discNames = List.of();
+    private volatile List<String> playerNames = List.of();
+    private volatile List<String> playlistIds = List.of();
+
+    // The registered tree, walked by async tab completion
+    private volatile LiteralCommandNode<CommandSourceStack> root;
+
+    public MultiBoxCommands(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        this.asyncExecutor = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        this.mainExecutor = Bukkit.getScheduler().getMainThreadExecutor(plugin);
+        refreshSuggestions();
+    }
+
+    /**
+     * Rebuilds the precomputed completion lists, e.g. after the disc registry was rebuilt
+     */
+    public void refreshSuggestions() {
+        this.discNames = plugin.getDiscRegistry().discNames();
+        List<String> names = new ArrayList<>();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            names.add(p.getName());
+        }
+        this.playerNames = List.copyOf(names);
+        this.playlistIds = plugin.getDiscLibrary() == null ? List.of() : plugin.getDiscLibrary().getIds();
+    }
+
+    /**
+     * Builds the command tree
+     *
+     * @return The root node to register
+     */
+    public LiteralCommandNode<CommandSourceStack> build() {
+        this.root = Commands.literal("multibox")
+                .then(Commands.literal("give")
+                        .requires(new Permission("multibox.admin"))
+                        .executes(ctx -> give(ctx, null, 1))
+                        // A bare number is an amount for the sender, so it goes before the player
+                        .then(Commands.argument("amount", IntegerArgumentType.integer())
+                                .suggests(suggest(() -> AMOUNTS))
+                                .executes(ctx -> give(ctx, null, IntegerArgumentType.getInteger(ctx, "amount"))))
+                        .then(Commands.argument("player", ArgumentTypes.player())
+                                .suggests(suggest(() -> playerNames))
+                                .executes(ctx -> give(ctx, resolvePlayer(ctx), 1))
+                                .then(Commands.argument("amount", IntegerArgumentType.integer())
+                                        .suggests(suggest(() -> AMOUNTS))
+                                        .executes(ctx -> give(ctx, resolvePlayer(ctx), IntegerArgumentType.getInteger(ctx, "amount"))))))
+                .then(Commands.literal("status")
+                        .executes(this::status))
+                .then(Commands.literal("reload")
+                        .requires(new Permission("multibox.dj"))
+                        .executes(this::reload))
+                .then(Commands.literal("discs")
+                        .requires(new Permission("multibox.dj"))
+                        .executes(this::discs))
+                .then(Commands.literal("disc")
+                        .requires(new Permission("multibox.dj"))
+                        .then(Commands.literal("add")
+                                .then(Commands.argument("name", StringArgumentType.word())
+                                        .suggests(suggest(() -> CUSTOM_NAMES))
+                                        .then(Commands.argument("seconds", DoubleArgumentType.doubleArg(0.05))
+                                                .suggests(suggest(() -> DURATIONS))
+                                                .executes(ctx -> setDuration(ctx, "add")))))
+                        .then(Commands.literal("set")
+                                .then(Commands.argument("name", StringArgumentType.word())
+                                        .suggests(suggest(() -> discNames))
+                                        .then(Commands.argument("seconds", DoubleArgumentType.doubleArg(0.05))
+                                                .suggests(suggest(() -> DURATIONS))
+                                                .executes(ctx -> setDuration(ctx, "set"))))))
+                .then(Commands.literal("orphans")
+                        .requires(new Permission("multibox.admin"))
+                        .executes(this::orphanReport)
+                        .then(Commands.literal("scan")
+                                .executes(this::orphanScan))
+                        .then(Commands.literal("claim")
+                                .then(Commands.argument("entry", IntegerArgumentType.integer(1))
+                                        .executes(this::orphanClaim))))
+                .then(Commands.literal("load")
+                        .requires(new Permission("multibox.admin"))
+                        .executes(this::load))
+                .then(Commands.literal("bench")
+                        .requires(new Permission("multibox.admin"))
+                        .then(Commands.literal("stop")
+                                .executes(this::benchStop))
+                        .then(Commands.argument("count", IntegerArgumentType.integer(1, LoadBenchmark.MAX_BOXES))
+                                .suggests(suggest(() -> BENCH_COUNTS))
+                                .then(Commands.argument("seconds", IntegerArgumentType.integer(1, LoadBenchmark.MAX_SECONDS))
+                                        .suggests(suggest(() -> BENCH_SECONDS))
+                                        .executes(this::bench))))
+                .then(Commands.literal("history")
+                        .executes(this::history))
+                .then(Commands.literal("stats")
+                        .requires(new Permission("multibox.dj"))
+                        .executes(this::stats))
+                .then(Commands.literal("library")
+                        .requires(new Permission("multibox.dj"))
+                        .executes(this::libraryList)
+                        .then(Commands.literal("list")
+                                .executes(this::libraryList))
+                        .then(Commands.literal("create")
+                                .then(Commands.argument("id", StringArgumentType.word())
+                                        .executes(this::libraryCreate)))
+                        .then(Commands.literal("link")
+                                .then(Commands.argument("id", StringArgumentType.word())
+                                        .suggests(suggest(() -> playlistIds))
+                                        .executes(this::libraryLink)))
+                        .then(Commands.literal("unlink")
+                                .executes(this::libraryUnlink))
+                        .then(Commands.literal("delete")
+                                .then(Commands.argument("id", StringArgumentType.word())
+                                        .suggests(suggest(() -> playlistIds))
+                                        .executes(this::libraryDelete))))
+                .build();
+        return root;
+    }
+
+    /* ----- Execution ----- */
+
+    private int give(CommandContext<CommandSourceStack> ctx, Player target, int amount) {
+        CommandSender sender = ctx.getSource().getSender();
+        if (target == null) {
+            if (!(sender instanceof Player self)) {
+                sender.sendMessage(Component.text("Please specify a player name when using this command from console").color(NamedTextColor.RED));
+                return Command.SINGLE_SUCCESS;
+            }
+            target = self;
+        }
+
+        // Out of range amounts are clamped, not rejected
+        plugin.giveMultiBox(target, Math.max(1, Math.min(64, amount)), sender);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private Player resolvePlayer(CommandContext<CommandSourceStack> ctx) throws CommandSyntaxException {
+        return ctx.getArgument("player", PlayerSelectorArgumentResolver.class).resolve(ctx.getSource()).getFirst();
+    }
+
+    private int status(CommandContext<CommandSourceStack> ctx) {
+        if (!(ctx.getSource().getSender() instanceof Player p)) {
+            ctx.getSource().getSender().sendMessage("This command can only be used by a player");
+            return Command.SINGLE_SUCCESS;
+        }
+
+        // Capture what the async search needs while still on the main thread
+        Location playerLoc = p.getLocation();
+        UUID worldId = playerLoc.getWorld().getUID();
+        double x = playerLoc.getX();
+        double y = playerLoc.getY();
+        double z = playerLoc.getZ();
+        MultiBoxSnapshot snapshot = plugin.getApi().getSnapshot();
+
+        CompletableFuture.supplyAsync(() -> findNearest(snapshot, worldId, x, y, z), asyncExecutor)
+                .thenAcceptAsync(closest -> {
+                    if (!p.isOnline()) return;
+
+                    if (closest == null) {
+                        p.sendMessage(Component.text("No MultiBox found within 10 blocks.").color(NamedTextColor.RED));
+                        return;
+                    }
+
+                    String info = describe(closest, Bukkit.getCurrentTick());
+                    p.sendMessage(Component.text("MultiBox at " + closest.x() + "," + closest.y() + "," + closest.z() + ": " + info).color(NamedTextColor.GREEN));
+
+                    // Also log to console
+                    plugin.getLogger().info("MultiBox status: " + info);
+                }, mainExecutor);
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static JukeboxState findNearest(MultiBoxSnapshot snapshot, UUID worldId, double x, double y, double z) {
+        JukeboxState closest = null;
+        double minDistSq = STATUS_RANGE * STATUS_RANGE;
+        for (JukeboxState state : snapshot.getJukeboxes()) {
+            if (!state.worldId().equals(worldId)) continue;
+
+            double dx = state.x() - x;
+            double dy = state.y() - y;
+            double dz = state.z() - z;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            if (distSq <= minDistSq) {
+                minDistSq = distSq;
+                closest = state;
+            }
+        }
+        return closest;
+    }
+
+    private static String describe(JukeboxState state, int tick) {
+        if (!state.isPlaying()) {
+            return "Not playing";
+        }
+        return "Playing " + state.currentDisc() + ", " + (state.remainingTicksAt(tick) / 20) + " seconds remaining";
+    }
+
+    private int reload(CommandContext<CommandSourceStack> ctx) {
+        plugin.reloadAll();
+        refreshSuggestions();
+        ctx.getSource().getSender().sendMessage(Component.text("MultiBox disc durations reloaded").color(NamedTextColor.GREEN));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int discs(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+
+        // Reading disc_durations.yml is the slow part; only the messages need the main thread
+        CompletableFuture.supplyAsync(() -> DiscPlayer.getDiscDurationsList(plugin), asyncExecutor)
+                .thenAcceptAsync(lines -> lines.forEach(line -> sender.sendMessage(Component.text(line))), mainExecutor)
+                .exceptionally(e -> {
+                    plugin.logError("commands", "Failed to read disc durations", e);
+                    return null;
+                });
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int setDuration(CommandContext<CommandSourceStack> ctx, String operation) {
+        CommandSender sender = ctx.getSource().getSender();
+        String discName = StringArgumentType.getString(ctx, "name").toUpperCase(Locale.ROOT);
+        double seconds = DoubleArgumentType.getDouble(ctx, "seconds");
+
+        // Add prefix if needed
+        if (!discName.startsWith("MUSIC_DISC_") && operation.equals("add")) {
+            discName = "MUSIC_DISC_" + discName;
+        }
+
+        // Verify if it's a valid material for "set" operation
+        if (operation.equals("set") && Material.getMaterial(discName) == null) {
+            sender.sendMessage(Component.text("Unknown disc material: " + discName).color(NamedTextColor.RED));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        // Update the duration
+        boolean success = DiscPlayer.updateDiscDuration(plugin, discName, seconds);
+
+        if (success) {
+            // Auto reload durations
+            DiscPlayer.loadDiscDurations(plugin);
+            plugin.rebuildDiscResolver();
+
+            String formattedTime = DiscPlayer.formatTicks(DiscPlayer.secondsToTicks(seconds));
+
+            sender.sendMessage(Component.text("Updated " + discName + " duration to " + formattedTime).color(NamedTextColor.GREEN));
+        } else {
+            sender.sendMessage(Component.text("Failed to update disc duration").color(NamedTextColor.RED));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int orphanReport(CommandContext<CommandSourceStack> ctx) {
+        for (String line : plugin.getOrphanReconciler().getReport()) {
+            ctx.getSource().getSender().sendMessage(Component.text(line));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int orphanScan(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+        if (plugin.getOrphanReconciler().beginScan()) {
+            sender.sendMessage(Component.text("Orphan scan started").color(NamedTextColor.GREEN));
+        } else {
+            sender.sendMessage(Component.text("An orphan scan is already running").color(NamedTextColor.GOLD));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int orphanClaim(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+        if (!(sender instanceof Player p)) {
+            sender.sendMessage("This command can only be used by a player");
+            return Command.SINGLE_SUCCESS;
+        }
+
+        int index = IntegerArgumentType.getInteger(ctx, "entry");
+        List<ItemStack> discs = plugin.getOrphanReconciler().claim(index);
+        if (discs == null) {
+            sender.sendMessage(Component.text("No quarantined entry " + index).color(NamedTextColor.RED));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        // Anything that doesn't fit is dropped at the player's feet
+        p.getInventory().addItem(discs.toArray(new ItemStack[0])).values()
+                .forEach(stack -> p.getWorld().dropItemNaturally(p.getLocation(), stack));
+        sender.sendMessage(Component.text("Claimed " + discs.size() + " quarantined discs").color(NamedTextColor.GREEN));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int load(CommandContext<CommandSourceStack> ctx) {
+        List<String> lines = new ArrayList<>(plugin.getLoadController().getReport());
+        lines.addAll(plugin.getInteractionLimiter().getReport());
+        lines.addAll(plugin.getAudibilityBudget().getReport());
+        lines.addAll(plugin.getTransitionPublisher().getReport());
+        for (String line : lines) {
+            ctx.getSource().getSender().sendMessage(Component.text(line).color(NamedTextColor.GOLD));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int bench(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+        Location center = sender instanceof Player p ? p.getLocation() : Bukkit.getWorlds().getFirst().getSpawnLocation();
+        int count = IntegerArgumentType.getInteger(ctx, "count");
+        int seconds = IntegerArgumentType.getInteger(ctx, "seconds");
+
+        if (plugin.getLoadBenchmark().start(sender, center, count, seconds)) {
+            sender.sendMessage(Component.text("Measuring baseline tick time before adding " + count + " virtual MultiBoxes...").color(NamedTextColor.GREEN));
+        } else {
+            sender.sendMessage(Component.text("A benchmark is already running").color(NamedTextColor.GOLD));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int benchStop(CommandContext<CommandSourceStack> ctx) {
+        if (!plugin.getLoadBenchmark().isRunning()) {
+            ctx.getSource().getSender().sendMessage(Component.text("No benchmark is running").color(NamedTextColor.GOLD));
+            return Command.SINGLE_SUCCESS;
+        }
+        plugin.getLoadBenchmark().cancel();
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int history(CommandContext<CommandSourceStack> ctx) {
+        Location box = targetMultiBox(ctx);
+        if (box == null) return Command.SINGLE_SUCCESS;
+
+        CommandSender sender = ctx.getSource().getSender();
+        DiscPlayer dp = plugin.getDiscPlayer(box);
+        if (dp == null || dp.getHistory().size() == 0) {
+            sender.sendMessage(Component.text("This MultiBox hasn't played anything yet").color(NamedTextColor.GOLD));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        PlaybackHistory history = dp.getHistory();
+        long now = Bukkit.getCurrentTick();
+        sender.sendMessage(Component.text("Last " + history.size() + " of " + history.getTotalPlays() + " tracks:").color(NamedTextColor.GOLD));
+        for (int age = 0; age < history.size(); age++) {
+            long secondsAgo = (now - history.getStartTick(age)) / 20;
+            sender.sendMessage(Component.text(history.getDisc(age).displayName() + ", " + secondsAgo + "s ago, "
+                    + history.getAudience(age) + " listeners"));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int stats(CommandContext<CommandSourceStack> ctx) {
+        for (String line : plugin.getPlaybackStats().getReport(10)) {
+            ctx.getSource().getSender().sendMessage(Component.text(line));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int libraryList(CommandContext<CommandSourceStack> ctx) {
+        for (String line : plugin.getDiscLibrary().getReport()) {
+            ctx.getSource().getSender().sendMessage(Component.text(line));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int libraryCreate(CommandContext<CommandSourceStack> ctx) {
+        Location box = targetMultiBox(ctx);
+        if (box == null) return Command.SINGLE_SUCCESS;
+
+        CommandSender sender = ctx.getSource().getSender();
+        String id = StringArgumentType.getString(ctx, "id").toLowerCase(Locale.ROOT);
+        DiscLibrary library = plugin.getDiscLibrary();
+        if (!DiscLibrary.isValidId(id)) {
+            sender.sendMessage(Component.text("Playlist ids are 1 to 32 letters, digits, - or _").color(NamedTextColor.RED));
+        } else if (library.getPlaylist(id) != null) {
+            sender.sendMessage(Component.text("Playlist " + id + " already exists").color(NamedTextColor.RED));
+        } else if (library.getLink(box) != null) {
+            sender.sendMessage(Component.text("This MultiBox is already linked to " + library.getLink(box)).color(NamedTextColor.RED));
+        } else {
+            library.create(id, box);
+            refreshSuggestions();
+            sender.sendMessage(Component.text("Moved this MultiBox's discs into playlist " + id).color(NamedTextColor.GREEN));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int libraryLink(CommandContext<CommandSourceStack> ctx) {
+        Location box = targetMultiBox(ctx);
+        if (box == null) return Command.SINGLE_SUCCESS;
+
+        CommandSender sender = ctx.getSource().getSender();
+        String id = StringArgumentType.getString(ctx, "id").toLowerCase(Locale.ROOT);
+        DiscLibrary library = plugin.getDiscLibrary();
+        DiscList contents = plugin.getInventory(box);
+        if (library.getPlaylist(id) == null) {
+            sender.sendMessage(Component.text("Unknown playlist: " + id).color(NamedTextColor.RED));
+        } else if (library.getLink(box) != null) {
+            sender.sendMessage(Component.text("This MultiBox is already linked to " + library.getLink(box)).color(NamedTextColor.RED));
+        } else if (contents != null && contents.occupiedCount() > 0) {
+            // Linking replaces the box's contents, so it must not hold anything
+            sender.sendMessage(Component.text("Empty this MultiBox before linking it").color(NamedTextColor.RED));
+        } else {
+            library.link(box, id);
+            sender.sendMessage(Component.text("Linked this MultiBox to playlist " + id).color(NamedTextColor.GREEN));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int libraryUnlink(CommandContext<CommandSourceStack> ctx) {
+        Location box = targetMultiBox(ctx);
+        if (box == null) return Command.SINGLE_SUCCESS;
+
+        String id = plugin.getDiscLibrary().unlink(box);
+        if (id == null) {
+            ctx.getSource().getSender().sendMessage(Component.text("This MultiBox isn't linked to a playlist").color(NamedTextColor.RED));
+        } else {
+            ctx.getSource().getSender().sendMessage(Component.text("Unlinked this MultiBox from playlist " + id).color(NamedTextColor.GREEN));
+        }
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private int libraryDelete(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+        if (!(sender instanceof Player p)) {
+            sender.sendMessage("This command can only be used by a player");
+            return Command.SINGLE_SUCCESS;
+        }
+
+        String id = StringArgumentType.getString(ctx, "id").toLowerCase(Locale.ROOT);
+        DiscLibrary library = plugin.getDiscLibrary();
+        if (library.getPlaylist(id) == null) {
+            sender.sendMessage(Component.text("Unknown playlist: " + id).color(NamedTextColor.RED));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        DiscList discs = library.delete(id);
+        if (discs == null) {
+            sender.sendMessage(Component.text("Unlink the " + library.getSubscriberCount(id) + " MultiBoxes using " + id + " first").color(NamedTextColor.RED));
+            return Command.SINGLE_SUCCESS;
+        }
+
+        // The playlist's discs go to whoever deleted it
+        ItemStack[] items = Arrays.stream(discs.toItemStacks()).filter(Objects::nonNull).toArray(ItemStack[]::new);
+        p.getInventory().addItem(items).values()
+                .forEach(stack -> p.getWorld().dropItemNaturally(p.getLocation(), stack));
+        refreshSuggestions();
+        sender.sendMessage(Component.text("Deleted playlist " + id + " and returned " + items.length + " discs").color(NamedTextColor.GREEN));
+        return Command.SINGLE_SUCCESS;
+    }
+
+    /**
+     * Finds the MultiBox the sending player is looking at, telling them if there is none
+     */
+    private Location targetMultiBox(CommandContext<CommandSourceStack> ctx) {
+        CommandSender sender = ctx.getSource().getSender();
+        if (!(sender instanceof Player p)) {
+            sender.sendMessage("This command can only be used by a player");
+            return null;
+        }
+
+        Block target = p.getTargetBlockExact(TARGET_RANGE);
+        if (target == null || !plugin.isMultiBox(target.getLocation())) {
+            sender.sendMessage(Component.text("Look at a MultiBox to use this command").color(NamedTextColor.RED));
+            return null;
+        }
+        return target.getLocation();
+    }
+
+    /* ----- Completion ----- */
+
+    private static SuggestionProvider<CommandSourceStack> suggest(Supplier<List<String>> options) {
+        return new Options(options);
+    }
+
+    /**
+     * Node requirement that can also be checked against a bare sender during async completion
+     */
+    private record Permission(String node) implements Predicate<CommandSourceStack> {
+        @Override
+        public boolean test(CommandSourceStack source) {
+            return source.getSender().hasPermission(node);
+        }
+    }
+
+    /**
+     * Suggestions from a precomputed list, readable without a command context
+     */
+    private record Options(Supplier<List<String>> options) implements SuggestionProvider<CommandSourceStack> {
+        @Override
+        public CompletableFuture<Suggestions> getSuggestions(CommandContext<CommandSourceStack> ctx, SuggestionsBuilder builder) {
+            String prefix = builder.getRemainingLowerCase();
+            for (String option : options.get()) {
+                if (option.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                    builder.suggest(option);
+                }
+            }
+            return builder.buildFuture();
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand() || root == null) return;
+
+        String buffer = event.getBuffer();
+        if (buffer.startsWith("/")) buffer = buffer.substring(1);
+        if (!buffer.regionMatches(true, 0, "multibox ", 0, 9)) return;
+
+        // Split keeping a trailing empty token for the argument being typed
+        String[] args = buffer.substring(9).split(" ", -1);
+        List<String> options = completionsFor(event.getSender(), args);
+        if (options.isEmpty()) return; // Leave it to Brigadier
+
+        String prefix = args[args.length - 1].toLowerCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>();
+        for (String option : options) {
+            if (option.toLowerCase(Locale.ROOT).startsWith(prefix)) matches.add(option);
+        }
+        event.setCompletions(matches);
+        event.setHandled(true);
+    }
+
+    /**
+     * Walks the command tree along the typed arguments and collects the options for the
+     * last one. Only reads precomputed lists, so it's safe off the main thread.
+     */
+    private List<String> completionsFor(CommandSender sender, String[] args) {
+        CommandNode<CommandSourceStack> node = root;
+        for (int i = 0; i < args.length - 1; i++) {
+            node = childFor(node, sender, args[i]);
+            if (node == null) return List.of();
+        }
+
+        List<String> options = new ArrayList<>();
+        for (CommandNode<CommandSourceStack> child : node.getChildren()) {
+            if (!allows(child, sender)) continue;
+
+            if (child instanceof LiteralCommandNode<CommandSourceStack> literal) {
+                options.add(literal.getLiteral());
+            } else if (child instanceof ArgumentCommandNode<CommandSourceStack, ?> argument
+                    && argument.getCustomSuggestions() instanceof Options list) {
+                options.addAll(list.options().get());
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Finds the child a complete argument leads to. Children are tried in tree order, so
+     * a number after give is an amount before it is a player, as when executing.
+     */
+    private static CommandNode<CommandSourceStack> childFor(CommandNode<CommandSourceStack> node, CommandSender sender, String arg) {
+        for (CommandNode<CommandSourceStack> child : node.getChildren()) {
+            if (!allows(child, sender)) continue;
+
+            if (child instanceof LiteralCommandNode<CommandSourceStack> literal) {
+                if (literal.getLiteral().equalsIgnoreCase(arg)) return child;
+            } else if (child instanceof ArgumentCommandNode<CommandSourceStack, ?> argument && parses(argument, arg)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private static boolean parses(ArgumentCommandNode<CommandSourceStack, ?> argument, String arg) {
+        try {
+            StringReader reader = new StringReader(arg);
+            argument.getType().parse(reader);
+            return !reader.canRead();
+        } catch (CommandSyntaxException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static boolean allows(CommandNode<CommandSourceStack> node, CommandSender sender) {
+        return !(node.getRequirement() instanceof Permission permission) || sender.hasPermission(permission.node());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        List<String> names = new ArrayList<>(playerNames);
+        names.add(event.getPlayer().getName());
+        this.playerNames = List.copyOf(names);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        List<String> names = new ArrayList<>(playerNames);
+        names.remove(event.getPlayer().getName());
+        this.playerNames = List.copyOf(names);
+    }
+}
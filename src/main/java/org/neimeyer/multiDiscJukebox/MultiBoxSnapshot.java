@@ -0,0 +1,86 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable, versioned snapshot of every loaded MultiBox.
+ * <p>
+ * Versions increase by one with every published snapshot, so consumers can tell
+ * whether anything changed by comparing versions, and diff two snapshots by
+ * comparing their {@link JukeboxState}s.
+ */
+public final class MultiBoxSnapshot {
+    static final MultiBoxSnapshot EMPTY = new MultiBoxSnapshot(0L, 0L, Map.of());
+
+    private final long version;
+    private final long tick;
+    private final Map<Key, JukeboxState> jukeboxes;
+
+    /**
+     * Identifies a MultiBox by world and block position
+     *
+     * @param worldId The world UID
+     * @param x       Block X coordinate
+     * @param y       Block Y coordinate
+     * @param z       Block Z coordinate
+     */
+    public record Key(UUID worldId, int x, int y, int z) {
+    }
+
+    MultiBoxSnapshot(long version, long tick, Map<Key, JukeboxState> jukeboxes) {
+        this.version = version;
+        this.tick = tick;
+        this.jukeboxes = Collections.unmodifiableMap(jukeboxes);
+    }
+
+    /**
+     * @return The snapshot version, increasing with every publish
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The server tick at the end of which this snapshot was taken
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return Every MultiBox in the snapshot
+     */
+    public Collection<JukeboxState> getJukeboxes() {
+        return jukeboxes.values();
+    }
+
+    /**
+     * @return Every MultiBox in the snapshot keyed by position
+     */
+    public Map<Key, JukeboxState> asMap() {
+        return jukeboxes;
+    }
+
+    /**
+     * Looks up a single MultiBox
+     *
+     * @param worldId The world UID
+     * @param x       Block X coordinate
+     * @param y       Block Y coordinate
+     * @param z       Block Z coordinate
+     * @return The state, or null if there is no MultiBox there
+     */
+    public JukeboxState get(UUID worldId, int x, int y, int z) {
+        return jukeboxes.get(new Key(worldId, x, y, z));
+    }
+
+    /**
+     * @return The number of MultiBoxes in the snapshot
+     */
+    public int size() {
+        return jukeboxes.size();
+    }
+}
@@ -1,20 +1,20 @@
 package org.neimeyer.multiDiscJukebox;
 
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
-import org.bukkit.command.Command;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ShapedRecipe;
-import org.bukkit.inventory.meta.SkullMeta;
-import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
@@ -23,13 +23,31 @@ import java.util.*;
 import java.util.logging.Level;
 
 public final class MultiDiscJukebox extends JavaPlugin {
-    private final Map<Location, ItemStack[]> inventories = new HashMap<>();
-    private final Map<Location, DiscPlayer> discPlayers = new HashMap<>();
+    // One manager per loaded world, created and released with the world
+    private final Map<UUID, WorldJukeboxManager> worldManagers = new HashMap<>();
 
     private NamespacedKey cyclerKey;
     private NamespacedKey multiboxKey;
 
     private JukeboxListener jukeboxListener;
+    // Set when every world shares one backend (SQLite); YAML storage is per world
+    private JukeboxStorage sharedStorage;
+    private DiscRegistry discRegistry;
+    private DiscResolver discResolver;
+    private RedstoneCoalescer redstoneCoalescer;
+    private InteractionLimiter interactionLimiter;
+    private AudibilityBudget audibilityBudget;
+    private TransitionPublisher transitionPublisher;
+    private DiscFeeder discFeeder;
+    private OrphanReconciler orphanReconciler;
+    private LoadController loadController;
+    private WarmRestart warmRestart;
+    private DiscLibrary discLibrary;
+    private PlaybackSync playbackSync;
+    private final PlaybackStats playbackStats = new PlaybackStats();
+    private SnapshotPublisher snapshotPublisher;
+    private LoadBenchmark loadBenchmark;
+    private MultiBoxCommands commands;
 
     private boolean debugEnabled = false;
     private Map<String, Boolean> logLevels = new HashMap<>();
@@ -43,92 +61,172 @@ public final class MultiDiscJukebox extends JavaPlugin {
         this.cyclerKey = new NamespacedKey(this, "multibox");
         this.multiboxKey = new NamespacedKey(this, "multibox_craft");
 
-        // Load disc durations from config
+        // Load disc durations from config and resolve constant disc data
         DiscPlayer.loadDiscDurations(this);
+        this.discRegistry = DiscRegistry.build(this);
+        this.discResolver = new DiscResolver(this);
+
+        // Sample tick time before anything starts playing
+        this.loadController = new LoadController(this);
+        loadController.start();
 
         // Register recipes, commands and listeners
         registerRecipes();
         registerCommands();
 
+        // Flood protection, consulted before listeners touch any block state
+        this.interactionLimiter = new InteractionLimiter(this);
+        getServer().getPluginManager().registerEvents(interactionLimiter, this);
+
+        // Limits how many MultiBoxes each player hears; every DiscPlayer sends through it
+        this.audibilityBudget = new AudibilityBudget(this);
+        getServer().getPluginManager().registerEvents(audibilityBudget, this);
+
+        // Playback transitions for API subscribers and event listeners
+        this.transitionPublisher = new TransitionPublisher(this);
+
         // Store the listener instance
         this.jukeboxListener = new JukeboxListener(this);
         getServer().getPluginManager().registerEvents(jukeboxListener, this);
 
+        this.redstoneCoalescer = new RedstoneCoalescer(this);
+        getServer().getPluginManager().registerEvents(redstoneCoalescer, this);
+
+        getServer().getPluginManager().registerEvents(new BlockRemovalListener(this), this);
+
+        this.discFeeder = new DiscFeeder(this);
+        getServer().getPluginManager().registerEvents(discFeeder, this);
+
+        // Read-only snapshots for other plugins, published at the end of each tick
+        this.snapshotPublisher = new SnapshotPublisher(this);
+        getServer().getPluginManager().registerEvents(snapshotPublisher, this);
+        getServer().getServicesManager().register(MultiBoxApi.class, snapshotPublisher, this, ServicePriority.Normal);
+
+        // Virtual MultiBoxes for /multibox bench; idle until a run starts
+        this.loadBenchmark = new LoadBenchmark(this);
+        getServer().getPluginManager().registerEvents(loadBenchmark, this);
+
         // Schedule the cleanup task to run every minute
-        getServer().getScheduler().runTaskTimer(this, () -> jukeboxListener.cleanupHandledEvents(), 20 * 60, 20 * 60);
+        getServer().getScheduler().runTaskTimer(this, () -> {
+            jukeboxListener.cleanupHandledEvents();
+            interactionLimiter.cleanup();
+            DiscList.sweep();
+        }, 20 * 60, 20 * 60);
+
+        // Playback state from the last shutdown; players resume from it as they load
+        this.warmRestart = new WarmRestart(this);
+        warmRestart.start();
+
+        // Shared playlists must be known before linked MultiBoxes load
+        this.discLibrary = new DiscLibrary(this);
+        discLibrary.load();
+        commands.refreshSuggestions();
+
+        // Load saved inventories for the worlds that are already loaded; the rest
+        // follow as their worlds load
+        this.sharedStorage = openSharedStorage();
+        if (sharedStorage == null) {
+            YamlJukeboxStorage.migrateLegacyData(this, new File(getDataFolder(), "data.yml"), getWorldDataFolder());
+        }
+        for (World world : getServer().getWorlds()) {
+            loadWorld(world);
+        }
+
+        // Periodically look for MultiBoxes whose skull disappeared without a break event
+        this.orphanReconciler = new OrphanReconciler(this);
+        orphanReconciler.start();
 
-        // Load saved inventories from data.yml
-        loadData();
+        // Optional cross-server sync of library playlists
+        this.playbackSync = new PlaybackSync(this);
+        playbackSync.start();
 
         getLogger().info("MultiBox enabled! Use /multibox give");
     }
 
-    private void loadData() {
-        File dataFile = new File(getDataFolder(), "data.yml");
-        if (!dataFile.exists()) {
-            getLogger().info("No data.yml found, no MultiBoxes to load");
-            return;
+    private JukeboxStorage openSharedStorage() {
+        String type = getConfig().getString("storage.type", "yaml").toLowerCase(Locale.ROOT);
+        if (type.equals("sqlite")) {
+            File databaseFile = new File(getDataFolder(), getConfig().getString("storage.sqlite.file", "jukeboxes.db"));
+            SqliteJukeboxStorage sqlite = new SqliteJukeboxStorage(this, databaseFile, getConfig().getLong("storage.sqlite.flush-interval-ms", 2000L));
+            try {
+                sqlite.open();
+                return sqlite;
+            } catch (IOException e) {
+                logError("storage", "Could not open SQLite storage, falling back to per-world YAML files", e);
+            }
+        } else if (!type.equals("yaml")) {
+            logWarning("storage", "Unknown storage type '" + type + "', using yaml");
         }
+        return null;
+    }
+
+    private File getWorldDataFolder() {
+        return new File(getDataFolder(), "worlds");
+    }
+
+    /**
+     * Gets the manager of a world, creating it and loading its stored MultiBoxes
+     * if the world hasn't been seen yet
+     *
+     * @param world A loaded world
+     * @return The world's manager
+     */
+    public WorldJukeboxManager loadWorld(World world) {
+        WorldJukeboxManager manager = worldManagers.get(world.getUID());
+        if (manager != null) return manager;
 
-        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(dataFile);
-        int validEntries = 0;
-        int invalidEntries = 0;
+        if (sharedStorage != null) {
+            manager = new WorldJukeboxManager(this, world, sharedStorage, false);
+        } else {
+            File dataFile = new File(getWorldDataFolder(), world.getName() + ".yml");
+            manager = new WorldJukeboxManager(this, world, new YamlJukeboxStorage(this, world, dataFile), true);
+        }
 
-        getLogger().info("Loading MultiBox data from data.yml...");
+        worldManagers.put(world.getUID(), manager);
+        manager.load();
+        return manager;
+    }
 
-        for (String key : cfg.getKeys(false)) {
-            try {
-                Location loc = locationFromString(key);
-
-                // Skip if the world doesn't exist
-                if (loc.getWorld() == null) {
-                    getLogger().warning("Skipping MultiBox at " + key + ": World doesn't exist");
-                    invalidEntries++;
-                    continue;
-                }
-
-                // Check if the block at this location is a player head without loading chunks
-                // We'll only verify if the chunk is generated
-                if (!loc.getWorld().isChunkGenerated(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) {
-                    getLogger().warning("Skipping MultiBox at " + key + ": Chunk not generated");
-                    invalidEntries++;
-                    continue;
-                }
-
-                @SuppressWarnings("unchecked") List<ItemStack> itemList = (List<ItemStack>) cfg.get(key);
-                if (itemList == null) {
-                    getLogger().warning("Skipping MultiBox at " + key + ": No items found");
-                    invalidEntries++;
-                    continue;
-                }
-
-                ItemStack[] contents = itemList.toArray(new ItemStack[0]);
-                inventories.put(loc, contents);
-
-                // Count valid discs for logging
-                int validDiscs = 0;
-                for (ItemStack item : contents) {
-                    if (item != null && item.getType().toString().toLowerCase().contains("music_disc")) {
-                        validDiscs++;
-                    }
-                }
-
-                getLogger().info("Loaded MultiBox at " + key + " with " + validDiscs + " music discs");
-
-                // Start the disc player for this location
-                DiscPlayer dp = new DiscPlayer(this, loc, contents);
-                discPlayers.put(loc, dp);
-                dp.start();
-                validEntries++;
-            } catch (Exception e) {
-                getLogger().warning("Failed to load MultiBox at " + key + ": " + e.getMessage());
-                invalidEntries++;
-            }
+    /**
+     * Saves and releases everything held for a world
+     *
+     * @param world The world being unloaded
+     */
+    public void unloadWorld(World world) {
+        WorldJukeboxManager manager = worldManagers.remove(world.getUID());
+        if (manager != null) {
+            manager.unload();
         }
+    }
+
+    /**
+     * Gets the manager of a world without creating one
+     *
+     * @param world The world
+     * @return The manager, or null if the world has none
+     */
+    public WorldJukeboxManager getWorldManager(World world) {
+        return world == null ? null : worldManagers.get(world.getUID());
+    }
+
+    private WorldJukeboxManager getWorldManager(Location loc) {
+        return loc.isWorldLoaded() ? getWorldManager(loc.getWorld()) : null;
+    }
+
+    public Collection<WorldJukeboxManager> getWorldManagers() {
+        return worldManagers.values();
+    }
 
-        getLogger().info("Loaded " + validEntries + " MultiBoxes successfully");
-        if (invalidEntries > 0) {
-            getLogger().warning("Found " + invalidEntries + " invalid entries in data.yml");
+    /**
+     * Loads any stored MultiBoxes in the given chunk from an indexed backend
+     *
+     * @param chunk The chunk that was loaded
+     */
+    public void loadChunk(Chunk chunk) {
+        // Worlds without a manager read their chunks when the manager is created
+        WorldJukeboxManager manager = getWorldManager(chunk.getWorld());
+        if (manager != null) {
+            manager.loadChunk(chunk);
         }
     }
 
@@ -161,305 +259,132 @@ public final class MultiDiscJukebox extends JavaPlugin {
             logCategories.put("commands", true);
             logCategories.put("block_events", true);
             logCategories.put("disc_durations", true);
+            logCategories.put("storage", true);
+            logCategories.put("load", true);
+            logCategories.put("sync", true);
         }
     }
 
     private void registerCommands() {
-        getServer().getCommandMap().register("multibox", new Command("multibox") {
-            {
-                setDescription("Manage MultiBox");
-                setUsage("/multibox give [player] [amount] | status | reload | discs | disc <add|set> <name> <seconds>");
-            }
-
-            @Override
-            public boolean execute(CommandSender sender, String label, String[] args) {
-                if (args.length >= 1) {
-                    // Commands that don't require a player
-                    if (args[0].equalsIgnoreCase("reload")) {
-                        if (!sender.hasPermission("multibox.dj")) {
-                            sender.sendMessage(Component.text("You don't have permission to reload the plugin").color(NamedTextColor.RED));
-                            return true;
-                        }
-
-                        // Reload disc durations
-                        DiscPlayer.loadDiscDurations(MultiDiscJukebox.this);
-                        sender.sendMessage(Component.text("MultiBox disc durations reloaded").color(NamedTextColor.GREEN));
-                        return true;
-                    } else if (args[0].equalsIgnoreCase("discs")) {
-                        if (!sender.hasPermission("multibox.dj")) {
-                            sender.sendMessage(Component.text("You don't have permission to view disc durations").color(NamedTextColor.RED));
-                            return true;
-                        }
-
-                        // Show all disc durations
-                        List<String> durations = DiscPlayer.getDiscDurationsList(MultiDiscJukebox.this);
-                        for (String line : durations) {
-                            sender.sendMessage(Component.text(line));
-                        }
-                        return true;
-                    } else if (args[0].equalsIgnoreCase("disc")) {
-                        if (!sender.hasPermission("multibox.dj")) {
-                            sender.sendMessage(Component.text("You don't have permission to manage disc durations").color(NamedTextColor.RED));
-                            return true;
-                        }
-
-                        if (args.length < 4) {
-                            sender.sendMessage(Component.text("Usage: /multibox disc <add|set> <name> <seconds>").color(NamedTextColor.RED));
-                            return true;
-                        }
-
-                        String operation = args[1].toLowerCase();
-                        String discName = args[2].toUpperCase();
-                        int seconds;
-
-                        // Parse seconds
-                        try {
-                            seconds = Integer.parseInt(args[3]);
-                            if (seconds <= 0) {
-                                sender.sendMessage(Component.text("Duration must be greater than 0 seconds").color(NamedTextColor.RED));
-                                return true;
-                            }
-                        } catch (NumberFormatException e) {
-                            sender.sendMessage(Component.text("Invalid duration: " + args[3]).color(NamedTextColor.RED));
-                            return true;
-                        }
-
-                        // Add prefix if needed
-                        if (!discName.startsWith("MUSIC_DISC_") && operation.equals("add")) {
-                            discName = "MUSIC_DISC_" + discName;
-                        }
-
-                        // Verify if it's a valid material for "set" operation
-                        if (operation.equals("set")) {
-                            try {
-                                Material.valueOf(discName);
-                            } catch (IllegalArgumentException e) {
-                                sender.sendMessage(Component.text("Unknown disc material: " + discName).color(NamedTextColor.RED));
-                                return true;
-                            }
-                        }
-
-                        // Update the duration
-                        boolean success = DiscPlayer.updateDiscDuration(MultiDiscJukebox.this, discName, seconds);
-
-                        if (success) {
-                            // Auto reload durations
-                            DiscPlayer.loadDiscDurations(MultiDiscJukebox.this);
-
-                            int minutes = seconds / 60;
-                            int remainingSeconds = seconds % 60;
-                            String formattedTime = String.format("%d:%02d", minutes, remainingSeconds);
-
-                            sender.sendMessage(Component.text("Updated " + discName + " duration to " + formattedTime).color(NamedTextColor.GREEN));
-                        } else {
-                            sender.sendMessage(Component.text("Failed to update disc duration").color(NamedTextColor.RED));
-                        }
-                        return true;
-                    } else if (args[0].equalsIgnoreCase("give")) {
-                        if (!sender.hasPermission("multibox.admin")) {
-                            sender.sendMessage(Component.text("You don't have permission to give MultiBoxes").color(NamedTextColor.RED));
-                            return true;
-                        }
-
-                        // Enhanced give command with optional player target
-                        Player targetPlayer = null;
-                        int amount = 1;
-                        int argIndex = 1;
-
-                        // Check if the next argument is a player name
-                        if (args.length > argIndex) {
-                            targetPlayer = Bukkit.getPlayer(args[argIndex]);
-                            if (targetPlayer != null) {
-                                // Found a valid player, move to the next arg
-                                argIndex++;
-                            }
-                        }
-
-                        // Parse amount if provided
-                        if (args.length > argIndex) {
-                            try {
-                                amount = Integer.parseInt(args[argIndex]);
-                                if (amount < 1) amount = 1;
-                                if (amount > 64) amount = 64;
-                            } catch (NumberFormatException e) {
-                                sender.sendMessage(Component.text("Invalid amount: " + args[argIndex] + ". Using 1 instead.").color(NamedTextColor.RED));
-                                amount = 1;
-                            }
-                        }
-
-                        // If no target player was specified or found, use the sender if it's a player
-                        if (targetPlayer == null) {
-                            if (sender instanceof Player) {
-                                targetPlayer = (Player) sender;
-                            } else {
-                                sender.sendMessage(Component.text("Please specify a player name when using this command from console").color(NamedTextColor.RED));
-                                return true;
-                            }
-                        }
-
-                        // Give the multibox to the target player
-                        giveMultiBox(targetPlayer, amount, sender);
-                        return true;
-                    }
-
-                    // Command that always requires a player sender
-                    if (args[0].equalsIgnoreCase("status")) {
-                        if (!(sender instanceof Player p)) {
-                            sender.sendMessage("This command can only be used by a player");
-                            return true;
-                        }
-
-                        // Find the nearest MultiBox
-                        Location playerLoc = p.getLocation();
-                        Location closest = null;
-                        double minDist = Double.MAX_VALUE;
-
-                        for (Location loc : discPlayers.keySet()) {
-                            if (loc.getWorld().equals(playerLoc.getWorld())) {
-                                double dist = loc.distance(playerLoc);
-                                if (dist < minDist && dist <= 10) { // Only consider within 10 blocks
-                                    minDist = dist;
-                                    closest = loc;
-                                }
-                            }
-                        }
-
-                        if (closest != null) {
-                            DiscPlayer dp = discPlayers.get(closest);
-                            p.sendMessage(Component.text("MultiBox at " + closest.getBlockX() + "," + closest.getBlockY() + "," + closest.getBlockZ() + ": " + dp.getPlaybackInfo()).color(NamedTextColor.GREEN));
-
-                            // Also log to console
-                            getLogger().info("MultiBox status: " + dp.getPlaybackInfo());
-                            return true;
-                        } else {
-                            p.sendMessage(Component.text("No MultiBox found within 10 blocks.").color(NamedTextColor.RED));
-                            return true;
-                        }
-                    }
-                }
-
-                sender.sendMessage(Component.text("Usage: /multibox give [player] [amount] | status | reload | discs | disc <add|set> <name> <seconds>").color(NamedTextColor.RED));
-                return true;
-            }
+        this.commands = new MultiBoxCommands(this);
+        getServer().getPluginManager().registerEvents(commands, this);
+        getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, event ->
+                event.registrar().register(commands.build(), "Manage MultiBox"));
+    }
 
-            @Override
-            public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
-                if (args.length == 1) {
-                    List<String> options = new ArrayList<>();
-
-                    // Always show status to all players
-                    options.add("status");
-
-                    // Only show give to admin
-                    if (sender.hasPermission("multibox.admin")) {
-                        options.add("give");
-                    }
-
-                    // Only show disc commands and reload to DJs
-                    if (sender.hasPermission("multibox.dj")) {
-                        options.add("discs");
-                        options.add("disc");
-                        options.add("reload");
-                    }
-
-                    return options;
-                } else if (args.length == 2) {
-                    if (args[0].equalsIgnoreCase("give") && sender.hasPermission("multibox.admin")) {
-                        // Return list of online players plus some common amounts
-                        List<String> suggestions = new ArrayList<>();
-                        for (Player p : Bukkit.getOnlinePlayers()) {
-                            suggestions.add(p.getName());
-                        }
-                        suggestions.addAll(List.of("1", "16", "32", "64"));
-                        return suggestions;
-                    } else if (args[0].equalsIgnoreCase("disc") && sender.hasPermission("multibox.dj")) {
-                        return List.of("add", "set");
-                    }
-                } else if (args.length == 3) {
-                    if (args[0].equalsIgnoreCase("give") && sender.hasPermission("multibox.admin")) {
-                        try {
-                            // If arg[1] is a player name, suggest amounts
-                            if (Bukkit.getPlayer(args[1]) != null) {
-                                return List.of("1", "16", "32", "64");
-                            }
-                        } catch (Exception e) {
-                            // If not a player, do nothing special
-                        }
-                    } else if (args[0].equalsIgnoreCase("disc") && args[1].equalsIgnoreCase("set") && sender.hasPermission("multibox.dj")) {
-                        // Return a list of all music disc materials
-                        List<String> discs = new ArrayList<>();
-                        for (Material mat : Material.values()) {
-                            if (mat.name().contains("MUSIC_DISC")) {
-                                discs.add(mat.name());
-                            }
-                        }
-                        return discs;
-                    } else if (args[0].equalsIgnoreCase("disc") && args[1].equalsIgnoreCase("add") && sender.hasPermission("multibox.dj")) {
-                        // Suggest some common names for custom discs
-                        return List.of("CUSTOM", "MOD", "MODDED");
-                    }
-                } else if (args.length == 4) {
-                    if (args[0].equalsIgnoreCase("disc") && sender.hasPermission("multibox.dj")) {
-                        // Suggest some common durations in seconds
-                        return List.of("120", "180", "240", "300");
-                    }
-                }
-                return List.of();
-            }
-        });
+    /**
+     * Reloads config, disc durations and everything derived from them
+     */
+    public void reloadAll() {
+        // Reload disc durations and rebuild the resolved disc data
+        DiscPlayer.loadDiscDurations(this);
+        discRegistry = DiscRegistry.build(this);
+        discResolver = new DiscResolver(this);
+        reloadConfig();
+        redstoneCoalescer.reload();
+        interactionLimiter.reload();
+        audibilityBudget.reload();
+        discFeeder.reload();
+        orphanReconciler.start();
+        loadController.start();
+        playbackSync.start();
     }
 
 
     @Override
     public void onDisable() {
-        getLogger().info("Stopping all DiscPlayers...");
-
-        // Stop all music players
-        for (Map.Entry<Location, DiscPlayer> entry : discPlayers.entrySet()) {
-            try {
-                entry.getValue().stop();
-                getLogger().info("Stopped DiscPlayer at " + locationToString(entry.getKey()));
-            } catch (Exception e) {
-                getLogger().warning("Error stopping DiscPlayer: " + e.getMessage());
-            }
+        if (loadBenchmark != null) {
+            loadBenchmark.cancel();
+        }
+        if (orphanReconciler != null) {
+            orphanReconciler.stop();
+        }
+        if (loadController != null) {
+            loadController.stop();
         }
-        discPlayers.clear();
+        if (playbackSync != null) {
+            playbackSync.stop();
+        }
+
+        getLogger().info("Stopping all DiscPlayers...");
 
-        // Save all inventory data
+        // Stop players and save every world that is still loaded
         saveData();
 
+        // After the players stopped, so subscribers see their tracks end
+        if (transitionPublisher != null) {
+            transitionPublisher.close();
+        }
+
         getLogger().info("MultiBox disabled");
     }
 
     private void saveData() {
-        if (inventories.isEmpty()) {
-            getLogger().info("No inventories to save");
-            return;
+        JfrEvents.StorageOperation jfr = new JfrEvents.StorageOperation();
+        jfr.begin();
+        int worlds = worldManagers.size();
+        for (WorldJukeboxManager manager : worldManagers.values()) {
+            try {
+                manager.unload();
+            } catch (Exception e) {
+                logError("storage", "Failed to save MultiBoxes in " + manager.getWorld().getName(), e);
+            }
         }
+        worldManagers.clear();
 
-        File dataFile = new File(getDataFolder(), "data.yml");
-        YamlConfiguration cfg = new YamlConfiguration();
-        int savedEntries = 0;
+        if (warmRestart != null) {
+            warmRestart.save();
+        }
+        if (discLibrary != null) {
+            discLibrary.save();
+        }
 
-        getLogger().info("Saving " + inventories.size() + " MultiBox inventories...");
+        if (sharedStorage != null) {
+            sharedStorage.close();
+        }
 
-        for (var entry : inventories.entrySet()) {
-            try {
-                cfg.set(locationToString(entry.getKey()), entry.getValue());
-                savedEntries++;
-            } catch (Exception e) {
-                getLogger().severe("Failed to save jukebox at " + locationToString(entry.getKey()) + ": " + e.getMessage());
-            }
+        if (jfr.shouldCommit()) {
+            jfr.operation = "save all (" + worlds + " worlds)";
+            jfr.commit();
         }
+    }
 
-        try {
-            cfg.save(dataFile);
-            getLogger().info("Successfully saved " + savedEntries + " MultiBox inventories");
-        } catch (IOException ex) {
-            getLogger().severe("Failed to save data.yml: " + ex.getMessage());
+    /**
+     * Queues the current contents of a MultiBox for persistence
+     *
+     * @param loc The MultiBox location
+     */
+    public void persistInventory(Location loc) {
+        WorldJukeboxManager manager = getWorldManager(loc);
+        if (manager != null) {
+            manager.persist(loc);
         }
     }
 
+    /**
+     * Tears down MultiBoxes that left the world in one pass: stops their players,
+     * drops them from memory and removes them from storage as one batch per world.
+     * Dropping the contents is left to the caller.
+     *
+     * @param locations The MultiBox locations
+     * @return The removed contents keyed by location (contents may be null)
+     */
+    public Map<Location, DiscList> removeMultiBoxes(Collection<Location> locations) {
+        Map<WorldJukeboxManager, List<Location>> byWorld = new HashMap<>();
+        for (Location loc : locations) {
+            WorldJukeboxManager manager = getWorldManager(loc);
+            if (manager != null) {
+                byWorld.computeIfAbsent(manager, m -> new ArrayList<>()).add(loc);
+            }
+        }
+
+        Map<Location, DiscList> removed = new LinkedHashMap<>();
+        byWorld.forEach((manager, worldLocations) -> manager.remove(worldLocations, removed));
+
+        logInfo("disc_player", "Removed " + removed.size() + " MultiBox" + (removed.size() == 1 ? "" : "es"));
+        return removed;
+    }
+
 
     /**
      * Gives a MultiBox item to the specified player
@@ -502,35 +427,7 @@ public final class MultiDiscJukebox extends JavaPlugin {
     }
 
     public ItemStack getMultiBoxItem() {
-        // Create the head item
-        ItemStack head = new ItemStack(Material.PLAYER_HEAD);
-
-        if (head.getItemMeta() instanceof SkullMeta skullMeta) {
-            // Set basic metadata
-            skullMeta.getPersistentDataContainer().set(cyclerKey, PersistentDataType.BYTE, (byte) 1);
-            skullMeta.displayName(Component.text("MultiBox", NamedTextColor.GOLD));
-            skullMeta.lore(List.of(Component.text("This jukebox can play multiple discs", NamedTextColor.GRAY)));
-
-            // Set the custom texture
-            try {
-                // Create a PlayerProfile with this UUID
-                UUID id = new UUID(-1850217977L, 998918894L);
-                com.destroystokyo.paper.profile.PlayerProfile profile = Bukkit.createProfile(id, null);
-
-                // Set the texture property
-                String textureValue = "eyJ0ZXh0dXJlcyI6eyJTS0lOIjp7InVybCI6Imh0dHA6Ly90ZXh0dXJlcy5taW5lY3JhZnQubmV0L3RleHR1cmUvOGY1NjU4ZmM2N2FhNTNjNmIxMzMwZDI3OTBiMDgzMDE2Y2NhNGU3NzkxYTI0Y2ExNzg3ZmQ3MzA3YjUyZGRhMyJ9fX0=";
-                profile.setProperty(new com.destroystokyo.paper.profile.ProfileProperty("textures", textureValue));
-
-                // Apply the profile to the skull
-                skullMeta.setPlayerProfile(profile);
-            } catch (Exception e) {
-                getLogger().warning("Failed to set custom skull texture: " + e.getMessage());
-            }
-
-            head.setItemMeta(skullMeta);
-        }
-
-        return head;
+        return discRegistry.createMultiBoxItem();
     }
 
     private void registerRecipes() {
@@ -544,21 +441,127 @@ public final class MultiDiscJukebox extends JavaPlugin {
         Bukkit.addRecipe(multibox);
     }
 
-    private String locationToString(Location loc) {
-        return loc.getWorld().getName() + "," + loc.getBlockX() + "," + loc.getBlockY() + "," + loc.getBlockZ();
+    /**
+     * @param loc A block location
+     * @return True if a MultiBox is registered at the location
+     */
+    public boolean isMultiBox(Location loc) {
+        WorldJukeboxManager manager = getWorldManager(loc);
+        return manager != null && manager.getInventories().containsKey(loc);
+    }
+
+    public DiscList getInventory(Location loc) {
+        WorldJukeboxManager manager = getWorldManager(loc);
+        return manager == null ? null : manager.getInventories().get(loc);
     }
 
-    private Location locationFromString(String locString) {
-        String[] parts = locString.split(",");
-        if (parts.length != 4) {
-            throw new IllegalArgumentException("Invalid location string format: " + locString);
+    /**
+     * Replaces the contents of a MultiBox. For a box linked to a library playlist this
+     * edits the playlist, and every linked box gets the new contents.
+     *
+     * @param loc      The MultiBox location
+     * @param contents The new contents
+     */
+    public void setInventory(Location loc, DiscList contents) {
+        String playlist = discLibrary.getLink(loc);
+        if (playlist != null) {
+            discLibrary.update(playlist, contents);
+            return;
         }
+        loadWorld(loc.getWorld()).getInventories().put(loc, contents);
+    }
 
-        return new Location(Bukkit.getWorld(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+    /**
+     * Whether a MultiBox is linked to a playlist this server follows from the sync
+     * leader, so its discs can only be changed on the leader
+     *
+     * @param loc The MultiBox location
+     * @return True if local edits to the box must be refused
+     */
+    public boolean isSyncedFromLeader(Location loc) {
+        String playlist = discLibrary.getLink(loc);
+        return playlist != null && playbackSync != null && playbackSync.isFollowing(playlist);
     }
 
-    public Map<Location, ItemStack[]> getInventories() {
-        return inventories;
+    public DiscPlayer getDiscPlayer(Location loc) {
+        WorldJukeboxManager manager = getWorldManager(loc);
+        return manager == null ? null : manager.getDiscPlayers().get(loc);
+    }
+
+    public void setDiscPlayer(Location loc, DiscPlayer player) {
+        loadWorld(loc.getWorld()).getDiscPlayers().put(loc, player);
+    }
+
+    /**
+     * Number of disc slots given to new MultiBoxes
+     *
+     * @return The configured capacity, clamped to 9..1024
+     */
+    public int getCapacity() {
+        return Math.max(9, Math.min(1024, getConfig().getInt("jukebox.capacity", 27)));
+    }
+
+    public PlaybackStats getPlaybackStats() {
+        return playbackStats;
+    }
+
+    public DiscLibrary getDiscLibrary() {
+        return discLibrary;
+    }
+
+    public DiscRegistry getDiscRegistry() {
+        return discRegistry;
+    }
+
+    public LoadBenchmark getLoadBenchmark() {
+        return loadBenchmark;
+    }
+
+    public DiscResolver getDiscResolver() {
+        return discResolver;
+    }
+
+    /**
+     * Drops every resolved disc after durations or overrides were edited
+     */
+    public void rebuildDiscResolver() {
+        discResolver = new DiscResolver(this);
+    }
+
+    public JukeboxListener getJukeboxListener() {
+        return jukeboxListener;
+    }
+
+    public MultiBoxApi getApi() {
+        return snapshotPublisher;
+    }
+
+    public OrphanReconciler getOrphanReconciler() {
+        return orphanReconciler;
+    }
+
+    public WarmRestart getWarmRestart() {
+        return warmRestart;
+    }
+
+    public LoadController getLoadController() {
+        return loadController;
+    }
+
+    public RedstoneCoalescer getRedstoneCoalescer() {
+        return redstoneCoalescer;
+    }
+
+    public InteractionLimiter getInteractionLimiter() {
+        return interactionLimiter;
+    }
+
+    public AudibilityBudget getAudibilityBudget() {
+        return audibilityBudget;
+    }
+
+    public TransitionPublisher getTransitionPublisher() {
+        return transitionPublisher;
     }
 
     public NamespacedKey getCyclerKey() {
@@ -569,10 +572,6 @@ public final class MultiDiscJukebox extends JavaPlugin {
         return multiboxKey;
     }
 
-    public Map<Location, DiscPlayer> getDiscPlayers() {
-        return discPlayers;
-    }
-
     // Add logging utility methods
     public void logDebug(String category, String message) {
         if (debugEnabled && shouldLog(category)) {
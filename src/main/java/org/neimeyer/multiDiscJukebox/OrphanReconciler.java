@@ -0,0 +1,307 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Skull;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Walks the known MultiBox positions chunk by chunk under a per-tick time budget and
+ * removes entries whose skull is gone (world edits, rollbacks).
+ * <p>
+ * Ghost players are stopped and their discs are moved to quarantine.yml instead of
+ * being dropped, so an admin can hand them back later. The quarantine is read once at
+ * startup and kept in memory; changes are written in one asynchronous batch at the end
+ * of each scan, and after a claim.
+ */
+public class OrphanReconciler {
+    private final MultiDiscJukebox plugin;
+    private final File quarantineFile;
+    private final YamlConfiguration quarantine;
+    private boolean quarantineDirty = false;
+    // Async writes can finish out of order; only the newest one is written
+    private final Object writeLock = new Object();
+    private long quarantineVersion = 0;
+    private long writtenVersion = 0;
+
+    // Chunks still to verify in the running scan
+    private final Deque<List<Location>> queue = new ArrayDeque<>();
+
+    private BukkitTask tickTask;
+    private BukkitTask scheduleTask;
+    private long budgetNanos;
+    private boolean loadChunks;
+
+    // Report of the last (or running) scan
+    private boolean scanning = false;
+    private long scanStartedMillis = 0;
+    private long scanFinishedMillis = 0;
+    private int checked = 0;
+    private int skipped = 0;
+    private int ghosts = 0;
+
+    public OrphanReconciler(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        this.quarantineFile = new File(plugin.getDataFolder(), "quarantine.yml");
+        this.quarantine = YamlConfiguration.loadConfiguration(quarantineFile);
+    }
+
+    /**
+     * Starts the periodic scan schedule from config
+     */
+    public void start() {
+        stop();
+
+        this.budgetNanos = Math.max(50L, plugin.getConfig().getLong("reconciler.budget-micros", 500L)) * 1000L;
+        this.loadChunks = plugin.getConfig().getBoolean("reconciler.load-chunks", false);
+        long intervalTicks = Math.max(1L, plugin.getConfig().getLong("reconciler.interval-minutes", 10L)) * 60L * 20L;
+
+        if (!plugin.getConfig().getBoolean("reconciler.enabled", true)) return;
+
+        this.scheduleTask = Bukkit.getScheduler().runTaskTimer(plugin, this::beginScan, intervalTicks, intervalTicks);
+        this.tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Cancels the scan schedule and any scan in progress
+     */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        if (scheduleTask != null) {
+            scheduleTask.cancel();
+            scheduleTask = null;
+        }
+        queue.clear();
+        scanning = false;
+
+        // Nothing is left to write it later, so write what a cancelled scan found now
+        if (quarantineDirty) {
+            quarantineDirty = false;
+            writeQuarantine(quarantine.saveToString(), ++quarantineVersion);
+        }
+    }
+
+    /**
+     * Begins a new scan unless one is already running
+     *
+     * @return True if a new scan was started
+     */
+    public boolean beginScan() {
+        if (scanning) return false;
+
+        // Group positions by chunk so each chunk is checked once
+        Map<String, List<Location>> byChunk = new HashMap<>();
+        int total = 0;
+        for (WorldJukeboxManager manager : plugin.getWorldManagers()) {
+            for (Location loc : manager.getInventories().keySet()) {
+                String chunkKey = manager.getWorld().getUID() + ":" + (loc.getBlockX() >> 4) + ":" + (loc.getBlockZ() >> 4);
+                byChunk.computeIfAbsent(chunkKey, k -> new ArrayList<>()).add(loc);
+                total++;
+            }
+        }
+
+        queue.clear();
+        queue.addAll(byChunk.values());
+        scanning = true;
+        scanStartedMillis = System.currentTimeMillis();
+        checked = 0;
+        skipped = 0;
+        ghosts = 0;
+        plugin.logInfo("block_events", "Starting orphan scan over " + total + " MultiBoxes in " + queue.size() + " chunks");
+
+        // Manual scans still need the per-tick driver
+        if (tickTask == null) {
+            tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        return true;
+    }
+
+    private void tick() {
+        if (!scanning) return;
+        // Pick the scan back up once the server has caught up
+        if (!plugin.getLoadController().allowsNonUrgentWork()) return;
+
+        long deadline = System.nanoTime() + budgetNanos;
+        while (!queue.isEmpty() && System.nanoTime() < deadline) {
+            verifyChunk(queue.poll());
+        }
+
+        if (queue.isEmpty()) {
+            scanning = false;
+            scanFinishedMillis = System.currentTimeMillis();
+            plugin.logInfo("block_events", "Orphan scan finished: " + checked + " checked, " + skipped + " skipped, " + ghosts + " quarantined");
+            saveQuarantine();
+        }
+    }
+
+    private void verifyChunk(List<Location> locations) {
+        Location first = locations.get(0);
+        if (!first.isWorldLoaded()) {
+            // The world unloaded mid-scan; its manager already saved these boxes
+            skipped += locations.size();
+            return;
+        }
+
+        World world = first.getWorld();
+        int chunkX = first.getBlockX() >> 4;
+        int chunkZ = first.getBlockZ() >> 4;
+
+        if (world.isChunkLoaded(chunkX, chunkZ)) {
+            locations.forEach(this::verify);
+        } else if (loadChunks && world.isChunkGenerated(chunkX, chunkZ)) {
+            // Verify once the chunk is available without blocking the tick
+            world.getChunkAtAsync(chunkX, chunkZ, false).thenAccept((Chunk chunk) -> {
+                if (chunk != null) locations.forEach(this::verify);
+            });
+        } else {
+            skipped += locations.size();
+        }
+    }
+
+    private void verify(Location loc) {
+        // May have been broken normally since the scan started
+        if (!plugin.isMultiBox(loc)) return;
+        checked++;
+
+        Block block = loc.getBlock();
+        if (block.getType() != Material.PLAYER_HEAD && block.getType() != Material.PLAYER_WALL_HEAD) {
+            quarantine(loc, "block is " + block.getType());
+            return;
+        }
+        if (!(block.getState(false) instanceof Skull skull) || !JukeboxListener.isCyclerJukebox(skull, plugin.getCyclerKey())) {
+            quarantine(loc, "head is not a MultiBox");
+        }
+    }
+
+    private void quarantine(Location loc, String reason) {
+        ghosts++;
+        String key = describe(loc);
+
+        DiscList contents = plugin.removeMultiBoxes(List.of(loc)).get(loc);
+
+        List<ItemStack> discs = contents == null ? List.of() : Arrays.stream(contents.toItemStacks()).filter(Objects::nonNull).toList();
+        plugin.logWarning("block_events", "Quarantined ghost MultiBox at " + key + " (" + reason + ") with " + discs.size() + " discs");
+        if (discs.isEmpty()) return;
+
+        String entry = key.replace('.', '_') + "@" + System.currentTimeMillis();
+        quarantine.set(entry + ".reason", reason);
+        quarantine.set(entry + ".discs", discs);
+        quarantineDirty = true;
+
+        // Chunks loaded asynchronously can report after their scan has finished
+        if (!scanning) saveQuarantine();
+    }
+
+    /**
+     * Writes the quarantine if it changed. The file contents are built on the main
+     * thread and written on an async one.
+     */
+    private void saveQuarantine() {
+        if (!quarantineDirty) return;
+        quarantineDirty = false;
+        String data = quarantine.saveToString();
+        long version = ++quarantineVersion;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            if (!writeQuarantine(data, version)) {
+                // Try again with whatever the next change brings
+                Bukkit.getScheduler().runTask(plugin, () -> quarantineDirty = true);
+            }
+        });
+    }
+
+    private boolean writeQuarantine(String data, long version) {
+        synchronized (writeLock) {
+            if (version <= writtenVersion) return true;
+            try {
+                Files.writeString(quarantineFile.toPath(), data, StandardCharsets.UTF_8);
+                writtenVersion = version;
+                return true;
+            } catch (IOException e) {
+                plugin.logError("block_events", "Failed to write quarantine.yml; the entries are kept in memory until the next save", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Builds the report shown by /multibox orphans
+     *
+     * @return The report lines
+     */
+    public List<String> getReport() {
+        List<String> lines = new ArrayList<>();
+        if (scanning) {
+            lines.add("§6Orphan scan running: §f" + queue.size() + " chunks left, " + checked + " checked, " + ghosts + " quarantined");
+        } else if (scanFinishedMillis > 0) {
+            long ago = (System.currentTimeMillis() - scanFinishedMillis) / 1000;
+            long took = scanFinishedMillis - scanStartedMillis;
+            lines.add("§6Last orphan scan §7(" + ago + "s ago, took " + took + " ms)§6: §f" + checked + " checked, " + skipped + " skipped (chunk not loaded), " + ghosts + " quarantined");
+        } else {
+            lines.add("§6No orphan scan has run yet");
+        }
+
+        List<String> entries = getQuarantineEntries();
+        lines.add("§6Quarantined entries: §f" + entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            ConfigurationSection section = quarantine.getConfigurationSection(entries.get(i));
+            int discCount = section == null ? 0 : section.getList("discs", List.of()).size();
+            String reason = section == null ? "?" : section.getString("reason", "?");
+            lines.add("§e" + (i + 1) + ". §f" + entries.get(i) + " §7- " + discCount + " discs, " + reason);
+        }
+        return lines;
+    }
+
+    /**
+     * Removes a quarantined entry and returns its discs
+     *
+     * @param index The 1-based index shown in the report
+     * @return The discs, or null if there is no such entry
+     */
+    public List<ItemStack> claim(int index) {
+        List<String> entries = getQuarantineEntries();
+        if (index < 1 || index > entries.size()) return null;
+
+        String entry = entries.get(index - 1);
+        List<ItemStack> discs = new ArrayList<>();
+        for (Object item : quarantine.getList(entry + ".discs", List.of())) {
+            if (item instanceof ItemStack stack) discs.add(stack);
+        }
+
+        quarantine.set(entry, null);
+        quarantineDirty = true;
+        saveQuarantine();
+        return discs;
+    }
+
+    private List<String> getQuarantineEntries() {
+        return new ArrayList<>(quarantine.getKeys(false));
+    }
+
+    private static String describe(Location loc) {
+        String world = loc.isWorldLoaded() ? loc.getWorld().getName() : "<unloaded>";
+        return world + "," + loc.getBlockX() + "," + loc.getBlockY() + "," + loc.getBlockZ();
+    }
+}
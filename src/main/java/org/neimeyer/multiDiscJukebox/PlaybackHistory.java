@@ -0,0 +1,103 @@
+package org.neimeyer.multiDiscJukebox;
+
+/**
+ * Fixed-size record of the tracks one MultiBox played.
+ * <p>
+ * Entries live in parallel arrays used as a ring buffer, holding the resolved
+ * {@link DiscDescriptor}s rather than materials so datapack and custom model discs
+ * are told apart. Memory stays the same however long the server runs and recording
+ * a track allocates nothing. Main thread only.
+ */
+public final class PlaybackHistory {
+    private final DiscDescriptor[] discs;
+    private final long[] startTicks;
+    private final int[] audiences;
+    private int head = 0; // Next slot to write
+    private int count = 0;
+    private long totalPlays = 0;
+
+    /**
+     * @param capacity The number of tracks kept
+     */
+    public PlaybackHistory(int capacity) {
+        this.discs = new DiscDescriptor[capacity];
+        this.startTicks = new long[capacity];
+        this.audiences = new int[capacity];
+    }
+
+    /**
+     * Reads the configured history size
+     *
+     * @param plugin The plugin instance
+     * @return history.size, clamped to 1..256
+     */
+    public static int configuredSize(MultiDiscJukebox plugin) {
+        return Math.max(1, Math.min(256, plugin.getConfig().getInt("history.size", 16)));
+    }
+
+    /**
+     * Records a track start, overwriting the oldest entry once full
+     *
+     * @param disc      The disc played
+     * @param startTick The server tick it started on
+     * @param audience  The number of players it was sent to
+     */
+    public void record(DiscDescriptor disc, long startTick, int audience) {
+        discs[head] = disc;
+        startTicks[head] = startTick;
+        audiences[head] = audience;
+        head = (head + 1) % discs.length;
+        if (count < discs.length) count++;
+        totalPlays++;
+    }
+
+    /**
+     * @return The number of entries held, at most the capacity
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return Tracks started since this player was created, including overwritten ones
+     */
+    public long getTotalPlays() {
+        return totalPlays;
+    }
+
+    private int slot(int age) {
+        if (age < 0 || age >= count) throw new IndexOutOfBoundsException(age);
+        return Math.floorMod(head - 1 - age, discs.length);
+    }
+
+    /**
+     * @param age 0 for the latest entry, up to {@code size() - 1} for the oldest
+     * @return The disc played
+     */
+    public DiscDescriptor getDisc(int age) {
+        return discs[slot(age)];
+    }
+
+    /**
+     * @param age 0 for the latest entry
+     * @return The server tick the track started on
+     */
+    public long getStartTick(int age) {
+        return startTicks[slot(age)];
+    }
+
+    /**
+     * @param age 0 for the latest entry
+     * @return The number of players the track was sent to
+     */
+    public int getAudience(int age) {
+        return audiences[slot(age)];
+    }
+
+    /**
+     * @return The audience of the latest track, 0 if nothing played yet
+     */
+    public int getLastAudience() {
+        return count == 0 ? 0 : getAudience(0);
+    }
+}
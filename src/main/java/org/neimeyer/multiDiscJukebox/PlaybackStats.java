@@ -0,0 +1,98 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Server-wide playback totals, updated as tracks start.
+ * <p>
+ * Counters are kept per track, by {@link DiscDescriptor#key()}, so datapack and custom
+ * model discs built on a vanilla disc are counted as themselves. Only the first play
+ * of a track allocates its counters; later ones are a lookup and a few increments.
+ * Main thread only.
+ */
+public final class PlaybackStats {
+    private final Map<String, Tally> byTrack = new HashMap<>();
+    private final long startedMillis = System.currentTimeMillis();
+    private long totalPlays = 0;
+    private long totalListeners = 0;
+    private long unheardPlays = 0;
+
+    /**
+     * Counts one track start
+     *
+     * @param disc     The disc played
+     * @param audience The number of players it was sent to
+     */
+    public void record(DiscDescriptor disc, int audience) {
+        Tally tally = byTrack.get(disc.key());
+        if (tally == null) {
+            tally = new Tally(disc.displayName());
+            byTrack.put(disc.key(), tally);
+        }
+        tally.plays++;
+        tally.listeners += audience;
+        totalPlays++;
+        totalListeners += audience;
+        if (audience == 0) unheardPlays++;
+    }
+
+    /**
+     * @return Tracks started on this server since the plugin was enabled
+     */
+    public long getTotalPlays() {
+        return totalPlays;
+    }
+
+    /**
+     * @param key A track key, see {@link DiscDescriptor#key()}
+     * @return How often it was started
+     */
+    public long getPlays(String key) {
+        Tally tally = byTrack.get(key);
+        return tally == null ? 0 : tally.plays;
+    }
+
+    /**
+     * Builds the report shown by /multibox stats
+     *
+     * @param top The number of discs to list
+     * @return The report lines
+     */
+    public List<String> getReport(int top) {
+        List<String> lines = new ArrayList<>();
+        long minutes = (System.currentTimeMillis() - startedMillis) / 60000;
+        lines.add("§6Playback in the last " + minutes + " minutes: §f" + totalPlays + " tracks, "
+                + totalListeners + " listens, " + unheardPlays + " played to nobody");
+
+        // Selection of the top entries without sorting every track
+        Set<Tally> listed = new HashSet<>();
+        for (int rank = 1; rank <= top; rank++) {
+            Tally best = null;
+            for (Tally tally : byTrack.values()) {
+                if (!listed.contains(tally) && (best == null || tally.plays > best.plays)) best = tally;
+            }
+            if (best == null) break;
+
+            listed.add(best);
+            double average = (double) best.listeners / best.plays;
+            lines.add("§7" + rank + ". §f" + best.displayName + "§7: " + best.plays + " plays, "
+                    + String.format("%.1f", average) + " listeners on average");
+        }
+        return lines;
+    }
+
+    private static final class Tally {
+        private final String displayName;
+        private long plays;
+        private long listeners;
+
+        private Tally(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps library playlists and their playback in step across the servers of a network.
+ * <p>
+ * One server is the leader. For every playlist listed under {@code sync.playlists} it
+ * publishes the playlist itself whenever it changes, and on every heartbeat the slot
+ * being played and the time left on it, taken from one of its MultiBoxes linked to
+ * that playlist. Followers replace their copy of the playlist with the leader's and
+ * align the MultiBoxes linked to it: same slot, and a countdown that runs out when the
+ * leader's does. The time left is corrected for the delay between sending and
+ * receiving, measured with wall clocks, so servers are expected to run NTP.
+ * <p>
+ * Minecraft can't start a sound part way through, so a follower that switches track
+ * plays the new disc from its beginning; what stays in step is when tracks change.
+ * <p>
+ * Synced playlists are read-only on followers: the GUI, disc inserts and feeders
+ * refuse boxes linked to them, see {@link MultiDiscJukebox#isSyncedFromLeader(Location)}.
+ */
+public class PlaybackSync {
+    private static final byte MESSAGE_PLAYLIST = 1;
+    private static final byte MESSAGE_CLOCK = 2;
+    // Republish unchanged playlists now and then for servers that started later
+    private static final int PLAYLIST_REFRESH_HEARTBEATS = 30;
+
+    private final MultiDiscJukebox plugin;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private SyncTransport transport;
+    private BukkitTask heartbeatTask;
+    private boolean leader;
+    private List<String> playlists = List.of();
+    private int latencyOffsetMs;
+    private int toleranceTicks;
+
+    // Leader: hash of each playlist as last published
+    private final Map<String, Integer> publishedHashes = new HashMap<>();
+    private int heartbeats = 0;
+
+    public PlaybackSync(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * (Re)reads config and opens the transport if sync is enabled
+     */
+    public void start() {
+        stop();
+        if (!plugin.getConfig().getBoolean("sync.enabled", false)) return;
+
+        this.leader = plugin.getConfig().getString("sync.role", "follower").equalsIgnoreCase("leader");
+        this.playlists = List.copyOf(plugin.getConfig().getStringList("sync.playlists"));
+        this.latencyOffsetMs = plugin.getConfig().getInt("sync.latency-offset-ms", 0);
+        this.toleranceTicks = Math.max(0, plugin.getConfig().getInt("sync.tolerance-ticks", 10));
+        long heartbeatTicks = Math.max(1, plugin.getConfig().getInt("sync.heartbeat-ticks", 20));
+
+        String type = plugin.getConfig().getString("sync.transport", "plugin-messaging").toLowerCase(Locale.ROOT);
+        if (type.equals("local")) {
+            transport = new LocalSyncTransport("multibox");
+        } else {
+            if (!type.equals("plugin-messaging")) {
+                plugin.logWarning("sync", "Unknown sync transport '" + type + "', using plugin-messaging");
+            }
+            transport = new PluginMessageSyncTransport(plugin);
+        }
+        transport.setReceiver(this::receive);
+
+        if (leader) {
+            heartbeatTask = Bukkit.getScheduler().runTaskTimer(plugin, this::heartbeat, heartbeatTicks, heartbeatTicks);
+        }
+        plugin.logInfo("sync", "Syncing " + playlists.size() + " playlists as " + (leader ? "leader" : "follower"));
+    }
+
+    /**
+     * Whether this server follows the leader's copy of a playlist. Local edits to it
+     * would be overwritten by the leader's next publish, so they are refused.
+     *
+     * @param playlist The playlist id
+     * @return True if sync is running as a follower and the playlist is synced
+     */
+    public boolean isFollowing(String playlist) {
+        return transport != null && !leader && playlists.contains(playlist);
+    }
+
+    /**
+     * Stops publishing and closes the transport
+     */
+    public void stop() {
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel();
+            heartbeatTask = null;
+        }
+        if (transport != null) {
+            transport.close();
+            transport = null;
+        }
+        publishedHashes.clear();
+        heartbeats = 0;
+    }
+
+    private void heartbeat() {
+        boolean refresh = ++heartbeats % PLAYLIST_REFRESH_HEARTBEATS == 0;
+        DiscLibrary library = plugin.getDiscLibrary();
+
+        for (String id : playlists) {
+            DiscList contents = library.getPlaylist(id);
+            if (contents == null) continue;
+
+            Integer previous = publishedHashes.put(id, contents.hashCode());
+            if (refresh || previous == null || previous != contents.hashCode()) {
+                publishPlaylist(id, contents);
+            }
+
+            // Any linked box that is playing is the clock for the whole network
+            for (Location loc : library.getLoadedSubscribers(id)) {
+                DiscPlayer dp = plugin.getDiscPlayer(loc);
+                WarmRestart.PlaybackState state = dp == null ? null : dp.captureState();
+                if (state != null && !state.paused()) {
+                    publishClock(id, state);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void publishPlaylist(String id, DiscList contents) {
+        byte[] encoded = DiscCodec.encode(contents);
+        transport.publish(encode(MESSAGE_PLAYLIST, id, out -> {
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }));
+    }
+
+    private void publishClock(String id, WarmRestart.PlaybackState state) {
+        transport.publish(encode(MESSAGE_CLOCK, id, out -> {
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(state.index());
+            out.writeInt(state.remainingTicks());
+        }));
+    }
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private byte[] encode(byte type, String playlist, Body body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            out.writeUTF(nodeId);
+            out.writeUTF(playlist);
+            body.write(out);
+        } catch (IOException e) {
+            // Not thrown by in-memory streams
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void receive(byte[] message) {
+        if (leader) return;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            byte type = in.readByte();
+            if (in.readUTF().equals(nodeId)) return;
+            String id = in.readUTF();
+            if (!playlists.contains(id)) return;
+
+            if (type == MESSAGE_PLAYLIST) {
+                byte[] encoded = new byte[in.readInt()];
+                in.readFully(encoded);
+                applyPlaylist(id, DiscCodec.decode(encoded));
+            } else if (type == MESSAGE_CLOCK) {
+                long sentAtMillis = in.readLong();
+                int index = in.readInt();
+                int remainingTicks = in.readInt();
+                applyClock(id, sentAtMillis, index, remainingTicks);
+            }
+        } catch (IOException e) {
+            plugin.logWarning("sync", "Ignoring malformed sync message: " + e.getMessage());
+        }
+    }
+
+    private void applyPlaylist(String id, DiscList contents) {
+        DiscLibrary library = plugin.getDiscLibrary();
+        if (contents.equals(library.getPlaylist(id))) return;
+
+        plugin.logInfo("sync", "Received playlist " + id + " with " + contents.playableCount() + " discs from the leader");
+        library.update(id, contents);
+    }
+
+    private void applyClock(String id, long sentAtMillis, int index, int remainingTicks) {
+        long delayMillis = Math.max(0, System.currentTimeMillis() - sentAtMillis) + latencyOffsetMs;
+        int remaining = remainingTicks - (int) (delayMillis / 50);
+        // The leader is about to change track; the next heartbeat carries the new one
+        if (remaining <= 0) return;
+
+        int corrected = 0;
+        for (Location loc : plugin.getDiscLibrary().getLoadedSubscribers(id)) {
+            DiscPlayer dp = plugin.getDiscPlayer(loc);
+            if (dp != null && dp.syncTo(index, remaining, toleranceTicks)) corrected++;
+        }
+        if (corrected > 0) {
+            plugin.logDebug("sync", "Aligned " + corrected + " MultiBoxes on playlist " + id + " to slot " + index);
+        }
+    }
+}
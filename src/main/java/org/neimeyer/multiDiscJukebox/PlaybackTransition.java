@@ -0,0 +1,41 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.UUID;
+
+/**
+ * One change in a MultiBox's playback, as published by {@link MultiBoxApi#getTransitions()}
+ * and {@link PlaybackTransitionEvent}. Holds no Bukkit objects, so it may be read from
+ * any thread.
+ *
+ * @param type        What happened
+ * @param worldId     The UID of the world the MultiBox is in
+ * @param worldName   The name of that world
+ * @param x           Block X coordinate
+ * @param y           Block Y coordinate
+ * @param z           Block Z coordinate
+ * @param disc        Key of the track the transition is about, or null if none is; see
+ *                    {@link JukeboxState#currentDisc()}
+ * @param slot        The slot of that disc, or -1
+ * @param lengthTicks The disc's length in ticks, 0 if there is no disc
+ * @param discCount   Number of playable discs held afterwards
+ * @param tick        The server tick it happened on
+ */
+public record PlaybackTransition(Type type, UUID worldId, String worldName, int x, int y, int z,
+                                 String disc, int slot, int lengthTicks, int discCount, int tick) {
+
+    /**
+     * Kinds of transition
+     */
+    public enum Type {
+        /** A track started playing */
+        STARTED,
+        /** A track stopped playing: it finished, was skipped or the MultiBox was stopped */
+        ENDED,
+        /** Playback was paused, by redstone or otherwise */
+        PAUSED,
+        /** Playback was resumed */
+        RESUMED,
+        /** The MultiBox's discs were changed */
+        DISCS_CHANGED
+    }
+}
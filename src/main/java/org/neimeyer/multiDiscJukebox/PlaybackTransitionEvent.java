@@ -0,0 +1,32 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread for every {@link PlaybackTransition}, before it is handed
+ * to the subscribers of {@link MultiBoxApi#getTransitions()}. Listeners run inside the
+ * playback driver, so they should return quickly.
+ */
+public class PlaybackTransitionEvent extends Event {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final PlaybackTransition transition;
+
+    public PlaybackTransitionEvent(PlaybackTransition transition) {
+        this.transition = transition;
+    }
+
+    public PlaybackTransition getTransition() {
+        return transition;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
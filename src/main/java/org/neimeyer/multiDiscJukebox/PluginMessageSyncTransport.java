@@ -0,0 +1,88 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Sends sync messages to every other backend through the proxy's BungeeCord channel
+ * ("Forward" to "ALL"), which BungeeCord and Velocity both support.
+ * <p>
+ * Plugin messages ride on a player connection, so nothing is sent while this server
+ * is empty. That only affects a leader without players; followers keep playing on
+ * their own clocks until it publishes again.
+ */
+public class PluginMessageSyncTransport implements SyncTransport, PluginMessageListener {
+    private static final String PROXY_CHANNEL = "BungeeCord";
+    private static final String SUBCHANNEL = "MultiBoxSync";
+    // Forward payloads carry an unsigned short length
+    private static final int MAX_PAYLOAD = 32000;
+
+    private final MultiDiscJukebox plugin;
+    private Consumer<byte[]> receiver = message -> {
+    };
+
+    public PluginMessageSyncTransport(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        Bukkit.getMessenger().registerOutgoingPluginChannel(plugin, PROXY_CHANNEL);
+        Bukkit.getMessenger().registerIncomingPluginChannel(plugin, PROXY_CHANNEL, this);
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        if (message.length > MAX_PAYLOAD) {
+            plugin.logWarning("sync", "Dropping sync message of " + message.length + " bytes, more than a plugin message can carry");
+            return;
+        }
+
+        Iterator<? extends Player> players = Bukkit.getOnlinePlayers().iterator();
+        if (!players.hasNext()) return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.length + 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF("Forward");
+            out.writeUTF("ALL");
+            out.writeUTF(SUBCHANNEL);
+            out.writeShort(message.length);
+            out.write(message);
+        } catch (IOException e) {
+            // Not thrown by in-memory streams
+            throw new IllegalStateException(e);
+        }
+        players.next().sendPluginMessage(plugin, PROXY_CHANNEL, bytes.toByteArray());
+    }
+
+    @Override
+    public void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, byte @NotNull [] data) {
+        if (!channel.equals(PROXY_CHANNEL)) return;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (!in.readUTF().equals(SUBCHANNEL)) return;
+            byte[] message = new byte[in.readUnsignedShort()];
+            in.readFully(message);
+            receiver.accept(message);
+        } catch (IOException e) {
+            plugin.logWarning("sync", "Ignoring malformed sync message: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void setReceiver(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void close() {
+        Bukkit.getMessenger().unregisterOutgoingPluginChannel(plugin, PROXY_CHANNEL);
+        Bukkit.getMessenger().unregisterIncomingPluginChannel(plugin, PROXY_CHANNEL, this);
+    }
+}
@@ -0,0 +1,98 @@
+package org.neimeyer.multiDiscJukebox;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Collapses redstone input per MultiBox into one resolved pause state that is
+ * applied at the end of the tick, so a flickering clock never reaches the sound layer.
+ * <p>
+ * With hysteresis enabled a new state must hold for that many ticks before it is applied.
+ * Changes over the redstone rate limit stay pending, so only the latest input is
+ * applied once the MultiBox's bucket refills.
+ */
+public class RedstoneCoalescer implements Listener {
+    private final MultiDiscJukebox plugin;
+    private final Map<Location, PendingState> pending = new HashMap<>();
+    private int hysteresisTicks;
+
+    public RedstoneCoalescer(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Re-reads the hysteresis setting from config
+     */
+    public void reload() {
+        this.hysteresisTicks = Math.max(0, plugin.getConfig().getInt("redstone.hysteresis-ticks", 0));
+    }
+
+    /**
+     * Records the latest redstone input for a MultiBox
+     *
+     * @param loc     The MultiBox location
+     * @param powered True if the box is receiving power
+     * @param tick    The current server tick
+     */
+    public void submit(Location loc, boolean powered, int tick) {
+        PendingState state = pending.get(loc);
+        if (state == null) {
+            pending.put(loc, new PendingState(powered, tick));
+        } else if (state.powered != powered) {
+            // Input flipped again; restart the hysteresis window
+            state.powered = powered;
+            state.changedTick = tick;
+        }
+    }
+
+    /**
+     * Forgets any pending input for a MultiBox that is being removed
+     *
+     * @param loc The MultiBox location
+     */
+    public void discard(Location loc) {
+        pending.remove(loc);
+        plugin.getInteractionLimiter().forget(loc);
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (pending.isEmpty()) return;
+
+        int tick = event.getTickNumber();
+        Iterator<Map.Entry<Location, PendingState>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Location, PendingState> entry = it.next();
+            PendingState state = entry.getValue();
+            if (tick - state.changedTick < hysteresisTicks) continue;
+
+            DiscPlayer dp = plugin.getDiscPlayer(entry.getKey());
+            if (dp != null && dp.isPaused() != state.powered) {
+                // Over budget: keep the latest input pending until the bucket refills
+                if (!plugin.getInteractionLimiter().tryAcquire(entry.getKey(), InteractionLimiter.Action.REDSTONE, tick)) continue;
+                it.remove();
+                plugin.logDebug("disc_player", "Applying coalesced redstone state " + (state.powered ? "powered" : "unpowered") + " at " + JukeboxListener.locationToString(entry.getKey()));
+                dp.setPaused(state.powered);
+            } else {
+                it.remove();
+            }
+        }
+    }
+
+    private static final class PendingState {
+        private boolean powered;
+        private int changedTick;
+
+        private PendingState(boolean powered, int changedTick) {
+            this.powered = powered;
+            this.changedTick = changedTick;
+        }
+    }
+}
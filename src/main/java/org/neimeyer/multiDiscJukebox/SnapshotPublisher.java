@@ -0,0 +1,126 @@
+package org.neimeyer.multiDiscJukebox;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes {@link MultiBoxSnapshot}s for the {@link MultiBoxApi}.
+ * <p>
+ * At the end of every tick the per-player state versions are compared with the ones
+ * seen last time. Only if something changed is a new snapshot built, reusing the
+ * states of unchanged players, and swapped in with a single atomic write.
+ */
+public class SnapshotPublisher implements Listener, MultiBoxApi {
+    private final MultiDiscJukebox plugin;
+    private final AtomicReference<MultiBoxSnapshot> current = new AtomicReference<>(MultiBoxSnapshot.EMPTY);
+
+    // Main thread only: last published state per player and the version it came from
+    private Map<Location, CachedState> cache = new HashMap<>();
+    private long version = 0;
+
+    private record CachedState(DiscPlayer player, int stateVersion, MultiBoxSnapshot.Key key, JukeboxState state) {
+    }
+
+    public SnapshotPublisher(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public MultiBoxSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    @Override
+    public Map<String, Long> getThrottleCounts() {
+        return plugin.getInteractionLimiter().getThrottleCounts();
+    }
+
+    @Override
+    public LoadController.Tier getLoadTier() {
+        return plugin.getLoadController().getTier();
+    }
+
+    @Override
+    public double getLoadMspt() {
+        return plugin.getLoadController().getLastMspt();
+    }
+
+    @Override
+    public Map<String, Long> getLoadTierSamples() {
+        return plugin.getLoadController().getSamplesPerTier();
+    }
+
+    @Override
+    public Flow.Publisher<PlaybackTransition> getTransitions() {
+        return plugin.getTransitionPublisher();
+    }
+
+    @Override
+    public Flow.Publisher<PlaybackTransition> getTransitions(Executor executor, int bufferSize, Overflow overflow) {
+        return plugin.getTransitionPublisher().withOptions(executor, bufferSize, overflow);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (!hasChanges()) return;
+
+        Map<Location, CachedState> nextCache = new HashMap<>(cache.size() + 16);
+        Map<MultiBoxSnapshot.Key, JukeboxState> states = new HashMap<>(cache.size() + 16);
+
+        for (WorldJukeboxManager manager : plugin.getWorldManagers()) {
+            for (var entry : manager.getDiscPlayers().entrySet()) {
+                Location loc = entry.getKey();
+                DiscPlayer player = entry.getValue();
+
+                CachedState cached = cache.get(loc);
+                if (cached == null || cached.player() != player || cached.stateVersion() != player.getStateVersion()) {
+                    cached = capture(manager, loc, player);
+                }
+                nextCache.put(loc, cached);
+                states.put(cached.key(), cached.state());
+            }
+        }
+
+        cache = nextCache;
+        current.set(new MultiBoxSnapshot(++version, event.getTickNumber(), states));
+    }
+
+    /**
+     * Checks the cached versions against the live players without allocating
+     */
+    private boolean hasChanges() {
+        int players = 0;
+        for (WorldJukeboxManager manager : plugin.getWorldManagers()) {
+            for (var entry : manager.getDiscPlayers().entrySet()) {
+                CachedState cached = cache.get(entry.getKey());
+                if (cached == null || cached.player() != entry.getValue()
+                        || cached.stateVersion() != entry.getValue().getStateVersion()) {
+                    return true;
+                }
+                players++;
+            }
+        }
+        // Anything removed since the last publish
+        return players != cache.size();
+    }
+
+    private CachedState capture(WorldJukeboxManager manager, Location loc, DiscPlayer player) {
+        DiscDescriptor disc = player.getCurrentDisc();
+        MultiBoxSnapshot.Key key = new MultiBoxSnapshot.Key(manager.getWorld().getUID(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        JukeboxState state = new JukeboxState(key.worldId(), manager.getWorld().getName(),
+                key.x(), key.y(), key.z(),
+                disc == null ? null : disc.key(),
+                player.getEndTick(), player.getDiscCount(), player.isPaused(),
+                player.getHistory().getTotalPlays(), player.getHistory().getLastAudience());
+        return new CachedState(player, player.getStateVersion(), key, state);
+    }
+}
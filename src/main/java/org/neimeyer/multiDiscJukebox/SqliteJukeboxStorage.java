@@ -0,0 +1,273 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded SQLite backend. Rows are keyed by world and packed block position and
+ * indexed by packed chunk position so chunk loads only read what they need.
+ * <p>
+ * The connection is owned by a single background thread. Writes are encoded on the
+ * main thread, coalesced per MultiBox and flushed in batches on that thread.
+ */
+public class SqliteJukeboxStorage implements JukeboxStorage {
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS multibox_jukeboxes (" +
+            "world TEXT NOT NULL, pos INTEGER NOT NULL, chunk INTEGER NOT NULL, discs BLOB NOT NULL, " +
+            "PRIMARY KEY (world, pos))";
+    private static final String CREATE_CHUNK_INDEX = "CREATE INDEX IF NOT EXISTS multibox_jukeboxes_chunk " +
+            "ON multibox_jukeboxes (world, chunk)";
+    private static final String UPSERT = "INSERT OR REPLACE INTO multibox_jukeboxes (world, pos, chunk, discs) VALUES (?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM multibox_jukeboxes WHERE world = ? AND pos = ?";
+    private static final String SELECT_CHUNK = "SELECT pos, discs FROM multibox_jukeboxes WHERE world = ? AND chunk = ?";
+    private static final String SELECT_ALL = "SELECT world, pos, discs FROM multibox_jukeboxes";
+
+    private final MultiDiscJukebox plugin;
+    private final File databaseFile;
+    private final long flushIntervalMillis;
+
+    // Latest pending write per MultiBox; a null blob means delete
+    private final Map<RowKey, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+    private Connection connection;
+
+    public SqliteJukeboxStorage(MultiDiscJukebox plugin, File databaseFile, long flushIntervalMillis) {
+        this.plugin = plugin;
+        this.databaseFile = databaseFile;
+        this.flushIntervalMillis = Math.max(50L, flushIntervalMillis);
+    }
+
+    @Override
+    public void open() throws IOException {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MultiBox-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            executor.submit(() -> {
+                Class.forName("org.sqlite.JDBC");
+                connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("PRAGMA journal_mode=WAL");
+                    statement.execute(CREATE_TABLE);
+                    statement.execute(CREATE_CHUNK_INDEX);
+                }
+                return null;
+            }).get();
+        } catch (Exception e) {
+            executor.shutdownNow();
+            throw new IOException("Failed to open " + databaseFile.getName(), e);
+        }
+
+        executor.scheduleWithFixedDelay(() -> flush(false), flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        plugin.logInfo("storage", "Opened SQLite storage at " + databaseFile.getName());
+    }
+
+    @Override
+    public boolean isChunkIndexed() {
+        return true;
+    }
+
+    @Override
+    public Map<Location, DiscList> loadAll() {
+        Map<Location, DiscList> loaded = new HashMap<>();
+        List<StoredRow> rows;
+        try {
+            rows = executor.submit(() -> {
+                List<StoredRow> result = new ArrayList<>();
+                try (PreparedStatement select = connection.prepareStatement(SELECT_ALL);
+                     ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(new StoredRow(rs.getString(1), rs.getLong(2), rs.getBytes(3)));
+                    }
+                }
+                return result;
+            }).get();
+        } catch (Exception e) {
+            plugin.logError("storage", "Failed to read MultiBoxes from " + databaseFile.getName(), e);
+            return loaded;
+        }
+
+        for (StoredRow row : rows) {
+            World world = Bukkit.getWorld(row.world());
+            if (world != null) {
+                decodeInto(loaded, world, row.pos(), row.discs());
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public CompletableFuture<Map<Location, DiscList>> loadChunk(World world, int chunkX, int chunkZ) {
+        String worldName = world.getName();
+        long chunkKey = Chunk.getChunkKey(chunkX, chunkZ);
+
+        return CompletableFuture.supplyAsync(() -> {
+            Map<Long, byte[]> rows = new HashMap<>();
+            try (PreparedStatement select = connection.prepareStatement(SELECT_CHUNK)) {
+                select.setString(1, worldName);
+                select.setLong(2, chunkKey);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows.put(rs.getLong(1), rs.getBytes(2));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Chunk query failed for " + worldName + " " + chunkX + "," + chunkZ, e);
+            }
+            return rows;
+        }, executor).thenApplyAsync(rows -> {
+            // Item deserialization stays on the main thread
+            Map<Location, DiscList> loaded = new HashMap<>();
+            rows.forEach((pos, discs) -> decodeInto(loaded, world, pos, discs));
+            return loaded;
+        }, Bukkit.getScheduler().getMainThreadExecutor(plugin));
+    }
+
+    @Override
+    public void save(Location loc, DiscList contents) {
+        pending.put(RowKey.of(loc), new PendingWrite(DiscCodec.encode(contents)));
+    }
+
+    @Override
+    public void delete(Location loc) {
+        pending.put(RowKey.of(loc), new PendingWrite(null));
+    }
+
+    @Override
+    public void saveAll(Map<Location, DiscList> inventories) {
+        for (var entry : inventories.entrySet()) {
+            try {
+                save(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                plugin.logError("storage", "Failed to encode jukebox at " + JukeboxListener.locationToString(entry.getKey()), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor == null) return;
+
+        try {
+            executor.submit(() -> flush(true)).get();
+            executor.submit(() -> {
+                if (connection != null) connection.close();
+                return null;
+            }).get();
+        } catch (Exception e) {
+            plugin.logError("storage", "Failed to close " + databaseFile.getName(), e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Writes everything pending in one transaction. Runs on the storage thread.
+     *
+     * @param force True to flush even while the server is under heavy load
+     */
+    private void flush(boolean force) {
+        if (pending.isEmpty() || connection == null) return;
+        // Writes are coalesced in memory, so postponing them only costs durability
+        if (!force && !plugin.getLoadController().allowsFlush()) return;
+
+        // Drain a stable view; anything queued meanwhile goes in the next batch. Only the
+        // exact write taken is removed, so a newer one queued for the same row survives
+        Map<RowKey, PendingWrite> batch = new HashMap<>();
+        for (var entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) batch.put(entry.getKey(), entry.getValue());
+        }
+
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT);
+             PreparedStatement delete = connection.prepareStatement(DELETE)) {
+            connection.setAutoCommit(false);
+            int upserts = 0;
+            int deletes = 0;
+
+            for (var entry : batch.entrySet()) {
+                RowKey key = entry.getKey();
+                byte[] discs = entry.getValue().discs();
+                if (discs == null) {
+                    delete.setString(1, key.world());
+                    delete.setLong(2, key.pos());
+                    delete.addBatch();
+                    deletes++;
+                } else {
+                    upsert.setString(1, key.world());
+                    upsert.setLong(2, key.pos());
+                    upsert.setLong(3, key.chunk());
+                    upsert.setBytes(4, discs);
+                    upsert.addBatch();
+                    upserts++;
+                }
+            }
+
+            if (upserts > 0) upsert.executeBatch();
+            if (deletes > 0) delete.executeBatch();
+            connection.commit();
+            plugin.logDebug("storage", "Flushed " + upserts + " writes and " + deletes + " deletes");
+        } catch (SQLException e) {
+            plugin.logError("storage", "Failed to flush " + batch.size() + " MultiBox writes, will retry", e);
+            try {
+                connection.rollback();
+            } catch (SQLException ignored) {
+                // Nothing more we can do here
+            }
+            // Requeue anything that wasn't superseded while we were writing
+            batch.forEach(pending::putIfAbsent);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+                // Connection is broken; the next flush will report it
+            }
+        }
+    }
+
+    private void decodeInto(Map<Location, DiscList> loaded, World world, long pos, byte[] discs) {
+        Location loc = new Location(world, Block.getBlockKeyX(pos), Block.getBlockKeyY(pos), Block.getBlockKeyZ(pos));
+        try {
+            loaded.put(loc, DiscCodec.decode(discs));
+        } catch (Exception e) {
+            plugin.logWarning("storage", "Failed to decode MultiBox at " + JukeboxListener.locationToString(loc) + ": " + e.getMessage());
+        }
+    }
+
+    private record RowKey(String world, long pos, long chunk) {
+        static RowKey of(Location loc) {
+            return new RowKey(loc.getWorld().getName(),
+                    Block.getBlockKey(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()),
+                    Chunk.getChunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+        }
+    }
+
+    private record PendingWrite(byte[] discs) {
+    }
+
+    private record StoredRow(String world, long pos, byte[] discs) {
+    }
+}
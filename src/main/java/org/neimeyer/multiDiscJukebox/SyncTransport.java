@@ -0,0 +1,32 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link PlaybackSync} messages between servers.
+ * <p>
+ * Messages are opaque byte arrays and delivery is best effort: a lost message is
+ * repaired by the next heartbeat. Received messages are handed to the receiver on the
+ * main server thread.
+ */
+public interface SyncTransport {
+
+    /**
+     * Sends a message to every other server
+     *
+     * @param message The encoded message
+     */
+    void publish(byte[] message);
+
+    /**
+     * Sets the callback for messages from other servers
+     *
+     * @param receiver Called on the main thread with each message
+     */
+    void setReceiver(Consumer<byte[]> receiver);
+
+    /**
+     * Stops sending and receiving
+     */
+    void close();
+}
@@ -0,0 +1,162 @@
+package org.neimeyer.multiDiscJukebox;
+
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.sound.SoundStop;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.SoundCategory;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The audio stage of one MultiBox. A track start is sent once to every player in range
+ * whose {@link AudibilityBudget} allows it, as a single Adventure audience, using the
+ * sound its {@link DiscDescriptor} resolved. The recipients are recorded so the stop
+ * goes to exactly those players, for exactly that sound. Main thread only.
+ */
+final class TrackAudio {
+    private static final double RANGE = 64.0; // Standard Minecraft jukebox range
+    // Play and stop sound packets sent by every MultiBox, for /multibox bench
+    private static long packetsSent = 0;
+
+    private final Location location;
+    private final AudibilityBudget budget;
+    // Reused for every dispatch
+    private final List<Player> batch = new ArrayList<>();
+    private UUID[] recipients = new UUID[8];
+    private int recipientCount = 0;
+    private SoundStop playing = null;
+
+    TrackAudio(Location location, AudibilityBudget budget) {
+        this.location = location;
+        this.budget = budget;
+    }
+
+    /**
+     * Starts a track for everyone in range. Any track still recorded is forgotten, so
+     * stop it first.
+     *
+     * @param disc The resolved disc
+     * @return The number of players it was sent to
+     */
+    int play(DiscDescriptor disc) {
+        clear();
+        if (disc.sound() == null) return 0;
+
+        budget.started(location, this);
+        collectInRange(true);
+        if (!batch.isEmpty()) {
+            Audience.audience(batch).playSound(disc.sound(), location.getX(), location.getY(), location.getZ());
+        }
+
+        if (recipients.length < batch.size()) recipients = new UUID[Math.max(batch.size(), recipients.length * 2)];
+        for (Player player : batch) {
+            recipients[recipientCount++] = player.getUniqueId();
+        }
+        batch.clear();
+        playing = disc.stop();
+        packetsSent += recipientCount;
+        return recipientCount;
+    }
+
+    /**
+     * Stops the recorded track for the players it was sent to
+     *
+     * @return The number of players the stop was sent to
+     */
+    int stop() {
+        if (playing == null) return 0;
+
+        // Players who left or changed world already lost the sound
+        World world = location.getWorld();
+        for (int i = 0; i < recipientCount; i++) {
+            Player player = Bukkit.getPlayer(recipients[i]);
+            if (player != null && player.getWorld().equals(world)) batch.add(player);
+        }
+        int sent = batch.size();
+        if (sent > 0) Audience.audience(batch).stopSound(playing);
+
+        batch.clear();
+        clear();
+        packetsSent += sent;
+        return sent;
+    }
+
+    /**
+     * Stops the recorded track for one player, when this MultiBox fell out of their budget
+     *
+     * @param player The player
+     */
+    void silence(Player player) {
+        UUID id = player.getUniqueId();
+        for (int i = 0; i < recipientCount; i++) {
+            if (!recipients[i].equals(id)) continue;
+
+            player.stopSound(playing);
+            packetsSent++;
+            recipients[i] = recipients[--recipientCount];
+            recipients[recipientCount] = null;
+            return;
+        }
+    }
+
+    /**
+     * Frees this MultiBox's place in the audibility budget once it has no track playing
+     */
+    void release() {
+        budget.stopped(location);
+    }
+
+    /**
+     * @return True if a track was sent and not yet stopped
+     */
+    boolean isTracking() {
+        return playing != null;
+    }
+
+    /**
+     * Stops every given sound for the players in range, for sounds that weren't recorded
+     *
+     * @param soundKeys The namespaced sound keys
+     * @return The number of players the stops were sent to
+     */
+    int sweep(String[] soundKeys) {
+        collectInRange(false);
+        for (Player player : batch) {
+            for (String soundKey : soundKeys) {
+                player.stopSound(soundKey, SoundCategory.RECORDS);
+            }
+        }
+        int sent = batch.size();
+        batch.clear();
+        packetsSent += (long) sent * soundKeys.length;
+        return sent;
+    }
+
+    /**
+     * Total play and stop sound packets sent to players by all MultiBoxes
+     *
+     * @return The packet count since the plugin loaded
+     */
+    static long getPacketsSent() {
+        return packetsSent;
+    }
+
+    private void collectInRange(boolean budgeted) {
+        for (Player player : location.getWorld().getPlayers()) {
+            if (player.getLocation().distanceSquared(location) > RANGE * RANGE) continue;
+            if (!budgeted || budget.isAudible(player, location)) batch.add(player);
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(recipients, 0, recipientCount, null);
+        recipientCount = 0;
+        playing = null;
+    }
+}
@@ -0,0 +1,234 @@
+package org.neimeyer.multiDiscJukebox;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes {@link PlaybackTransition}s from the playback driver to
+ * {@link PlaybackTransitionEvent} listeners and to {@link Flow.Subscriber}s.
+ * <p>
+ * Each subscriber has its own bounded buffer and is called on its own executor, never
+ * on the main thread. Publishing only appends to those buffers; a subscriber that
+ * falls behind loses its oldest transitions, or with {@link MultiBoxApi.Overflow#LATEST_ONLY}
+ * keeps only the newest, so it can never hold up a tick.
+ */
+public class TransitionPublisher implements Flow.Publisher<PlaybackTransition> {
+    private final MultiDiscJukebox plugin;
+    private final List<BufferedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed = false;
+
+    public TransitionPublisher(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Subscribes on the common pool with the default buffer, dropping the oldest
+     * transitions on overflow
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super PlaybackTransition> subscriber) {
+        subscribe(subscriber, ForkJoinPool.commonPool(), Flow.defaultBufferSize(), MultiBoxApi.Overflow.DROP_OLDEST);
+    }
+
+    /**
+     * Gets a publisher whose subscribers are called on the given executor with the given buffer
+     *
+     * @param executor   Runs the subscriber's callbacks
+     * @param bufferSize Transitions held for the subscriber before overflow
+     * @param overflow   What to do when the buffer is full
+     * @return The publisher
+     */
+    public Flow.Publisher<PlaybackTransition> withOptions(Executor executor, int bufferSize, MultiBoxApi.Overflow overflow) {
+        Objects.requireNonNull(executor, "executor");
+        Objects.requireNonNull(overflow, "overflow");
+        if (bufferSize < 1) throw new IllegalArgumentException("bufferSize must be positive");
+        return subscriber -> subscribe(subscriber, executor, bufferSize, overflow);
+    }
+
+    private void subscribe(Flow.Subscriber<? super PlaybackTransition> subscriber, Executor executor, int bufferSize, MultiBoxApi.Overflow overflow) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        BufferedSubscription subscription = new BufferedSubscription(subscriber, executor,
+                overflow == MultiBoxApi.Overflow.LATEST_ONLY ? 1 : bufferSize);
+        if (closed) {
+            subscription.complete();
+        } else {
+            subscriptions.add(subscription);
+        }
+        // Delivers onSubscribe on the subscriber's executor
+        subscription.schedule();
+    }
+
+    /**
+     * Whether anyone would receive a transition, so callers can skip building it
+     *
+     * @return True if there are subscribers or event listeners
+     */
+    public boolean hasListeners() {
+        return !subscriptions.isEmpty() || PlaybackTransitionEvent.getHandlerList().getRegisteredListeners().length > 0;
+    }
+
+    /**
+     * Calls the event and queues the transition for every subscriber. Main thread only.
+     *
+     * @param transition The transition
+     */
+    public void publish(PlaybackTransition transition) {
+        if (PlaybackTransitionEvent.getHandlerList().getRegisteredListeners().length > 0) {
+            new PlaybackTransitionEvent(transition).callEvent();
+        }
+        for (BufferedSubscription subscription : subscriptions) {
+            subscription.offer(transition);
+        }
+    }
+
+    /**
+     * Completes every subscription once its buffer is delivered. Called on disable.
+     */
+    public void close() {
+        closed = true;
+        for (BufferedSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+        subscriptions.clear();
+    }
+
+    /**
+     * Describes the subscribers for /multibox load
+     *
+     * @return Report lines
+     */
+    public List<String> getReport() {
+        return List.of(String.format(Locale.ROOT, "Transition stream: %d subscribers, %d transitions dropped",
+                subscriptions.size(), dropped.get()));
+    }
+
+    /**
+     * One subscriber's buffer and demand. Offers come from the main thread; delivery
+     * runs on the subscriber's executor, one drain at a time.
+     */
+    private final class BufferedSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super PlaybackTransition> subscriber;
+        private final Executor executor;
+        private final int capacity;
+        private final ArrayDeque<PlaybackTransition> buffer = new ArrayDeque<>(); // Guarded by itself
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private boolean subscribed = false; // Only touched by the drain
+        private volatile boolean cancelled = false;
+        private volatile boolean completed = false;
+        private volatile IllegalArgumentException invalidRequest = null;
+
+        private BufferedSubscription(Flow.Subscriber<? super PlaybackTransition> subscriber, Executor executor, int capacity) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.capacity = capacity;
+        }
+
+        private void offer(PlaybackTransition transition) {
+            synchronized (buffer) {
+                if (buffer.size() == capacity) {
+                    buffer.pollFirst();
+                    dropped.incrementAndGet();
+                }
+                buffer.addLast(transition);
+            }
+            schedule();
+        }
+
+        private void complete() {
+            completed = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pendingDrains.getAndIncrement() != 0) return;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                plugin.logWarning("api", "Executor of a transition subscriber rejected delivery; cancelling it");
+                cancel();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " transitions; requests must be positive");
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (buffer) {
+                buffer.clear();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                try {
+                    drain();
+                } catch (RuntimeException e) {
+                    plugin.logError("api", "Transition subscriber " + subscriber.getClass().getName() + " failed; cancelling it", e);
+                    cancel();
+                }
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (!subscribed) {
+                subscribed = true;
+                subscriber.onSubscribe(this);
+            }
+
+            while (!cancelled) {
+                if (invalidRequest != null) {
+                    cancel();
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+
+                PlaybackTransition next = null;
+                if (demand.get() > 0) {
+                    synchronized (buffer) {
+                        next = buffer.pollFirst();
+                    }
+                }
+                if (next == null) {
+                    if (completed && isEmpty()) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+
+                demand.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+                subscriber.onNext(next);
+            }
+        }
+
+        private boolean isEmpty() {
+            synchronized (buffer) {
+                return buffer.isEmpty();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Carries playback state across restarts and spreads player starts out over time.
+ * <p>
+ * On disable every player's track, time left and paused state is written to
+ * playback.yml. On enable that file is read back and players are started from a
+ * queue with a random delay and a per-tick limit, each resuming where it left off,
+ * so a restart doesn't fire every MultiBox's first track in the same tick.
+ */
+public class WarmRestart {
+    private final MultiDiscJukebox plugin;
+    private final File snapshotFile;
+
+    // Saved state by location key, consumed as MultiBoxes load
+    private final Map<String, PlaybackState> snapshot = new HashMap<>();
+
+    // Players waiting to start, earliest first
+    private final PriorityQueue<PendingStart> queue = new PriorityQueue<>((a, b) -> Long.compare(a.notBeforeTick(), b.notBeforeTick()));
+    private final Map<Location, PendingStart> queued = new HashMap<>();
+
+    private BukkitTask tickTask;
+    private boolean enabled;
+    private int jitterTicks;
+    private int startsPerTick;
+    private int minRemainingTicks;
+
+    /**
+     * A player's position in its playlist
+     *
+     * @param index          The slot of the current track
+     * @param remainingTicks Ticks left on the current track
+     * @param paused         True if the player was paused
+     */
+    public record PlaybackState(int index, int remainingTicks, boolean paused) {
+    }
+
+    private record PendingStart(Location location, DiscPlayer player, PlaybackState state, long notBeforeTick) {
+    }
+
+    public WarmRestart(MultiDiscJukebox plugin) {
+        this.plugin = plugin;
+        this.snapshotFile = new File(plugin.getDataFolder(), "playback.yml");
+    }
+
+    /**
+     * Reads config and the snapshot left by the last shutdown and starts the start queue
+     */
+    public void start() {
+        this.enabled = plugin.getConfig().getBoolean("warm-restart.enabled", true);
+        this.jitterTicks = Math.max(0, plugin.getConfig().getInt("warm-restart.jitter-ticks", 100));
+        this.startsPerTick = Math.max(1, plugin.getConfig().getInt("warm-restart.starts-per-tick", 4));
+        this.minRemainingTicks = Math.max(0, plugin.getConfig().getInt("warm-restart.min-remaining-seconds", 10)) * 20;
+
+        if (enabled && snapshotFile.exists()) {
+            YamlConfiguration cfg = YamlConfiguration.loadConfiguration(snapshotFile);
+            for (String key : cfg.getKeys(false)) {
+                PlaybackState state = parse(cfg.getString(key));
+                if (state != null) snapshot.put(key, state);
+            }
+            plugin.logInfo("disc_player", "Read playback state for " + snapshot.size() + " MultiBoxes");
+        }
+        // A crash before the next clean shutdown should start cold rather than resume stale state
+        if (snapshotFile.exists() && !snapshotFile.delete()) {
+            plugin.logWarning("disc_player", "Could not remove playback.yml after reading it");
+        }
+
+        if (tickTask == null) {
+            tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    /**
+     * Queues a freshly loaded player to start after a random delay, resuming its saved
+     * state if there is one
+     *
+     * @param loc    The MultiBox location
+     * @param player The player to start
+     */
+    public void schedule(Location loc, DiscPlayer player) {
+        PlaybackState state = snapshot.remove(JukeboxListener.locationToString(loc));
+        long delay = jitterTicks == 0 ? 0 : ThreadLocalRandom.current().nextInt(jitterTicks + 1);
+        PendingStart pending = new PendingStart(loc, player, state, Bukkit.getCurrentTick() + delay);
+        queued.put(loc, pending);
+        queue.add(pending);
+    }
+
+    /**
+     * Records a player's state before it is stopped for an unload or shutdown
+     *
+     * @param loc    The MultiBox location
+     * @param player The player about to be stopped
+     */
+    public void capture(Location loc, DiscPlayer player) {
+        String key = JukeboxListener.locationToString(loc);
+        PendingStart pending = queued.remove(loc);
+        if (pending != null) {
+            // Never started; keep whatever it was going to resume from
+            if (pending.state() != null) snapshot.put(key, pending.state());
+            return;
+        }
+
+        PlaybackState state = player.captureState();
+        if (state != null) {
+            snapshot.put(key, state);
+        }
+    }
+
+    /**
+     * Writes every captured state (and any that were never claimed) to playback.yml
+     */
+    public void save() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        queue.clear();
+        queued.clear();
+
+        if (!enabled || snapshot.isEmpty()) return;
+
+        YamlConfiguration cfg = new YamlConfiguration();
+        snapshot.forEach((key, state) -> cfg.set(key, state.index() + ":" + state.remainingTicks() + ":" + (state.paused() ? 1 : 0)));
+        try {
+            cfg.save(snapshotFile);
+            plugin.logInfo("disc_player", "Saved playback state for " + snapshot.size() + " MultiBoxes");
+        } catch (IOException e) {
+            plugin.logError("disc_player", "Failed to save playback.yml, players will start from the top next time", e);
+        }
+        snapshot.clear();
+    }
+
+    private void tick() {
+        long now = Bukkit.getCurrentTick();
+        int started = 0;
+        while (started < startsPerTick && !queue.isEmpty() && queue.peek().notBeforeTick() <= now) {
+            PendingStart pending = queue.poll();
+            // Skip entries that were captured, removed or replaced since they were queued
+            if (queued.get(pending.location()) != pending) continue;
+            queued.remove(pending.location());
+            if (plugin.getDiscPlayer(pending.location()) != pending.player()) continue;
+
+            if (pending.state() != null) {
+                pending.player().resume(pending.state(), minRemainingTicks);
+            } else {
+                pending.player().start();
+            }
+            started++;
+        }
+    }
+
+    private PlaybackState parse(String value) {
+        if (value == null) return null;
+        String[] parts = value.split(":");
+        if (parts.length != 3) return null;
+        try {
+            return new PlaybackState(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), parts[2].equals("1"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
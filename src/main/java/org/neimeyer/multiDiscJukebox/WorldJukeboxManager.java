@@ -0,0 +1,192 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the MultiBoxes of a single world: their contents, their players and the
+ * storage they are persisted to.
+ * <p>
+ * A manager only exists while its world is loaded. It is created when the world
+ * loads, reads its storage at that point, and saves and releases everything when
+ * the world unloads.
+ */
+public class WorldJukeboxManager {
+    private final MultiDiscJukebox plugin;
+    private final World world;
+    private final JukeboxStorage storage;
+    private final boolean ownsStorage;
+
+    private final Map<Location, DiscList> inventories = new HashMap<>();
+    private final Map<Location, DiscPlayer> discPlayers = new HashMap<>();
+
+    /**
+     * @param plugin      The plugin instance
+     * @param world       The world this manager is responsible for
+     * @param storage     The storage backend for this world
+     * @param ownsStorage True if the backend belongs to this world alone and should be
+     *                    closed when the world unloads
+     */
+    public WorldJukeboxManager(MultiDiscJukebox plugin, World world, JukeboxStorage storage, boolean ownsStorage) {
+        this.plugin = plugin;
+        this.world = world;
+        this.storage = storage;
+        this.ownsStorage = ownsStorage;
+    }
+
+    /**
+     * Reads the stored MultiBoxes of this world. Indexed backends are only queried for
+     * chunks that are already loaded; the rest follow as their chunks load.
+     */
+    public void load() {
+        if (storage.isChunkIndexed()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                loadChunk(chunk);
+            }
+            return;
+        }
+
+        JfrEvents.StorageOperation jfr = new JfrEvents.StorageOperation();
+        jfr.begin();
+        Map<Location, DiscList> loaded = storage.loadAll();
+        loaded.forEach(this::registerLoaded);
+        plugin.getLogger().info("Loaded " + loaded.size() + " MultiBoxes in " + world.getName());
+        commit(jfr, "load", loaded.size());
+    }
+
+    /**
+     * Loads any stored MultiBoxes in the given chunk from an indexed backend
+     *
+     * @param chunk A chunk of this world that was loaded
+     */
+    public void loadChunk(Chunk chunk) {
+        if (!storage.isChunkIndexed()) return;
+
+        // Timed from the request to the boxes being registered
+        JfrEvents.StorageOperation jfr = new JfrEvents.StorageOperation();
+        jfr.begin();
+        storage.loadChunk(world, chunk.getX(), chunk.getZ())
+                .thenAccept(loaded -> {
+                    // The world may have unloaded while the query was running
+                    if (plugin.getWorldManager(world) != this) return;
+                    loaded.forEach(this::registerLoaded);
+                    commit(jfr, "load chunk", loaded.size());
+                })
+                .exceptionally(e -> {
+                    plugin.logError("storage", "Failed to load MultiBoxes for chunk " + chunk.getX() + "," + chunk.getZ() + " in " + world.getName(), e);
+                    return null;
+                });
+    }
+
+    private void registerLoaded(Location loc, DiscList contents) {
+        // A box loaded earlier (or placed since) wins over the stored copy
+        if (inventories.containsKey(loc)) return;
+
+        DiscList linked = plugin.getDiscLibrary().resolve(loc, null);
+        if (linked != null) {
+            // Share the library's list instead of the stored placeholder
+            contents = linked;
+        } else if (contents.size() < plugin.getCapacity()) {
+            // Grow boxes saved with a smaller capacity; larger ones keep their discs
+            contents = contents.resized(plugin.getCapacity());
+        }
+        inventories.put(loc, contents);
+
+        // Count valid discs for logging
+        int validDiscs = contents.playableCount();
+
+        plugin.getLogger().info("Loaded MultiBox at " + JukeboxListener.locationToString(loc) + " with " + validDiscs + " music discs");
+
+        // Start the disc player for this location, spread out with the other loaded boxes
+        DiscPlayer dp = new DiscPlayer(plugin, loc, contents);
+        discPlayers.put(loc, dp);
+        plugin.getWarmRestart().schedule(loc, dp);
+    }
+
+    /**
+     * Queues the current contents of a MultiBox for persistence
+     *
+     * @param loc The MultiBox location
+     */
+    public void persist(Location loc) {
+        DiscList contents = inventories.get(loc);
+        if (contents != null) {
+            storage.save(loc, plugin.getDiscLibrary().toStored(loc, contents));
+        }
+    }
+
+    /**
+     * Stops and forgets the given MultiBoxes and removes them from storage as one batch
+     *
+     * @param locations MultiBox locations in this world
+     * @param removed   Receives the removed contents keyed by location (contents may be null)
+     */
+    public void remove(Collection<Location> locations, Map<Location, DiscList> removed) {
+        for (Location loc : locations) {
+            plugin.getRedstoneCoalescer().discard(loc);
+            DiscPlayer dp = discPlayers.remove(loc);
+            if (dp != null) {
+                dp.stop();
+            }
+            DiscList contents = inventories.remove(loc);
+            // A linked box's discs belong to the library and stay there
+            removed.put(loc, plugin.getDiscLibrary().forget(loc) ? null : contents);
+        }
+        storage.deleteAll(locations);
+    }
+
+    /**
+     * Stops every player, writes everything held in memory and releases the world's
+     * storage. The manager must not be used afterwards.
+     */
+    public void unload() {
+        for (Map.Entry<Location, DiscPlayer> entry : discPlayers.entrySet()) {
+            try {
+                plugin.getRedstoneCoalescer().discard(entry.getKey());
+                plugin.getWarmRestart().capture(entry.getKey(), entry.getValue());
+                entry.getValue().stop();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error stopping DiscPlayer: " + e.getMessage());
+            }
+        }
+        discPlayers.clear();
+
+        JfrEvents.StorageOperation jfr = new JfrEvents.StorageOperation();
+        jfr.begin();
+        Map<Location, DiscList> stored = new HashMap<>(inventories);
+        stored.replaceAll(plugin.getDiscLibrary()::toStored);
+        storage.saveAll(stored);
+        if (ownsStorage) {
+            storage.close();
+        }
+        commit(jfr, "save", stored.size());
+
+        plugin.logInfo("storage", "Released " + inventories.size() + " MultiBoxes in " + world.getName());
+        inventories.clear();
+    }
+
+    private void commit(JfrEvents.StorageOperation jfr, String operation, int boxes) {
+        if (!jfr.shouldCommit()) return;
+        jfr.operation = operation;
+        jfr.world = world.getName();
+        jfr.boxes = boxes;
+        jfr.commit();
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Map<Location, DiscList> getInventories() {
+        return inventories;
+    }
+
+    public Map<Location, DiscPlayer> getDiscPlayers() {
+        return discPlayers;
+    }
+}
@@ -0,0 +1,237 @@
+package org.neimeyer.multiDiscJukebox;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The default storage backend: each world's MultiBoxes are kept in their own file
+ * under worlds/, read in full when the world loads and rewritten in full when it
+ * unloads or the server stops.
+ */
+public class YamlJukeboxStorage implements JukeboxStorage {
+    private final MultiDiscJukebox plugin;
+    private final World world;
+    private final File dataFile;
+
+    public YamlJukeboxStorage(MultiDiscJukebox plugin, World world, File dataFile) {
+        this.plugin = plugin;
+        this.world = world;
+        this.dataFile = dataFile;
+    }
+
+    /**
+     * Splits the single data.yml used by older versions into per-world files, so
+     * MultiBoxes in worlds that aren't loaded right now are kept rather than dropped.
+     * The old file is renamed afterwards and left in place as a backup.
+     *
+     * @param plugin       The plugin instance
+     * @param legacyFile   The old data.yml
+     * @param worldsFolder The folder holding the per-world files
+     */
+    public static void migrateLegacyData(MultiDiscJukebox plugin, File legacyFile, File worldsFolder) {
+        if (!legacyFile.exists()) return;
+
+        YamlConfiguration legacy = YamlConfiguration.loadConfiguration(legacyFile);
+        Map<String, YamlConfiguration> byWorld = new HashMap<>();
+        for (String key : legacy.getKeys(false)) {
+            String worldName = key.split(",")[0];
+            byWorld.computeIfAbsent(worldName, name -> {
+                // Anything already migrated for this world is kept
+                File worldFile = new File(worldsFolder, name + ".yml");
+                return worldFile.exists() ? YamlConfiguration.loadConfiguration(worldFile) : new YamlConfiguration();
+            }).set(key, legacy.get(key));
+        }
+
+        try {
+            for (var entry : byWorld.entrySet()) {
+                entry.getValue().save(new File(worldsFolder, entry.getKey() + ".yml"));
+            }
+        } catch (IOException e) {
+            plugin.logError("storage", "Failed to split data.yml into per-world files, keeping it for the next start", e);
+            return;
+        }
+
+        File backup = new File(legacyFile.getParentFile(), legacyFile.getName() + ".migrated");
+        if (!legacyFile.renameTo(backup)) {
+            plugin.logWarning("storage", "Could not rename data.yml after migrating it; please remove it manually");
+        }
+        plugin.logInfo("storage", "Migrated data.yml into " + byWorld.size() + " per-world files");
+    }
+
+    @Override
+    public void open() {
+        // Nothing to open, the file is read on load
+    }
+
+    @Override
+    public boolean isChunkIndexed() {
+        return false;
+    }
+
+    @Override
+    public Map<Location, DiscList> loadAll() {
+        Map<Location, DiscList> loaded = new HashMap<>();
+        if (!dataFile.exists()) {
+            plugin.logDebug("storage", "No " + dataFile.getName() + " found, no MultiBoxes to load in " + world.getName());
+            return loaded;
+        }
+
+        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(dataFile);
+        int invalidEntries = 0;
+
+        plugin.getLogger().info("Loading MultiBox data from " + dataFile.getName() + "...");
+
+        for (String key : cfg.getKeys(false)) {
+            try {
+                Location loc = locationFromString(key);
+
+                // Check if the block at this location is a player head without loading chunks
+                // We'll only verify if the chunk is generated
+                if (!loc.getWorld().isChunkGenerated(loc.getBlockX() >> 4, loc.getBlockZ() >> 4)) {
+                    plugin.getLogger().warning("Skipping MultiBox at " + key + ": Chunk not generated");
+                    invalidEntries++;
+                    continue;
+                }
+
+                DiscList contents = readContents(cfg, key);
+                if (contents == null) {
+                    plugin.getLogger().warning("Skipping MultiBox at " + key + ": No items found");
+                    invalidEntries++;
+                    continue;
+                }
+
+                loaded.put(loc, contents);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to load MultiBox at " + key + ": " + e.getMessage());
+                invalidEntries++;
+            }
+        }
+
+        if (invalidEntries > 0) {
+            plugin.getLogger().warning("Found " + invalidEntries + " invalid entries in " + dataFile.getName());
+        }
+        return loaded;
+    }
+
+    @Override
+    public CompletableFuture<Map<Location, DiscList>> loadChunk(World world, int chunkX, int chunkZ) {
+        // Everything was already read by loadAll
+        return CompletableFuture.completedFuture(Map.of());
+    }
+
+    @Override
+    public void save(Location loc, DiscList contents) {
+        // The whole file is rewritten by saveAll on disable
+    }
+
+    @Override
+    public void delete(Location loc) {
+        // The whole file is rewritten by saveAll on disable
+    }
+
+    @Override
+    public void saveAll(Map<Location, DiscList> inventories) {
+        if (inventories.isEmpty()) {
+            // Don't leave removed MultiBoxes behind in an old file
+            if (dataFile.exists() && !dataFile.delete()) {
+                plugin.logWarning("storage", "Could not remove empty " + dataFile.getName());
+            }
+            return;
+        }
+
+        YamlConfiguration cfg = new YamlConfiguration();
+        int savedEntries = 0;
+
+        plugin.getLogger().info("Saving " + inventories.size() + " MultiBox inventories...");
+
+        for (var entry : inventories.entrySet()) {
+            try {
+                writeContents(cfg, JukeboxListener.locationToString(entry.getKey()), entry.getValue());
+                savedEntries++;
+            } catch (Exception e) {
+                plugin.getLogger().severe("Failed to save jukebox at " + JukeboxListener.locationToString(entry.getKey()) + ": " + e.getMessage());
+            }
+        }
+
+        try {
+            cfg.save(dataFile);
+            plugin.getLogger().info("Successfully saved " + savedEntries + " MultiBox inventories");
+        } catch (IOException ex) {
+            plugin.getLogger().severe("Failed to save " + dataFile.getName() + ": " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    /**
+     * Reads one MultiBox, either as the chunked section written now or as the flat
+     * item list written by older versions
+     */
+    static DiscList readContents(ConfigurationSection cfg, String key) {
+        Object value = cfg.get(key);
+        if (value instanceof List<?> itemList) {
+            @SuppressWarnings("unchecked") List<ItemStack> items = (List<ItemStack>) itemList;
+            return DiscList.of(items.toArray(new ItemStack[0]));
+        }
+
+        ConfigurationSection section = cfg.getConfigurationSection(key);
+        if (section == null) return null;
+
+        DiscList contents = new DiscList(section.getInt("size"));
+        ConfigurationSection chunks = section.getConfigurationSection("chunks");
+        if (chunks == null) return contents;
+
+        for (String chunkKey : chunks.getKeys(false)) {
+            int offset = Integer.parseInt(chunkKey) * DiscList.CHUNK_SIZE;
+            List<?> items = chunks.getList(chunkKey, List.of());
+            for (int i = 0; i < items.size() && offset + i < contents.size(); i++) {
+                if (items.get(i) instanceof ItemStack item) {
+                    contents.set(offset + i, item);
+                }
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Writes one MultiBox as its size plus only the chunks that hold anything
+     */
+    static void writeContents(ConfigurationSection cfg, String key, DiscList contents) {
+        ConfigurationSection section = cfg.createSection(key);
+        section.set("size", contents.size());
+        ConfigurationSection chunks = section.createSection("chunks");
+        for (int chunk = 0; chunk < contents.chunkCount(); chunk++) {
+            if (contents.isChunkEmpty(chunk)) continue;
+
+            int from = chunk * DiscList.CHUNK_SIZE;
+            chunks.set(String.valueOf(chunk), Arrays.asList(contents.toItemStacks(from, Math.min(from + DiscList.CHUNK_SIZE, contents.size()))));
+        }
+    }
+
+    private Location locationFromString(String locString) {
+        String[] parts = locString.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid location string format: " + locString);
+        }
+
+        if (!parts[0].equals(world.getName())) {
+            throw new IllegalArgumentException("Entry belongs to world " + parts[0]);
+        }
+
+        return new Location(world, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+    }
+}